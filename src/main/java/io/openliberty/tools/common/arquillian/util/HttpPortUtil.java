@@ -1,5 +1,5 @@
 /**
- * (C) Copyright IBM Corporation 2017, 2024
+ * (C) Copyright IBM Corporation 2017, 2026.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,41 +15,53 @@
  */
 package io.openliberty.tools.common.arquillian.util;
 
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import javax.xml.XMLConstants;
-import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathExpression;
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
-import com.sun.org.apache.xerces.internal.jaxp.DocumentBuilderFactoryImpl;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
 import org.xml.sax.SAXException;
-import org.w3c.dom.NodeList;
+import org.xml.sax.SAXParseException;
+
+import io.openliberty.tools.common.plugins.config.ServerConfigDocument;
+import io.openliberty.tools.common.plugins.config.ServerHttpEndpoint;
 
 public class HttpPortUtil {
 
     public static final int DEFAULT_PORT = 9080;
-    private static final XPath XPATH = XPathFactory.newInstance().newXPath();
+
+    private static final Pattern PORT_VARIABLE_PATTERN = Pattern.compile("^\\$\\{(.*)\\}$");
+    private static final Pattern INCLUDE_VARIABLE_PATTERN = Pattern.compile("\\$\\{([^}]+)\\}");
 
     private static DocumentBuilderFactory factory ;
 
+    private static XMLInputFactory inputFactory;
+
     public static DocumentBuilderFactory getBuilderFactory() throws ParserConfigurationException {
         if (factory == null) {
             factory = DocumentBuilderFactory.newInstance();
@@ -66,76 +78,257 @@ public class HttpPortUtil {
         return factory;
    }
 
+    private static synchronized XMLInputFactory getInputFactory() {
+        if (inputFactory == null) {
+            inputFactory = XMLInputFactory.newInstance();
+            inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        }
+        return inputFactory;
+    }
+
     public static Integer getHttpPort(File serverXML, File bootstrapProperties)
             throws FileNotFoundException, IOException, ParserConfigurationException, SAXException,
             XPathExpressionException, ArquillianConfigurationException {
         return getHttpPort(serverXML, bootstrapProperties, null);
     }
 
+    /**
+     * Gets the HTTP port of the first httpEndpoint in the server.xml, or in the files it includes
+     * if the server.xml has no httpEndpoint of its own. The server.xml is streamed rather than
+     * loaded into a DOM, and is read to the end so that a malformed file fails. A port variable is resolved from the configVariableXML, the
+     * variables directory of the server, then the bootstrap properties.
+     *
+     * @param serverXML           the server.xml file
+     * @param bootstrapProperties the bootstrap.properties file, or null
+     * @param configVariableXML   the liberty-plugin-variable-config.xml file, or null
+     * @return the HTTP port, or DEFAULT_PORT if no httpEndpoint is configured
+     */
     public static Integer getHttpPort(File serverXML, File bootstrapProperties, File configVariableXML)
             throws FileNotFoundException, IOException, ParserConfigurationException, SAXException,
             XPathExpressionException, ArquillianConfigurationException {
         if (serverXML != null && serverXML.exists() && serverXML.isFile()) {
-            byte[] encoded = Files.readAllBytes(Paths.get(serverXML.getCanonicalPath()));
-            String serverXMLAsString = new String(encoded, StandardCharsets.UTF_8);
-
             Properties prop = new Properties();
             if (bootstrapProperties != null && bootstrapProperties.exists()) {
-                prop.load(new FileInputStream(bootstrapProperties));
+                try (InputStream in = new FileInputStream(bootstrapProperties)) {
+                    prop.load(in);
+                }
             }
 
-            String configVariableXMLAsString = null;
-            if (configVariableXML != null && configVariableXML.exists() && configVariableXML.isFile()) {
-                byte[] configVarBytes = Files.readAllBytes(Paths.get(configVariableXML.getCanonicalPath()));
-                configVariableXMLAsString = new String(configVarBytes, StandardCharsets.UTF_8);
+            File serverXMLFile = serverXML.getCanonicalFile();
+            File serverDirectory = serverXMLFile.getParentFile();
+            String portString = findHttpPort(serverXMLFile, serverDirectory, prop, new HashSet<String>());
+            String variable = getPortVariable(portString);
+            if (variable == null) {
+                return portString == null ? DEFAULT_PORT : Integer.parseInt(portString);
             }
 
-            return getHttpPortForServerXML(serverXMLAsString, prop, configVariableXMLAsString);
+            String configVariableValue = null;
+            if (configVariableXML != null && configVariableXML.isFile() && configVariableXML.length() > 0) {
+                try (InputStream in = openStream(configVariableXML)) {
+                    configVariableValue = getHttpPortFromConfigVariableXML(createReader(in), variable);
+                }
+            }
+            return getHttpPortForVariable(variable, configVariableValue, prop, new File(serverDirectory, "variables"));
         }
         throw new FileNotFoundException(
-                "The given server.xml file at " + serverXML.getCanonicalPath() + " was not found.");
+                "The given server.xml file at " + (serverXML == null ? null : serverXML.getCanonicalPath()) + " was not found.");
+    }
+
+    /**
+     * Gets the HTTP port of the defaultHttpEndpoint, or of the first httpEndpoint if there is no
+     * defaultHttpEndpoint. The httpEndpoints are merged across the includes and configDropins, and
+     * their variables are resolved like the server does. The ServerConfigDocument reuses the
+     * resolved httpEndpoints while the configuration files are unchanged.
+     *
+     * @param configDocument the server configuration
+     * @return the HTTP port, or DEFAULT_PORT if no httpEndpoint is configured
+     */
+    public static Integer getHttpPort(ServerConfigDocument configDocument) throws ArquillianConfigurationException {
+        ServerHttpEndpoint endpoint = configDocument.getHttpEndpoint(ServerHttpEndpoint.DEFAULT_HTTP_ENDPOINT_ID);
+        if (endpoint == null) {
+            if (configDocument.getHttpEndpoints().isEmpty()) {
+                return DEFAULT_PORT;
+            }
+            endpoint = configDocument.getHttpEndpoints().get(0);
+        }
+        if (endpoint.getHttpPort() == null) {
+            throw new ArquillianConfigurationException(
+                    "The httpPort of the httpEndpoint " + endpoint.getId() + " cannot be resolved.");
+        }
+        return endpoint.getHttpPort();
     }
 
     protected static Integer getHttpPortForServerXML(String serverXML, Properties bootstrapProperties, String configVariableXML) throws ParserConfigurationException, SAXException, IOException, XPathExpressionException,
             ArquillianConfigurationException {
+        String portString = findHttpPort(createReader(new StringReader(serverXML)), null, null, bootstrapProperties, null);
+        String variable = getPortVariable(portString);
+        if (variable == null) {
+            return portString == null ? DEFAULT_PORT : Integer.parseInt(portString);
+        }
 
-        DocumentBuilder builder = getBuilderFactory().newDocumentBuilder();
-        Document doc = builder.parse(new ByteArrayInputStream(serverXML.getBytes()));
+        String configVariableValue = null;
+        if (configVariableXML != null && configVariableXML.length() != 0) {
+            configVariableValue = getHttpPortFromConfigVariableXML(createReader(new StringReader(configVariableXML)), variable);
+        }
+        return getHttpPortForVariable(variable, configVariableValue, bootstrapProperties, null);
+    }
 
-        XPathExpression httpEndpointExpr = XPATH.compile("/server/httpEndpoint");
-        Object httpEndpointObj = httpEndpointExpr.evaluate(doc, XPathConstants.NODE);
-        if (httpEndpointObj == null) {
-            return DEFAULT_PORT;
+    // Returns the variable name if the port is a variable, or null if the port is a number or not set.
+    private static String getPortVariable(String portString) throws ArquillianConfigurationException {
+        if (portString == null) {
+            return null;
+        }
+        try {
+            Integer.parseInt(portString);
+            return null;
+        } catch (NumberFormatException e) { // Probably a variable
+            Matcher m = PORT_VARIABLE_PATTERN.matcher(portString);
+            if (m.find()) {
+                return m.group(1);
+            }
+            throw new ArquillianConfigurationException(
+                    "Bootstrap properties variable " + portString + " is not in the correct format.");
         }
+    }
 
-        Element httpEndpointElement = (Element) httpEndpointObj;
-        String portString = httpEndpointElement.getAttribute("httpPort");
+    private static Integer getHttpPortForVariable(String variable, String configVariableValue, Properties bootstrapProperties, File variablesDirectory)
+            throws IOException, ArquillianConfigurationException {
+        // First look for variable in configVariableXML if provided
+        if (configVariableValue != null) {
+            try {
+                return Integer.parseInt(configVariableValue);
+            } catch (NumberFormatException ex) {
+                // Config variable value is not a number, return error
+                throw new ArquillianConfigurationException(
+                    "liberty-plugin-variable-config.xml variable " + variable + " is not in the correct format.");
+            }
+        }
+        Integer port = getHttpPortFromVariablesDirectory(variable, variablesDirectory);
+        if (port != null) {
+            return port;
+        }
+        return getHttpPortFromBootstrapProperties(variable, bootstrapProperties);
+    }
 
+    private static Integer getHttpPortFromVariablesDirectory(String variable, File variablesDirectory)
+            throws IOException, ArquillianConfigurationException {
+        if (variablesDirectory == null || variable.contains("..")) {
+            return null;
+        }
+        File variableFile = new File(variablesDirectory, variable);
+        if (!variableFile.isFile()) {
+            return null;
+        }
+        String value = new String(Files.readAllBytes(variableFile.toPath()), StandardCharsets.UTF_8).trim();
         try {
-            return Integer.parseInt(portString);
-        } catch (NumberFormatException e) { // Probably a variable
-            Pattern p = Pattern.compile("^\\$\\{(.*)\\}$");
-            Matcher m = p.matcher(portString);
-            while (m.find()) {
-                String variable = m.group(1);
-                // First look for variable in configVariableXML if provided
-                String variableValue = getHttpPortFromConfigVariableXML(configVariableXML, variable);
-
-                if (variableValue != null) {
-                    try {
-                        return Integer.parseInt(variableValue);
-                    } catch (NumberFormatException ex) {
-                        // Config variable value is not a number, return error
-                        throw new ArquillianConfigurationException(
-                            "liberty-plugin-variable-config.xml variable " + variable + " is not in the correct format.");
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new ArquillianConfigurationException(
+                    "Variable file " + variableFile + " is not in the correct format.");
+        }
+    }
+
+    private static String findHttpPort(File xmlFile, File serverDirectory, Properties bootstrapProperties, Set<String> parsedFiles)
+            throws IOException, SAXException {
+        if (!parsedFiles.add(xmlFile.getCanonicalPath())) {
+            return null;
+        }
+        try (InputStream in = openStream(xmlFile)) {
+            return findHttpPort(createReader(in), xmlFile, serverDirectory, bootstrapProperties, parsedFiles);
+        }
+    }
+
+    // Streams the whole document and returns the httpPort attribute of the first /server/httpEndpoint.
+    // The includes are only followed if the document has no httpEndpoint of its own, in which case
+    // the port of the first include with an httpEndpoint is returned, or null if there is none.
+    private static String findHttpPort(XMLStreamReader reader, File xmlFile, File serverDirectory, Properties bootstrapProperties, Set<String> parsedFiles)
+            throws IOException, SAXException {
+        List<String> includeLocations = new ArrayList<String>();
+        String port = null;
+        boolean isServer = true;
+        try {
+            int depth = 0;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                } else if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    if (depth == 1) {
+                        isServer = "server".equals(reader.getLocalName());
+                    }
+                    if (depth != 2 || !isServer) {
+                        continue;
+                    }
+                    if (port == null && "httpEndpoint".equals(reader.getLocalName())) {
+                        String httpPort = reader.getAttributeValue(null, "httpPort");
+                        port = httpPort == null ? "" : httpPort;
+                    }
+                    if (xmlFile != null && "include".equals(reader.getLocalName())) {
+                        includeLocations.add(reader.getAttributeValue(null, "location"));
+                    }
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw toParseException(e);
+        } finally {
+            try {
+                reader.close();
+            } catch (XMLStreamException e) {
+                // nothing to release
+            }
+        }
+        if (port != null || !isServer) {
+            return port;
+        }
+        for (String location : includeLocations) {
+            String includePort = findHttpPortInInclude(location, xmlFile, serverDirectory, bootstrapProperties, parsedFiles);
+            if (includePort != null) {
+                return includePort;
+            }
+        }
+        return null;
+    }
+
+    private static String findHttpPortInInclude(String location, File xmlFile, File serverDirectory, Properties bootstrapProperties, Set<String> parsedFiles)
+            throws IOException, SAXException {
+        if (location == null || location.isEmpty()) {
+            return null;
+        }
+        Matcher m = INCLUDE_VARIABLE_PATTERN.matcher(location);
+        StringBuffer resolved = new StringBuffer();
+        while (m.find()) {
+            String value = "server.config.dir".equals(m.group(1)) ? serverDirectory.getPath() : bootstrapProperties.getProperty(m.group(1));
+            if (value == null) {
+                // include location cannot be resolved, skip it
+                return null;
+            }
+            m.appendReplacement(resolved, Matcher.quoteReplacement(value));
+        }
+        m.appendTail(resolved);
+
+        File includeFile = new File(resolved.toString());
+        if (!includeFile.isAbsolute()) {
+            includeFile = new File(xmlFile.getParentFile(), resolved.toString());
+        }
+        if (includeFile.isFile()) {
+            return findHttpPort(includeFile, serverDirectory, bootstrapProperties, parsedFiles);
+        }
+        if (includeFile.isDirectory()) {
+            File[] files = includeFile.listFiles();
+            Arrays.sort(files);
+            for (File file : files) {
+                if (file.isFile() && file.getName().endsWith(".xml")) {
+                    String port = findHttpPort(file, serverDirectory, bootstrapProperties, parsedFiles);
+                    if (port != null) {
+                        return port;
                     }
-                } else {
-                    return getHttpPortFromBootstrapProperties(variable, bootstrapProperties);
                 }
             }
-            throw new ArquillianConfigurationException(
-                    "Bootstrap properties variable " + portString + " is not in the correct format.");
         }
+        return null;
     }
 
     // Loop through all variables and look for ones that match the passed in variableName.
@@ -143,45 +336,66 @@ public class HttpPortUtil {
     // Else if a matching variable has a defaultValue attribute, return that.
     // Otherwise, return null.
     // 
-    private static String getHttpPortFromConfigVariableXML(String configVariableXML, String variableName) throws ParserConfigurationException, SAXException, XPathExpressionException, IOException {
-        // If no configVariableXML is specified, return null.
-        if (configVariableXML == null || configVariableXML.length() == 0) {
-            return null;
-        }
-        DocumentBuilderFactory inputBuilderFactory = getBuilderFactory();
-        inputBuilderFactory.setNamespaceAware(false);
-        inputBuilderFactory.setIgnoringComments(true);
-        inputBuilderFactory.setCoalescing(true);
-        inputBuilderFactory.setIgnoringElementContentWhitespace(true);
-        inputBuilderFactory.setValidating(false);
-        DocumentBuilder inputBuilder = inputBuilderFactory.newDocumentBuilder();
-        Document inputDoc = inputBuilder.parse(new ByteArrayInputStream(configVariableXML.getBytes()));
-        
-        // parse input XML Document
-        String expression = "/server/variable";
-        NodeList nodes = (NodeList) XPATH.compile(expression).evaluate(inputDoc, XPathConstants.NODESET);
-
-        String variableValue = null;
+    private static String getHttpPortFromConfigVariableXML(XMLStreamReader reader, String variableName) throws SAXException {
         String variableDefaultValue = null;
-
-        // iterate through nodes
-        for (int i=0; i < nodes.getLength(); i++) {
-            Element el = (Element) nodes.item(i);
-            String varName = el.getAttribute("name");
-
-            if (varName != null && varName.equals(variableName)) {
-                String varValue = el.getAttribute("value");
-                if (varValue != null && !varValue.isEmpty() && variableValue == null) {
-                    variableValue = varValue;
-                }
-                String varDefaultValue = el.getAttribute("defaultValue");
-                if (varDefaultValue != null && !varDefaultValue.isEmpty() && variableDefaultValue == null) {
-                    variableDefaultValue = varDefaultValue;
+        try {
+            int depth = 0;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                } else if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    if (depth == 2 && "variable".equals(reader.getLocalName())
+                            && variableName.equals(reader.getAttributeValue(null, "name"))) {
+                        String varValue = reader.getAttributeValue(null, "value");
+                        if (varValue != null && !varValue.isEmpty()) {
+                            return varValue;
+                        }
+                        String varDefaultValue = reader.getAttributeValue(null, "defaultValue");
+                        if (varDefaultValue != null && !varDefaultValue.isEmpty() && variableDefaultValue == null) {
+                            variableDefaultValue = varDefaultValue;
+                        }
+                    }
                 }
             }
+        } catch (XMLStreamException e) {
+            throw toParseException(e);
+        } finally {
+            try {
+                reader.close();
+            } catch (XMLStreamException e) {
+                // nothing to release
+            }
         }
+        return variableDefaultValue;
+    }
+
+    // the parser reads the file through the channel and detects its encoding from the XML declaration
+    private static InputStream openStream(File file) throws IOException {
+        return Channels.newInputStream(FileChannel.open(file.toPath(), StandardOpenOption.READ));
+    }
+
+    private static XMLStreamReader createReader(InputStream in) throws SAXException {
+        try {
+            return getInputFactory().createXMLStreamReader(in);
+        } catch (XMLStreamException e) {
+            throw toParseException(e);
+        }
+    }
+
+    private static XMLStreamReader createReader(StringReader in) throws SAXException {
+        try {
+            return getInputFactory().createXMLStreamReader(in);
+        } catch (XMLStreamException e) {
+            throw toParseException(e);
+        }
+    }
 
-        return (variableValue != null ? variableValue : variableDefaultValue);
+    private static SAXParseException toParseException(XMLStreamException e) {
+        Location location = e.getLocation();
+        return new SAXParseException(e.getMessage(), null, null,
+                location == null ? -1 : location.getLineNumber(), location == null ? -1 : location.getColumnNumber(), e);
     }
 
     private static Integer getHttpPortFromBootstrapProperties(String variable, Properties bootstrapProperties)
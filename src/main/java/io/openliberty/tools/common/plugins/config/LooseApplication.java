@@ -4,6 +4,7 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.jar.Attributes;
 import java.util.jar.Manifest;
 
@@ -56,7 +57,10 @@ public abstract class LooseApplication {
     }
 
     private void addFiles(Element parent, File file, String targetPrefix) throws DOMException, IOException {
-        for (File subFile : file.listFiles()) {
+        File[] subFiles = file.listFiles();
+        // sorted so that the configuration is the same when the files are unchanged
+        Arrays.sort(subFiles);
+        for (File subFile : subFiles) {
             if (subFile.isDirectory()) {
                 addFiles(parent, subFile, targetPrefix + "/" + subFile.getName());
             } else {
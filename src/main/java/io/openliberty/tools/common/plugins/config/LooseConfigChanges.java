@@ -0,0 +1,118 @@
+/**
+ * (C) Copyright IBM Corporation 2026.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openliberty.tools.common.plugins.config;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The dir, file and archive entries added to and removed from a loose application
+ * configuration since it was last written.
+ */
+public final class LooseConfigChanges {
+
+    /**
+     * A dir, file or archive element of a loose application configuration.
+     */
+    public static final class Entry {
+        private final String type;
+        private final String target;
+        private final String sourceOnDisk;
+
+        public Entry(String type, String target, String sourceOnDisk) {
+            this.type = type;
+            this.target = target;
+            this.sourceOnDisk = sourceOnDisk;
+        }
+
+        /**
+         * @return the element name: dir, file or archive
+         */
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * @return the targetInArchive of the element, prefixed by the targets of the archives
+         *         that contain it and separated by "!"
+         */
+        public String getTarget() {
+            return target;
+        }
+
+        /**
+         * @return the sourceOnDisk of the element, or null for an archive
+         */
+        public String getSourceOnDisk() {
+            return sourceOnDisk;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry other = (Entry) o;
+            return Objects.equals(type, other.type) && Objects.equals(target, other.target)
+                    && Objects.equals(sourceOnDisk, other.sourceOnDisk);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, target, sourceOnDisk);
+        }
+
+        @Override
+        public String toString() {
+            return sourceOnDisk == null ? type + " " + target : type + " " + target + " from " + sourceOnDisk;
+        }
+    }
+
+    private final Set<Entry> added;
+    private final Set<Entry> removed;
+    private final boolean written;
+
+    LooseConfigChanges(List<Entry> previous, List<Entry> current, boolean written) {
+        Set<Entry> addedEntries = new LinkedHashSet<Entry>(current);
+        addedEntries.removeAll(previous);
+        Set<Entry> removedEntries = new LinkedHashSet<Entry>(previous);
+        removedEntries.removeAll(current);
+        this.added = Collections.unmodifiableSet(addedEntries);
+        this.removed = Collections.unmodifiableSet(removedEntries);
+        this.written = written;
+    }
+
+    public Set<Entry> getAdded() {
+        return added;
+    }
+
+    public Set<Entry> getRemoved() {
+        return removed;
+    }
+
+    /**
+     * @return true if the configuration file was written, false if it was left unchanged
+     */
+    public boolean isWritten() {
+        return written;
+    }
+}
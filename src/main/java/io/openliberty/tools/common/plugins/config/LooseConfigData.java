@@ -1,5 +1,5 @@
 /**
- * (C) Copyright IBM Corporation 2017, 2020.
+ * (C) Copyright IBM Corporation 2017, 2026.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,12 +17,28 @@ package io.openliberty.tools.common.plugins.config;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
 
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.apache.commons.io.FileUtils;
 import org.w3c.dom.DOMException;
 import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import io.openliberty.tools.common.plugins.config.LooseConfigChanges.Entry;
+import io.openliberty.tools.common.plugins.util.FileUtil;
 
 public class LooseConfigData extends XmlDocument {
 
@@ -77,15 +93,7 @@ public class LooseConfigData extends XmlDocument {
             Element child = doc.createElement("file");
             if(copyDirectory != null && copyDirectory.exists() && copyDirectory.isDirectory() &&
                     !src.getCanonicalPath().contains(copyDirectory.getCanonicalPath())) {
-                // Create a unique subdirectory based on timestamp so we don't get any overwritten files
-                File copyFileDirectory = new File(copyDirectory, Long.toString(System.nanoTime()));
-                copyFileDirectory.mkdir();
-                
-                // Copy the file into the directory
-                File copyFile = new File(copyFileDirectory, src.getName());
-                FileUtils.copyFile(src, copyFile);
-                
-                addElement(parent, child, copyFile, target);
+                addElement(parent, child, copyByContent(src, copyDirectory), target);
             }
             else {
                 addElement(parent, child, src, target);
@@ -111,6 +119,104 @@ public class LooseConfigData extends XmlDocument {
     public void toXmlFile(File xmlFile) throws Exception {        
         writeXMLDocument(xmlFile);
     }
+
+    /**
+     * Writes the configuration if its entries differ from the entries of the configuration
+     * previously written to the file.
+     *
+     * @param xmlFile the loose application configuration file
+     * @return the entries added and removed since the configuration was last written
+     */
+    public LooseConfigChanges updateXmlFile(File xmlFile) throws Exception {
+        List<Entry> current = getEntries();
+        List<Entry> previous = Collections.emptyList();
+        if (xmlFile.isFile()) {
+            try {
+                previous = readEntries(xmlFile);
+            } catch (XMLStreamException e) {
+                // the previous configuration is replaced
+            }
+        }
+        boolean written = false;
+        if (!xmlFile.isFile() || !previous.equals(current)) {
+            written = writeXMLDocumentIfChanged(xmlFile);
+        }
+        return new LooseConfigChanges(previous, current, written);
+    }
+
+    /**
+     * @return the dir, file and archive entries of the configuration in document order
+     */
+    public List<Entry> getEntries() {
+        List<Entry> entries = new ArrayList<Entry>();
+        collectEntries(doc.getDocumentElement(), "", entries);
+        return entries;
+    }
+
+    private static void collectEntries(Element parent, String targetPrefix, List<Entry> entries) {
+        for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node instanceof Element) {
+                Element element = (Element) node;
+                String target = targetPrefix + element.getAttribute("targetInArchive");
+                entries.add(new Entry(element.getTagName(), target, element.hasAttribute("sourceOnDisk") ? element.getAttribute("sourceOnDisk") : null));
+                if ("archive".equals(element.getTagName())) {
+                    collectEntries(element, target + "!", entries);
+                }
+            }
+        }
+    }
+
+    private static List<Entry> readEntries(File xmlFile) throws IOException, XMLStreamException {
+        List<Entry> entries = new ArrayList<Entry>();
+        XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        try (InputStream in = Files.newInputStream(xmlFile.toPath())) {
+            XMLStreamReader reader = inputFactory.createXMLStreamReader(in);
+            try {
+                // the target prefix of the children of each open element
+                Deque<String> targetPrefixes = new ArrayDeque<String>();
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        if (targetPrefixes.isEmpty()) {
+                            targetPrefixes.push("");
+                            continue;
+                        }
+                        String target = targetPrefixes.peek() + valueOf(reader.getAttributeValue(null, "targetInArchive"));
+                        entries.add(new Entry(reader.getLocalName(), target, reader.getAttributeValue(null, "sourceOnDisk")));
+                        targetPrefixes.push(target + "!");
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        targetPrefixes.pop();
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+        return entries;
+    }
+
+    private static String valueOf(String attribute) {
+        return attribute == null ? "" : attribute;
+    }
+
+    /**
+     * Copies the file into a subdirectory named by the hash of its content, so that an
+     * unchanged file is copied once and keeps its location in the configuration.
+     */
+    private static File copyByContent(File src, File copyDirectory) throws IOException {
+        File copyFileDirectory = new File(copyDirectory, FileUtil.sha256(src));
+        File copyFile = new File(copyFileDirectory, src.getName());
+        if (!copyFile.isFile() || copyFile.length() != src.length()) {
+            copyFileDirectory.mkdirs();
+            // copied under another name first, so that a partial copy is never reused
+            File tempFile = new File(copyFileDirectory, src.getName() + ".tmp");
+            FileUtils.copyFile(src, tempFile);
+            Files.move(tempFile.toPath(), copyFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return copyFile;
+    }
     
     public Element getDocumentRoot() {
         return doc.getDocumentElement();
@@ -0,0 +1,89 @@
+/**
+ * (C) Copyright IBM Corporation 2026.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openliberty.tools.common.plugins.config;
+
+import java.util.Objects;
+
+/**
+ * An application configured in the server configuration, with its location and
+ * name resolved from the server variables.
+ */
+public final class ServerApplication {
+
+    private final String type;
+    private final String location;
+    private final String name;
+    private final String sourceDocument;
+
+    public ServerApplication(String type, String location, String name, String sourceDocument) {
+        this.type = type;
+        this.location = location;
+        this.name = name;
+        this.sourceDocument = sourceDocument;
+    }
+
+    /**
+     * @return the configuration element of the application, such as application or webApplication
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * @return the resolved location, or the location as configured if its variables cannot be resolved
+     */
+    public String getLocation() {
+        return location;
+    }
+
+    /**
+     * @return the resolved name, the name as configured if its variables cannot be resolved,
+     *         or null if the application has no name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the URI of the configuration document that defines the application
+     */
+    public String getSourceDocument() {
+        return sourceDocument;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ServerApplication)) {
+            return false;
+        }
+        ServerApplication other = (ServerApplication) o;
+        return Objects.equals(type, other.type) && Objects.equals(location, other.location)
+                && Objects.equals(name, other.name) && Objects.equals(sourceDocument, other.sourceDocument);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, location, name, sourceDocument);
+    }
+
+    @Override
+    public String toString() {
+        return type + "[location=" + location + ", name=" + name + ", source=" + sourceDocument + "]";
+    }
+}
@@ -15,6 +15,10 @@
  */
 package io.openliberty.tools.common.plugins.config;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -22,18 +26,33 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.Map;
 import java.util.Properties;
+import java.util.TreeMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -42,23 +61,26 @@ import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
+import io.openliberty.tools.common.plugins.util.FileUtil;
 import io.openliberty.tools.common.plugins.util.LibertyPropFilesUtility;
 import io.openliberty.tools.common.plugins.util.OSUtil;
 import io.openliberty.tools.common.plugins.util.PluginExecutionException;
 import org.apache.commons.io.comparator.NameFileComparator;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
 import io.openliberty.tools.common.CommonLoggerI;
 import io.openliberty.tools.common.plugins.util.ServerFeatureUtil;
 import io.openliberty.tools.common.plugins.util.VariableUtility;
+import io.openliberty.tools.common.plugins.util.XPathCache;
 
 import static io.openliberty.tools.common.plugins.util.VariableUtility.parseVariables;
 
@@ -75,20 +97,462 @@ public class ServerConfigDocument {
     private Set<String> namelessLocations;
     private Set<String> locations;
     private HashMap<String, String> locationsAndNames;
-    private Properties props;
-    private Properties defaultProps;
+    private List<ServerApplication> applications = Collections.emptyList();
+    private List<ServerHttpEndpoint> httpEndpoints = Collections.emptyList();
+    private VariableStore props;
+    private VariableStore defaultProps;
     private Map<String, File> libertyDirectoryPropertyToFile = null;
+    private final boolean referencedVariablesOnly;
+    private final LayerCache layerCache;
 
     Optional<String> springBootAppNodeLocation = Optional.empty();
     Optional<String> springBootAppNodeDocumentURI = Optional.empty();
 
-    private static final XPathExpression XPATH_SERVER_APPLICATION;
-    private static final XPathExpression XPATH_SERVER_WEB_APPLICATION;
-    private static final XPathExpression XPATH_SERVER_SPRINGBOOT_APPLICATION;
-    private static final XPathExpression XPATH_SERVER_ENTERPRISE_APPLICATION;
-    private static final XPathExpression XPATH_SERVER_INCLUDE;
+    // fingerprints of the files read by the layer being evaluated, by absolute path
+    private Map<String, String> layerInputs = null;
+    private Document serverXmlDocument = null;
+    private String serverXmlFingerprint = null;
+
+    private static final int MAX_CACHED_CONFIGURATIONS = 16;
+    private static final String SYSTEM_PROPERTIES_INPUT = "<system properties>";
+    private static final String MISSING_INPUT = "missing";
+    private static final String REMOTE_INPUT = "remote";
+    // configuration files up to this size are fingerprinted by content, not only by size and modification time
+    private static final long MAX_HASHED_INPUT_SIZE = 1024 * 1024;
+    private static final Pattern VARIABLE_REFERENCE_PATTERN = Pattern.compile("\\$\\{([^}]+)\\}");
+
+    private static final int SNAPSHOT_MAGIC = 0x4c434647;
+    private static final int SNAPSHOT_VERSION = 2;
+
+    /**
+     * The evaluated layers of server configurations, kept by the caller, such as a dev
+     * mode session, and passed to the documents it creates. A document created with a
+     * cache reuses the layers of an earlier document for the same server whose files
+     * are unchanged. A document created without a cache evaluates its configuration
+     * from scratch.
+     */
+    public static class LayerCache {
+        private final File snapshotDirectory;
+        // evaluated layers by server.xml and Liberty directories, in order of last use
+        private final Map<String, Map<ConfigLayer, LayerState>> configLayers = new LinkedHashMap<String, Map<ConfigLayer, LayerState>>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Map<ConfigLayer, LayerState>> eldest) {
+                return size() > MAX_CACHED_CONFIGURATIONS;
+            }
+        };
+
+        /**
+         * Creates a cache that only keeps the layers in memory.
+         */
+        public LayerCache() {
+            this(null);
+        }
+
+        /**
+         * Creates a cache that also saves the evaluated layers of each server configuration
+         * in the given directory, typically the build directory. A later build reads them
+         * back and reuses the layers whose files and variables are unchanged. Only the values
+         * from files are saved: the Java system properties and the layers that resolved
+         * variables from them are evaluated again, and the variables looked up by a layer are
+         * saved as hashes.
+         *
+         * @param snapshotDirectory the snapshot directory, or null to not save the layers
+         */
+        public LayerCache(File snapshotDirectory) {
+            this.snapshotDirectory = snapshotDirectory;
+        }
+
+        public File getSnapshotDirectory() {
+            return snapshotDirectory;
+        }
+
+        /**
+         * Discards the cached layers of all server configurations. Snapshots are not deleted.
+         */
+        public void clear() {
+            synchronized (configLayers) {
+                configLayers.clear();
+            }
+        }
+
+        private Map<ConfigLayer, LayerState> getLayers(String cacheKey) {
+            synchronized (configLayers) {
+                Map<ConfigLayer, LayerState> layers = configLayers.get(cacheKey);
+                if (layers == null) {
+                    layers = new EnumMap<ConfigLayer, LayerState>(ConfigLayer.class);
+                    configLayers.put(cacheKey, layers);
+                }
+                return layers;
+            }
+        }
+    }
+
+    /**
+     * The layers of the server configuration in evaluation order. A layer lists the
+     * layers whose output it reads, so that a change to a file re-evaluates the layer
+     * that read the file and the layers that depend on it, and reuses the rest.
+     */
+    private enum ConfigLayer {
+        SERVER_XML_DEFAULTS(false, true, false),
+        SERVER_ENV(true, false, false),
+        BOOTSTRAP_PROPERTIES(true, false, false, SERVER_ENV),
+        SYSTEM_PROPERTIES(true, false, false, BOOTSTRAP_PROPERTIES),
+        // reads the server.xml default values for the includes when only referenced variables are read
+        VARIABLES_DIRECTORY(true, false, false, SERVER_XML_DEFAULTS, SYSTEM_PROPERTIES),
+        SERVER_XML_VARIABLES(true, true, false, SERVER_XML_DEFAULTS, VARIABLES_DIRECTORY),
+        PREDEFINED_VARIABLES(true, false, false, SERVER_XML_VARIABLES),
+        // the applications and the httpEndpoints
+        APPLICATIONS(false, false, true, PREDEFINED_VARIABLES);
+
+        private final boolean writesProps;
+        private final boolean writesDefaultProps;
+        private final boolean writesApplications;
+        private final ConfigLayer[] dependencies;
+
+        ConfigLayer(boolean writesProps, boolean writesDefaultProps, boolean writesApplications, ConfigLayer... dependencies) {
+            this.writesProps = writesProps;
+            this.writesDefaultProps = writesDefaultProps;
+            this.writesApplications = writesApplications;
+            this.dependencies = dependencies;
+        }
+
+        /**
+         * @return true if the output of the layer comes from the environment of the JVM
+         *         rather than from files, so that its values are not saved in snapshots
+         */
+        boolean readsEnvironment() {
+            return this == SYSTEM_PROPERTIES;
+        }
+    }
+
+    /**
+     * The output of an evaluated layer and the fingerprints of the files it read. The
+     * variables are kept as the changes made by the layer, which are applied on top of
+     * the output of the layers it depends on when the layer is reused.
+     */
+    private static class LayerState {
+        final Map<String, String> inputs;
+        // hashes of the variables the layer looked up, or null if it may have read any variable
+        Map<String, String> propsReads;
+        Map<String, String> defaultPropsReads;
+        // true if the layer was read from a snapshot that does not have its values
+        boolean valuesOmitted = false;
+        VariableStore props;
+        VariableStore defaultProps;
+        Set<String> locations;
+        Set<String> names;
+        Set<String> namelessLocations;
+        HashMap<String, String> locationsAndNames;
+        List<ServerApplication> applications;
+        List<ServerHttpEndpoint> httpEndpoints;
+        Optional<String> springBootAppNodeLocation;
+        Optional<String> springBootAppNodeDocumentURI;
+
+        LayerState(Map<String, String> inputs) {
+            this.inputs = inputs;
+        }
+
+        LayerState(ConfigLayer layer, Map<String, String> inputs, VariableStore propsChanges, VariableStore defaultPropsChanges, ServerConfigDocument doc) {
+            this.inputs = inputs;
+            propsReads = hashValues(propsChanges.getReadValues());
+            defaultPropsReads = hashValues(defaultPropsChanges.getReadValues());
+            if (layer.writesProps) {
+                props = propsChanges;
+            }
+            if (layer.writesDefaultProps) {
+                defaultProps = defaultPropsChanges;
+            }
+            if (layer.writesApplications) {
+                locations = new HashSet<String>(doc.locations);
+                names = new HashSet<String>(doc.names);
+                namelessLocations = new HashSet<String>(doc.namelessLocations);
+                locationsAndNames = new HashMap<String, String>(doc.locationsAndNames);
+                applications = doc.applications;
+                httpEndpoints = doc.httpEndpoints;
+                springBootAppNodeLocation = doc.springBootAppNodeLocation;
+                springBootAppNodeDocumentURI = doc.springBootAppNodeDocumentURI;
+            }
+        }
+
+        boolean isCurrent() {
+            for (Map.Entry<String, String> input : inputs.entrySet()) {
+                if (!input.getValue().equals(getInputFingerprint(input.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return true if the variables the layer looked up have the same values, or if the
+         *         layer may have read any variable, if none of the layers it depends on changed
+         */
+        boolean hasCurrentVariables(ServerConfigDocument doc, ConfigLayer layer, Set<ConfigLayer> changedLayers) {
+            if (propsReads == null || defaultPropsReads == null) {
+                return !dependsOnAny(layer, changedLayers);
+            }
+            return hasValues(doc.props, propsReads) && hasValues(doc.defaultProps, defaultPropsReads);
+        }
+
+        private static boolean hasValues(VariableStore store, Map<String, String> valueHashes) {
+            for (Map.Entry<String, String> valueHash : valueHashes.entrySet()) {
+                String current = store.getProperty(valueHash.getKey());
+                if (!Objects.equals(valueHash.getValue(), current == null ? null : FileUtil.sha256(current))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return true if the layer looked up a variable with the value of the Java system
+         *         property of the same name, so that its output may contain that value
+         */
+        boolean readsSystemProperties() {
+            return readsSystemProperties(propsReads) || readsSystemProperties(defaultPropsReads);
+        }
+
+        private static boolean readsSystemProperties(Map<String, String> valueHashes) {
+            if (valueHashes == null) {
+                // only the layers that look for variable references or run before the system
+                // properties read every variable, and they do not output the values they read
+                return false;
+            }
+            for (Map.Entry<String, String> valueHash : valueHashes.entrySet()) {
+                String value = System.getProperty(valueHash.getKey());
+                if (value != null && FileUtil.sha256(value).equals(valueHash.getValue())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // the values read are kept as hashes, so that snapshots do not contain them
+        private static Map<String, String> hashValues(Map<String, String> values) {
+            if (values == null) {
+                return null;
+            }
+            Map<String, String> hashes = new HashMap<String, String>();
+            for (Map.Entry<String, String> value : values.entrySet()) {
+                hashes.put(value.getKey(), value.getValue() == null ? null : FileUtil.sha256(value.getValue()));
+            }
+            return hashes;
+        }
+
+        boolean hasSameOutput(LayerState other) {
+            return hasSameValues(props, other.props) && hasSameValues(defaultProps, other.defaultProps)
+                    && Objects.equals(locations, other.locations) && Objects.equals(names, other.names)
+                    && Objects.equals(namelessLocations, other.namelessLocations)
+                    && Objects.equals(locationsAndNames, other.locationsAndNames)
+                    && Objects.equals(applications, other.applications)
+                    && Objects.equals(httpEndpoints, other.httpEndpoints)
+                    && Objects.equals(springBootAppNodeLocation, other.springBootAppNodeLocation);
+        }
+
+        void restore(ServerConfigDocument doc) {
+            if (props != null) {
+                doc.props.putAll(props);
+            }
+            if (defaultProps != null) {
+                doc.defaultProps.putAll(defaultProps);
+            }
+            // copies, since the following layers add to the document
+            if (locations != null) {
+                doc.locations = new HashSet<String>(locations);
+                doc.names = new HashSet<String>(names);
+                doc.namelessLocations = new HashSet<String>(namelessLocations);
+                doc.locationsAndNames = new HashMap<String, String>(locationsAndNames);
+                doc.applications = applications;
+                doc.httpEndpoints = httpEndpoints;
+                doc.springBootAppNodeLocation = springBootAppNodeLocation;
+                doc.springBootAppNodeDocumentURI = springBootAppNodeDocumentURI;
+            }
+        }
+
+        private static boolean hasSameValues(VariableStore changes, VariableStore otherChanges) {
+            return changes == null ? otherChanges == null : otherChanges != null && changes.hasSameValues(otherChanges);
+        }
+
+        /**
+         * @param includeValues false to leave out the variables and applications, which are
+         *                      then evaluated again when the snapshot is read
+         */
+        void write(DataOutputStream out, boolean includeValues) throws IOException {
+            writeStringMap(out, inputs);
+            writeStringMap(out, propsReads);
+            writeStringMap(out, defaultPropsReads);
+            out.writeBoolean(includeValues);
+            writeVariables(out, includeValues ? props : null);
+            writeVariables(out, includeValues ? defaultProps : null);
+            out.writeBoolean(includeValues && locations != null);
+            if (includeValues && locations != null) {
+                writeStrings(out, locations);
+                writeStrings(out, names);
+                writeStrings(out, namelessLocations);
+                writeStringMap(out, locationsAndNames);
+                out.writeInt(applications.size());
+                for (ServerApplication application : applications) {
+                    writeString(out, application.getType());
+                    writeString(out, application.getLocation());
+                    writeString(out, application.getName());
+                    writeString(out, application.getSourceDocument());
+                }
+                out.writeInt(httpEndpoints.size());
+                for (ServerHttpEndpoint endpoint : httpEndpoints) {
+                    writeString(out, endpoint.getId());
+                    writeString(out, endpoint.getHost());
+                    writeInteger(out, endpoint.getHttpPort());
+                    writeInteger(out, endpoint.getHttpsPort());
+                    writeString(out, endpoint.getSourceDocument());
+                }
+                writeString(out, springBootAppNodeLocation.orElse(null));
+                writeString(out, springBootAppNodeDocumentURI.orElse(null));
+            }
+        }
+
+        static LayerState read(DataInputStream in) throws IOException {
+            LayerState state = new LayerState(readStringMap(in));
+            state.propsReads = readStringMap(in);
+            state.defaultPropsReads = readStringMap(in);
+            state.valuesOmitted = !in.readBoolean();
+            state.props = readVariables(in);
+            state.defaultProps = readVariables(in);
+            if (in.readBoolean()) {
+                state.locations = readStrings(in);
+                state.names = readStrings(in);
+                state.namelessLocations = readStrings(in);
+                state.locationsAndNames = readStringMap(in);
+                int applicationCount = in.readInt();
+                List<ServerApplication> applications = new ArrayList<ServerApplication>(applicationCount);
+                for (int i = 0; i < applicationCount; i++) {
+                    applications.add(new ServerApplication(readString(in), readString(in), readString(in), readString(in)));
+                }
+                state.applications = Collections.unmodifiableList(applications);
+                int endpointCount = in.readInt();
+                List<ServerHttpEndpoint> endpoints = new ArrayList<ServerHttpEndpoint>(endpointCount);
+                for (int i = 0; i < endpointCount; i++) {
+                    endpoints.add(new ServerHttpEndpoint(readString(in), readString(in), readInteger(in), readInteger(in), readString(in)));
+                }
+                state.httpEndpoints = Collections.unmodifiableList(endpoints);
+                state.springBootAppNodeLocation = Optional.ofNullable(readString(in));
+                state.springBootAppNodeDocumentURI = Optional.ofNullable(readString(in));
+            }
+            return state;
+        }
+
+        private static void writeVariables(DataOutputStream out, VariableStore variables) throws IOException {
+            out.writeBoolean(variables != null);
+            if (variables != null) {
+                writeStringMap(out, variables.getLoadedValues());
+                Map<String, String> lazy = new HashMap<String, String>();
+                for (Map.Entry<String, File> entry : variables.getLazyValues().entrySet()) {
+                    lazy.put(entry.getKey(), entry.getValue().getPath());
+                }
+                writeStringMap(out, lazy);
+            }
+        }
+
+        private static VariableStore readVariables(DataInputStream in) throws IOException {
+            if (!in.readBoolean()) {
+                return null;
+            }
+            VariableStore variables = new VariableStore();
+            variables.putAll(readStringMap(in));
+            for (Map.Entry<String, String> entry : readStringMap(in).entrySet()) {
+                variables.putLazy(entry.getKey(), new File(entry.getValue()));
+            }
+            return variables;
+        }
+
+        private static void writeStrings(DataOutputStream out, Set<String> values) throws IOException {
+            out.writeInt(values.size());
+            for (String value : values) {
+                writeString(out, value);
+            }
+        }
+
+        private static Set<String> readStrings(DataInputStream in) throws IOException {
+            int size = in.readInt();
+            Set<String> values = new HashSet<String>();
+            for (int i = 0; i < size; i++) {
+                values.add(readString(in));
+            }
+            return values;
+        }
+
+        private static void writeStringMap(DataOutputStream out, Map<String, String> values) throws IOException {
+            if (values == null) {
+                out.writeInt(-1);
+                return;
+            }
+            out.writeInt(values.size());
+            for (Map.Entry<String, String> entry : values.entrySet()) {
+                writeString(out, entry.getKey());
+                writeString(out, entry.getValue());
+            }
+        }
+
+        private static HashMap<String, String> readStringMap(DataInputStream in) throws IOException {
+            int size = in.readInt();
+            if (size < 0) {
+                return null;
+            }
+            HashMap<String, String> values = new HashMap<String, String>();
+            for (int i = 0; i < size; i++) {
+                values.put(readString(in), readString(in));
+            }
+            return values;
+        }
+
+        private static void writeInteger(DataOutputStream out, Integer value) throws IOException {
+            out.writeBoolean(value != null);
+            if (value != null) {
+                out.writeInt(value);
+            }
+        }
+
+        private static Integer readInteger(DataInputStream in) throws IOException {
+            return in.readBoolean() ? Integer.valueOf(in.readInt()) : null;
+        }
+    }
+
+    // writeUTF is limited to 64 KB, which a variable value can exceed
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // evaluated with XPathCache, since compiled expressions are not thread safe
+    private static final String XPATH_SERVER_SPRINGBOOT_APPLICATION = "/server/springBootApplication";
+    private static final String XPATH_SERVER_INCLUDE = "/server/include";
+    private static final String XPATH_SERVER_HTTP_ENDPOINT = "/server/httpEndpoint";
+    private static final String[] HTTP_ENDPOINT_ATTRIBUTES = { "id", "host", "httpPort", "httpsPort" };
+    public static final String XPATH_SERVER_VARIABLE_EXPRESSION = "/server/variable";
+    private static final String XPATH_ALL_SERVER_APPLICATIONS = "/server/application | /server/webApplication | /server/enterpriseApplication | /server/springBootApplication";
+
+    /**
+     * @deprecated a compiled expression is not thread safe. Use XPathCache with
+     *             XPATH_SERVER_VARIABLE_EXPRESSION instead.
+     */
+    @Deprecated
     public static final XPathExpression XPATH_SERVER_VARIABLE;
-    private static final XPathExpression XPATH_ALL_SERVER_APPLICATIONS;
     // Windows style: !VAR!
     private static final Pattern WINDOWS_EXPANSION_VAR_PATTERN;
     // Linux style: ${VAR}
@@ -98,13 +562,7 @@ public class ServerConfigDocument {
     static {
         try {
             XPath xPath = XPathFactory.newInstance().newXPath();
-            XPATH_SERVER_APPLICATION = xPath.compile("/server/application");
-            XPATH_SERVER_WEB_APPLICATION = xPath.compile("/server/webApplication");
-            XPATH_SERVER_SPRINGBOOT_APPLICATION = xPath.compile("/server/springBootApplication");
-            XPATH_SERVER_ENTERPRISE_APPLICATION = xPath.compile("/server/enterpriseApplication");
-            XPATH_SERVER_INCLUDE = xPath.compile("/server/include");
-            XPATH_SERVER_VARIABLE = xPath.compile("/server/variable");
-            XPATH_ALL_SERVER_APPLICATIONS = xPath.compile("/server/application | /server/webApplication | /server/enterpriseApplication | /server/springBootApplication");
+            XPATH_SERVER_VARIABLE = xPath.compile(XPATH_SERVER_VARIABLE_EXPRESSION);
         } catch (XPathExpressionException ex) {
             // These XPath expressions should all compile statically.
             // Compilation failures mean the expressions are not syntactically
@@ -127,7 +585,46 @@ public class ServerConfigDocument {
         return namelessLocations;
     }
 
+    /**
+     * @return the applications in the server configuration, in the order they are configured
+     */
+    public List<ServerApplication> getApplications() {
+        return applications;
+    }
+
+    /**
+     * @return the httpEndpoints in the server configuration, in the order they are first configured
+     */
+    public List<ServerHttpEndpoint> getHttpEndpoints() {
+        return httpEndpoints;
+    }
+
+    /**
+     * @param id the id of the httpEndpoint
+     * @return the httpEndpoint with the id, or null if there is none
+     */
+    public ServerHttpEndpoint getHttpEndpoint(String id) {
+        for (ServerHttpEndpoint endpoint : httpEndpoints) {
+            if (id.equals(endpoint.getId())) {
+                return endpoint;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return a copy of the variables, with every file of the variables directories read.
+     *         Use {@link #getVariables()} to only read the variables that are looked up.
+     */
     public Properties getProperties() {
+        return props.toProperties();
+    }
+
+    /**
+     * @return the variables, whose files from the variables directories are read when
+     *         they are looked up
+     */
+    public VariableStore getVariables() {
         return props;
     }
 
@@ -135,7 +632,14 @@ public class ServerConfigDocument {
         return libertyDirectoryPropertyToFile;
     }
 
+    /**
+     * @return a copy of the default values of the variables
+     */
     public Properties getDefaultProperties() {
+        return defaultProps.toProperties();
+    }
+
+    public VariableStore getDefaultVariables() {
         return defaultProps;
     }
 
@@ -152,7 +656,43 @@ public class ServerConfigDocument {
      * @param libertyDirPropertyFiles
      */
     public ServerConfigDocument(CommonLoggerI log, File originalServerXMLFile, Map<String, File> libertyDirPropertyFiles) throws PluginExecutionException {
+        this(log, originalServerXMLFile, libertyDirPropertyFiles, false);
+    }
+
+    /**
+     * Expects the libertyDirPropertyFiles to be populated.
+     *
+     * @param log
+     * @param originalServerXMLFile
+     * @param libertyDirPropertyFiles
+     * @param referencedVariablesOnly true to only read the files of the variables that
+     *                                the server configuration references from the
+     *                                variables directories, instead of processing every
+     *                                file in them. The references are collected from the
+     *                                server.xml, its includes and configDropins, and from
+     *                                the values of the variables, so that the directories
+     *                                are not walked. The *.properties files are only read
+     *                                from the top of each directory.
+     */
+    public ServerConfigDocument(CommonLoggerI log, File originalServerXMLFile, Map<String, File> libertyDirPropertyFiles, boolean referencedVariablesOnly) throws PluginExecutionException {
+        this(log, originalServerXMLFile, libertyDirPropertyFiles, referencedVariablesOnly, null);
+    }
+
+    /**
+     * Expects the libertyDirPropertyFiles to be populated.
+     *
+     * @param log
+     * @param originalServerXMLFile
+     * @param libertyDirPropertyFiles
+     * @param referencedVariablesOnly true to only read the files of the referenced
+     *                                variables from the variables directories
+     * @param layerCache              the cache of evaluated layers to reuse and update,
+     *                                or null to evaluate the configuration from scratch
+     */
+    public ServerConfigDocument(CommonLoggerI log, File originalServerXMLFile, Map<String, File> libertyDirPropertyFiles, boolean referencedVariablesOnly, LayerCache layerCache) throws PluginExecutionException {
         this.log = log;
+        this.referencedVariablesOnly = referencedVariablesOnly;
+        this.layerCache = layerCache;
         if (libertyDirPropertyFiles != null) {
             libertyDirectoryPropertyToFile = new HashMap<String, File>(libertyDirPropertyFiles);
             configDirectory = libertyDirectoryPropertyToFile.get(ServerFeatureUtil.SERVER_CONFIG_DIR);
@@ -165,8 +705,10 @@ public class ServerConfigDocument {
         names = new HashSet<String>();
         namelessLocations = new HashSet<String>();
         locationsAndNames = new HashMap<String, String>();
-        props = new Properties();
-        defaultProps = new Properties();
+        props = new VariableStore();
+        props.setLogger(log);
+        defaultProps = new VariableStore();
+        defaultProps.setLogger(log);
         this.originalServerXMLFile = originalServerXMLFile;
         initializeAppsLocation();
     }
@@ -189,6 +731,8 @@ public class ServerConfigDocument {
     // test constructor that takes in initial properties to be called modularly
     public ServerConfigDocument(CommonLoggerI log, File originalServerXMLFile, Map<String, File> libertyDirPropertyFiles, Properties initProperties) {
         this.log = log;
+        this.referencedVariablesOnly = false;
+        this.layerCache = null;
         libertyDirectoryPropertyToFile = new HashMap<String, File>(libertyDirPropertyFiles);
         configDirectory = libertyDirectoryPropertyToFile.get(ServerFeatureUtil.SERVER_CONFIG_DIR);
         serverXMLFile = getFileFromConfigDirectory("server.xml");
@@ -196,9 +740,11 @@ public class ServerConfigDocument {
         names = new HashSet<String>();
         namelessLocations = new HashSet<String>();
         locationsAndNames = new HashMap<String, String>();
-        props = new Properties();
+        props = new VariableStore();
+        props.setLogger(log);
         if (initProperties != null) props.putAll(initProperties);
-        defaultProps = new Properties();
+        defaultProps = new VariableStore();
+        defaultProps.setLogger(log);
         this.originalServerXMLFile = originalServerXMLFile;
     }
 
@@ -252,52 +798,211 @@ public class ServerConfigDocument {
      //       c. ${server.config.dir}/configDropins/overrides/
      //  7. variables declared on the command line
      //  8. add liberty predefined variables to variable map
+     //
+     //  Each step is a layer. With a layer cache, its output is cached with the fingerprints of
+     //  the files it read, and reused by later documents for the same server while those files
+     //  are unchanged.
      */
     public void initializeAppsLocation() throws PluginExecutionException {
         try {
-            // 1. Need to parse variables in the server.xml for default values before trying to
-            //    find the include files in case one of the variables is used in the location.
-            Document doc = parseDocument(serverXMLFile);
-            parseVariablesForDefaultValues(doc);
-
-            // 2. get variables from server.env
-            processServerEnv();
+            String cacheKey = layerCache == null ? null : getLayerCacheKey();
+            if (cacheKey == null) {
+                evaluateLayers(new EnumMap<ConfigLayer, LayerState>(ConfigLayer.class));
+            } else {
+                Map<ConfigLayer, LayerState> layers = layerCache.getLayers(cacheKey);
+                synchronized (layers) {
+                    File snapshotFile = getSnapshotFile(cacheKey);
+                    if (snapshotFile != null && layers.isEmpty()) {
+                        readSnapshot(snapshotFile, cacheKey, layers);
+                    }
+                    if (evaluateLayers(layers) && snapshotFile != null) {
+                        writeSnapshot(snapshotFile, cacheKey, layers);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            if(e instanceof PluginExecutionException){
+                throw (PluginExecutionException)e;
+            }
+            e.printStackTrace();
+        } finally {
+            serverXmlDocument = null;
+            serverXmlFingerprint = null;
+        }
+    }
 
-            // 3. get variables from jvm.options. Incomplete uncommon usecase. Uncomment when ready.
-            // processJvmOptions();
+    /**
+     * @return the key of the cached layers for this document, or null if the layers
+     *         cannot be cached because the document already has content
+     */
+    private String getLayerCacheKey() {
+        if (serverXMLFile == null || !props.isEmpty() || !defaultProps.isEmpty() || !locations.isEmpty()
+                || !names.isEmpty() || !namelessLocations.isEmpty() || springBootAppNodeLocation.isPresent()) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder(serverXMLFile.getAbsolutePath());
+        key.append('|').append(referencedVariablesOnly);
+        for (Map.Entry<String, File> entry : new TreeMap<String, File>(libertyDirectoryPropertyToFile).entrySet()) {
+            key.append('|').append(entry.getKey()).append('=').append(entry.getValue().getAbsolutePath());
+        }
+        return key.toString();
+    }
 
-            // 3. get variables from bootstrap.properties
-            processBootstrapProperties();
+    /**
+     * Evaluates the layers in order. A cached layer is reused if the files it read are
+     * unchanged and none of the layers it depends on produced a different output. A
+     * reused layer counts as changed if a layer it depends on changed, since its output
+     * is applied on top of theirs, so that a change reaches every layer after it.
+     *
+     * @param layers the cached layers, updated with the evaluated layers
+     * @return true if a layer was evaluated because it changed, false if the cached layers
+     *         were reused or only evaluated to restore the values left out of a snapshot
+     */
+    private boolean evaluateLayers(Map<ConfigLayer, LayerState> layers) throws Exception {
+        Set<ConfigLayer> changedLayers = EnumSet.noneOf(ConfigLayer.class);
+        boolean evaluated = false;
+        for (ConfigLayer layer : ConfigLayer.values()) {
+            LayerState cached = layers.get(layer);
+            boolean current = cached != null && cached.isCurrent() && cached.hasCurrentVariables(this, layer, changedLayers);
+            if (current && !cached.valuesOmitted) {
+                log.debug("Reusing the unchanged " + layer + " layer of the server configuration");
+                cached.restore(this);
+                if (dependsOnAny(layer, changedLayers)) {
+                    changedLayers.add(layer);
+                }
+                continue;
+            }
+            evaluated |= !current;
+            Map<String, String> inputs = new HashMap<String, String>();
+            VariableStore propsChanges;
+            VariableStore defaultPropsChanges;
+            layerInputs = inputs;
+            props.startRecordingChanges();
+            defaultProps.startRecordingChanges();
+            try {
+                evaluateLayer(layer);
+            } catch (Exception e) {
+                layers.clear();
+                throw e;
+            } finally {
+                layerInputs = null;
+                propsChanges = props.stopRecordingChanges();
+                defaultPropsChanges = defaultProps.stopRecordingChanges();
+            }
+            LayerState state = new LayerState(layer, inputs, propsChanges, defaultPropsChanges, this);
+            // the changes of a layer are applied to the output of its dependencies, so its
+            // output is only the same if those are the same too. A layer evaluated only to
+            // restore its values has the same output, since its inputs are unchanged.
+            if (cached == null || dependsOnAny(layer, changedLayers) || (!current && !cached.hasSameOutput(state))) {
+                changedLayers.add(layer);
+            }
+            layers.put(layer, state);
+        }
+        return evaluated;
+    }
 
-            // 4. Java system properties
-            processSystemProperties();
+    private static boolean dependsOnAny(ConfigLayer layer, Set<ConfigLayer> changedLayers) {
+        for (ConfigLayer dependency : layer.dependencies) {
+            if (changedLayers.contains(dependency)) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-            // 5. Variables loaded from 'variables' directory
-            processVariablesDirectory();
+    private void evaluateLayer(ConfigLayer layer) throws Exception {
+        switch (layer) {
+            case SERVER_XML_DEFAULTS:
+                // 1. Need to parse variables in the server.xml for default values before trying to
+                //    find the include files in case one of the variables is used in the location.
+                parseVariablesForDefaultValues(getServerXmlDocument());
+                break;
+            case SERVER_ENV:
+                // 2. get variables from server.env
+                processServerEnv();
 
-            // 6. variable values declared in server.xml(s)
-            processServerXml(doc);
+                // 3. get variables from jvm.options. Incomplete uncommon usecase. Uncomment when ready.
+                // processJvmOptions();
+                break;
+            case BOOTSTRAP_PROPERTIES:
+                // 3. get variables from bootstrap.properties
+                processBootstrapProperties();
+                break;
+            case SYSTEM_PROPERTIES:
+                // 4. Java system properties
+                layerInputs.put(SYSTEM_PROPERTIES_INPUT, getInputFingerprint(SYSTEM_PROPERTIES_INPUT));
+                processSystemProperties();
+                break;
+            case VARIABLES_DIRECTORY:
+                // 5. Variables loaded from 'variables' directory
+                processVariablesDirectory();
+                break;
+            case SERVER_XML_VARIABLES:
+                // 6. variable values declared in server.xml(s)
+                processServerXml(getServerXmlDocument());
 
-            // 7. variables declared on the command line
-            // Maven: https://github.com/OpenLiberty/ci.maven/blob/main/docs/common-server-parameters.md#setting-liberty-configuration-with-maven-project-properties
-            // Gradle: https://github.com/dshimo/ci.gradle/blob/main/docs/libertyExtensions.md
+                // 7. variables declared on the command line
+                // Maven: https://github.com/OpenLiberty/ci.maven/blob/main/docs/common-server-parameters.md#setting-liberty-configuration-with-maven-project-properties
+                // Gradle: https://github.com/dshimo/ci.gradle/blob/main/docs/libertyExtensions.md
+                break;
+            case PREDEFINED_VARIABLES:
+                // 8. liberty pre defined variables
+                processPredefinedVariables();
+                break;
+            case APPLICATIONS:
+                parseApplicationsAndEndpoints(getServerXmlDocument());
+                break;
+        }
+    }
 
-            // 8. liberty pre defined variables
-            processPredefinedVariables();
+    /**
+     * The server.xml document is parsed once and shared by the layers that read it,
+     * unless it changes while the layers are evaluated.
+     */
+    private Document getServerXmlDocument() throws IOException {
+        String fingerprint = getInputFingerprint(serverXMLFile.getAbsolutePath());
+        if (serverXmlDocument == null || !fingerprint.equals(serverXmlFingerprint)) {
+            serverXmlDocument = parseDocument(serverXMLFile);
+            serverXmlFingerprint = fingerprint;
+        }
+        recordInput(serverXMLFile);
+        return serverXmlDocument;
+    }
 
-            parseApplication(doc, XPATH_SERVER_APPLICATION);
-            parseApplication(doc, XPATH_SERVER_WEB_APPLICATION);
-            parseApplication(doc, XPATH_SERVER_ENTERPRISE_APPLICATION);
-            parseApplication(doc, XPATH_SERVER_SPRINGBOOT_APPLICATION);
-            parseNames(doc, XPATH_ALL_SERVER_APPLICATIONS);
-            parseInclude(doc);
-            parseConfigDropinsDir();
+    /**
+     * Records a file or directory read by the layer being evaluated, whether or not it exists.
+     */
+    private void recordInput(File file) {
+        if (layerInputs != null && file != null) {
+            String path = file.getAbsolutePath();
+            layerInputs.put(path, getInputFingerprint(path));
+        }
+    }
 
-        } catch (Exception e) {
-            if(e instanceof PluginExecutionException){
-                throw (PluginExecutionException)e;
+    private static String getInputFingerprint(String input) {
+        if (SYSTEM_PROPERTIES_INPUT.equals(input)) {
+            // a hash of the sorted properties is the same in a later JVM with the same properties
+            StringBuilder properties = new StringBuilder();
+            for (Map.Entry<Object, Object> property : new TreeMap<Object, Object>(System.getProperties()).entrySet()) {
+                properties.append(property.getKey()).append('=').append(property.getValue()).append('\n');
             }
-            e.printStackTrace();
+            return FileUtil.sha256(properties.toString());
+        }
+        if (input.startsWith(REMOTE_INPUT + ":")) {
+            // remote includes are not cached
+            return null;
+        }
+        try {
+            Path path = Paths.get(input);
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            String fingerprint = attributes.size() + ":" + attributes.lastModifiedTime();
+            if (attributes.isRegularFile() && attributes.size() <= MAX_HASHED_INPUT_SIZE) {
+                // an edit that keeps the size within the modification time granularity only changes the content
+                fingerprint += ":" + FileUtil.sha256(path.toFile());
+            }
+            return fingerprint;
+        } catch (IOException | InvalidPathException e) {
+            return MISSING_INPUT;
         }
     }
 
@@ -330,9 +1035,7 @@ public class ServerConfigDocument {
         parsePropertiesFromFile(getFileFromConfigDirectory(serverEnvString));
         Map<String, String> resolvedMap = new HashMap<>();
 
-        props.forEach((k, v) -> {
-            String key = (String) k;
-            String value = (String) v;
+        props.getValues().forEach((key, value) -> {
             Set<String> resolveInProgressProps = new HashSet<>();
             resolveInProgressProps.add(key);
             resolvedMap.put(key, resolveExpansionProperties(props, value, key, resolveInProgressProps));
@@ -352,7 +1055,7 @@ public class ServerConfigDocument {
      * @param resolveInProgressProps The set of variables in the current stack to detect loops.
      * @return The resolved string or raw text if depth/circularity limits are hit.
      */
-    private String resolveExpansionProperties(Properties props, String value, String key, Set<String> resolveInProgressProps) {
+    private String resolveExpansionProperties(VariableStore props, String value, String key, Set<String> resolveInProgressProps) {
         if (value == null) return null;
         Pattern pattern = OSUtil.isWindows() ? WINDOWS_EXPANSION_VAR_PATTERN : LINUX_EXPANSION_VAR_PATTERN;
         Matcher matcher = pattern.matcher(value);
@@ -442,6 +1145,8 @@ public class ServerConfigDocument {
             return;
         }
 
+        recordInput(bootstrapIncludeFile);
+
         if (bootstrapIncludeFile.exists()) {
             parsePropertiesFromFile(bootstrapIncludeFile);
             processedBootstrapIncludes.add(bootstrapIncludeFile.getAbsolutePath());
@@ -468,26 +1173,235 @@ public class ServerConfigDocument {
             toProcess.add(getFileFromConfigDirectory("variables"));
         } else {
             String delimiter = (File.separator.equals("/")) ? ":" : ";";    // OS heuristic
-            String[] directories = props.get(variableDirectoryProperty).toString().split(delimiter);
+            String[] directories = props.getProperty(variableDirectoryProperty).split(delimiter);
             for (String directory : directories) {
                 Path directoryPath = Paths.get(directory);
                 File directoryFile = directoryPath.toFile();
+                recordInput(directoryFile);
                 if (directoryFile.exists()) {
                     toProcess.add(directoryFile);
                 }
             }
         }
 
+        List<File> variableDirectories = new ArrayList<File>();
         for (File directory : toProcess) {
             if (directory == null || !directory.isDirectory()) {
                 continue;
             }
-            processVariablesDirectory(directory, "");
+            if (referencedVariablesOnly) {
+                variableDirectories.add(directory);
+            } else {
+                processVariablesDirectory(directory, "");
+            }
+        }
+        if (!variableDirectories.isEmpty()) {
+            processReferencedVariables(variableDirectories);
+        }
+    }
+
+    private File getSnapshotFile(String cacheKey) {
+        File directory = layerCache.getSnapshotDirectory();
+        if (directory == null) {
+            return null;
+        }
+        return new File(directory, "liberty-server-config-" + FileUtil.sha256(cacheKey).substring(0, 16) + ".bin");
+    }
+
+    private void readSnapshot(File snapshotFile, String cacheKey, Map<ConfigLayer, LayerState> layers) {
+        if (!snapshotFile.isFile()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile.toPath())))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION || !cacheKey.equals(readString(in))) {
+                return;
+            }
+            Map<ConfigLayer, LayerState> snapshot = new EnumMap<ConfigLayer, LayerState>(ConfigLayer.class);
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                ConfigLayer layer = ConfigLayer.valueOf(readString(in));
+                snapshot.put(layer, LayerState.read(in));
+            }
+            layers.putAll(snapshot);
+            log.debug("Read the server configuration snapshot " + snapshotFile);
+        } catch (IOException | IllegalArgumentException | NullPointerException e) {
+            log.debug("Unable to read the server configuration snapshot " + snapshotFile + ": " + e);
+        }
+    }
+
+    private void writeSnapshot(File snapshotFile, String cacheKey, Map<ConfigLayer, LayerState> layers) {
+        File tempFile = null;
+        try {
+            snapshotFile.getParentFile().mkdirs();
+            tempFile = File.createTempFile(snapshotFile.getName(), ".tmp", snapshotFile.getParentFile());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile.toPath())))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                writeString(out, cacheKey);
+                out.writeInt(layers.size());
+                for (Map.Entry<ConfigLayer, LayerState> layer : layers.entrySet()) {
+                    writeString(out, layer.getKey().name());
+                    // the system properties, and the layers that resolved variables from them,
+                    // are kept by their fingerprints only
+                    LayerState state = layer.getValue();
+                    state.write(out, !layer.getKey().readsEnvironment() && !state.readsSystemProperties());
+                }
+            }
+            try {
+                Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            log.debug("Unable to write the server configuration snapshot " + snapshotFile + ": " + e);
+        } finally {
+            if (tempFile != null) {
+                tempFile.delete();
+            }
+        }
+    }
+
+    /**
+     * Reads the variables referenced by the server configuration from the given
+     * directories. Variable files are read as they are found, so that the references
+     * in their values and in the includes whose location they resolve are followed.
+     *
+     * @param directories the variables directories, in increasing precedence
+     */
+    private void processReferencedVariables(List<File> directories) throws Exception {
+        for (File directory : directories) {
+            recordInput(directory);
+            List<File> propertiesFiles = new ArrayList<File>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory.toPath(), "*.properties")) {
+                for (Path path : stream) {
+                    propertiesFiles.add(path.toFile());
+                }
+            }
+            Collections.sort(propertiesFiles, NameFileComparator.NAME_INSENSITIVE_COMPARATOR);
+            for (File propertiesFile : propertiesFiles) {
+                parsePropertiesFromFile(propertiesFile);
+            }
+        }
+
+        Deque<String> references = new ArrayDeque<String>();
+        for (String value : props.getValues().values()) {
+            collectReferences(value, references);
+        }
+        for (String value : defaultProps.getValues().values()) {
+            collectReferences(value, references);
+        }
+
+        Deque<Document> docs = new ArrayDeque<Document>();
+        if (serverXMLFile != null) {
+            docs.add(getServerXmlDocument());
+        }
+        File configDropins = getConfigDropinsDir();
+        for (String dropinsDir : Arrays.asList("defaults", "overrides")) {
+            File dir = new File(configDropins, dropinsDir);
+            recordInput(dir);
+            if (dir.isDirectory()) {
+                for (File file : dir.listFiles()) {
+                    Document doc = file.isFile() ? parseDocument(file) : null;
+                    if (doc != null) {
+                        docs.add(doc);
+                    }
+                }
+            }
+        }
+
+        Set<String> processedNames = new HashSet<String>();
+        Set<String> processedIncludes = new HashSet<String>();
+        List<Document> includingDocs = new ArrayList<Document>();
+        while (!docs.isEmpty() || !references.isEmpty()) {
+            while (!docs.isEmpty()) {
+                Document doc = docs.poll();
+                collectReferences(doc.getDocumentElement(), references);
+                includingDocs.add(doc);
+            }
+            while (!references.isEmpty()) {
+                String name = references.poll();
+                for (String variableName : getVariableNameVariations(name)) {
+                    if (processedNames.add(variableName)) {
+                        processReferencedVariable(directories, variableName, references);
+                    }
+                }
+            }
+            // includes whose location can now be resolved can reference more variables
+            for (Document doc : includingDocs) {
+                NodeList nodeList = XPathCache.evaluateNodeSet(XPATH_SERVER_INCLUDE, doc);
+                for (int i = 0; i < nodeList.getLength(); i++) {
+                    String location = ((Element) nodeList.item(i)).getAttribute("location");
+                    String includeFileName = VariableUtility.resolveVariables(log, location, null, props, defaultProps, getLibertyDirPropertyFiles());
+                    if (includeFileName != null && !includeFileName.trim().isEmpty() && processedIncludes.add(includeFileName)) {
+                        docs.addAll(getIncludeDocs(includeFileName));
+                    }
+                }
+            }
+            includingDocs.clear();
+        }
+    }
+
+    private void processReferencedVariable(List<File> directories, String name, Deque<String> references) {
+        if (name.isEmpty() || name.contains("..") || new File(name).isAbsolute()) {
+            return;
+        }
+        boolean found = false;
+        for (File directory : directories) {
+            File file = new File(directory, name);
+            recordInput(file);
+            if (file.isFile()) {
+                props.putLazy(name, file);
+                found = true;
+            }
+        }
+        if (found) {
+            collectReferences(props.getProperty(name), references);
+        }
+    }
+
+    /**
+     * @return the names under which VariableUtility looks up a referenced variable
+     */
+    private static Set<String> getVariableNameVariations(String name) {
+        Set<String> names = new LinkedHashSet<String>();
+        names.add(name);
+        String variation = name.replaceAll("\\W", "_");
+        names.add(variation);
+        names.add(variation.toUpperCase());
+        if (name.startsWith("env.") && name.length() > 4) {
+            names.add(name.substring(4));
+        }
+        return names;
+    }
+
+    private static void collectReferences(Node node, Deque<String> references) {
+        if (node.getNodeType() == Node.TEXT_NODE) {
+            collectReferences(node.getNodeValue(), references);
+        }
+        NamedNodeMap attributes = node.getAttributes();
+        if (attributes != null) {
+            for (int i = 0; i < attributes.getLength(); i++) {
+                collectReferences(attributes.item(i).getNodeValue(), references);
+            }
+        }
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            collectReferences(child, references);
+        }
+    }
+
+    private static void collectReferences(String value, Deque<String> references) {
+        if (value == null || !value.contains("${")) {
+            return;
+        }
+        Matcher matcher = VARIABLE_REFERENCE_PATTERN.matcher(value);
+        while (matcher.find()) {
+            references.add(matcher.group(1));
         }
     }
 
     /**
      * The file name defines the variable name and its contents define the value.
+     * The contents are read when the variable is first looked up.
      * If a directory is nested within a directory, it is recurisvely processed.
      * A nested file will have its parent dir prepended for the property name e.g. {parent directory}/{file name}
      * If the file name ends with *.properties, then it's processed as a properties file.
@@ -498,6 +1412,7 @@ public class ServerConfigDocument {
      */
     private void processVariablesDirectory(File directory, String propertyPrefix)
             throws FileNotFoundException, Exception {
+        recordInput(directory);
         for (File child : directory.listFiles()) {
             if (child.isDirectory()) {
                 processVariablesDirectory(child, child.getName() + File.separator);
@@ -510,8 +1425,8 @@ public class ServerConfigDocument {
             }
 
             String propertyName = propertyPrefix + child.getName();
-            String propertyValue = new String(Files.readAllBytes(child.toPath()));
-            props.setProperty(propertyName, propertyValue);
+            recordInput(child);
+            props.putLazy(propertyName, child);
         }
     }
 
@@ -529,53 +1444,6 @@ public class ServerConfigDocument {
         parseConfigDropinsDirVariables("overrides");
     }
 
-    //Checks for application names in the document. Will add locations without names to a Set
-    private void parseNames(Document doc, XPathExpression expression) throws XPathExpressionException, IOException, SAXException {
-        // parse input document
-        NodeList nodeList = (NodeList) expression.evaluate(doc, XPathConstants.NODESET);
-
-        for (int i = 0; i < nodeList.getLength(); i++) {
-            if (nodeList.item(i).getAttributes().getNamedItem("name") != null) {
-                String nameValue = nodeList.item(i).getAttributes().getNamedItem("name").getNodeValue();
-                String locationValue = nodeList.item(i).getAttributes().getNamedItem("location").getNodeValue();
-
-                // add unique values only
-                if (!nameValue.isEmpty()) {
-                    String resolvedName = VariableUtility.resolveVariables(log, nameValue, null, getProperties(), getDefaultProperties(), getLibertyDirPropertyFiles());
-                    String resolvedLocation = VariableUtility.resolveVariables(log, locationValue, null, getProperties(), getDefaultProperties(), getLibertyDirPropertyFiles());
-                    if (resolvedName == null) {
-                        if (!names.contains(nameValue)) {
-                            names.add(nameValue);
-                        }
-                    } else if (!names.contains(resolvedName)) {
-                        names.add(resolvedName);
-                    }
-                    if (resolvedLocation != null) {
-                        if (resolvedName == null) {
-                            locationsAndNames.put(resolvedLocation, nameValue);
-                        } else {
-                            locationsAndNames.put(resolvedLocation, resolvedName);
-                        }
-                    }
-                }
-            } else {
-                String nodeValue = nodeList.item(i).getAttributes().getNamedItem("location").getNodeValue();
-
-                // add unique values only
-                if (!nodeValue.isEmpty()) {
-                    String resolved = VariableUtility.resolveVariables(log, nodeValue, null, getProperties(), getDefaultProperties(), getLibertyDirPropertyFiles());
-                    if (resolved == null) {
-                        if (! namelessLocations.contains(nodeValue)) {
-                            namelessLocations.add(nodeValue);
-                        }
-                    } else if (! namelessLocations.contains(resolved)) {
-                        namelessLocations.add(resolved);
-                    }
-                }
-            }
-        }
-    }
-
     public String findNameForLocation(String location) {
         String appName = locationsAndNames.get(location);
 
@@ -586,114 +1454,227 @@ public class ServerConfigDocument {
         return appName;
     }
 
-    private void parseApplication(Document doc, XPathExpression expression) throws XPathExpressionException, PluginExecutionException {
+    /**
+     * An application or httpEndpoint element found in a configuration document.
+     */
+    private static class ConfigNode {
+        final Element element;
+        final String documentURI;
 
-        NodeList nodeList = (NodeList) expression.evaluate(doc, XPathConstants.NODESET);
-        if(expression.equals(XPATH_SERVER_SPRINGBOOT_APPLICATION) && nodeList.getLength()>1){
-            throw new PluginExecutionException(String.format("Found multiple springBootApplication elements specified in the server configuration file %s. Only one springBootApplication can be configured per Liberty server.", doc.getDocumentURI()));
+        ConfigNode(Element element, String documentURI) {
+            this.element = element;
+            this.documentURI = documentURI;
         }
-        for (int i = 0; i < nodeList.getLength(); i++) {
-            String nodeValue = nodeList.item(i).getAttributes().getNamedItem("location").getNodeValue();
-            // add unique values only
-            if (!nodeValue.isEmpty()) {
-                checkForSpringBootApplicationNode(doc, expression, nodeValue);
-                String resolved = VariableUtility.resolveVariables(log, nodeValue, null, getProperties(), getDefaultProperties(), getLibertyDirPropertyFiles());
-                if (resolved == null) {
+    }
+
+    /**
+     * Finds the applications and httpEndpoints in the server.xml, its includes and configDropins,
+     * then resolves their locations, names and ports in one pass. A value used by several
+     * elements is resolved once.
+     *
+     * @param serverXmlDoc the server.xml document
+     */
+    private void parseApplicationsAndEndpoints(Document serverXmlDoc) throws XPathExpressionException, IOException, SAXException, PluginExecutionException {
+        Map<String, String> resolvedValues = new HashMap<String, String>();
+        List<ConfigNode> nodes = new ArrayList<ConfigNode>();
+        List<ConfigNode> endpointNodes = new ArrayList<ConfigNode>();
+        collectConfigElements(serverXmlDoc, nodes, endpointNodes, resolvedValues);
+
+        List<ConfigNode> overridesEndpointNodes = new ArrayList<ConfigNode>();
+        List<ConfigNode> defaultsEndpointNodes = new ArrayList<ConfigNode>();
+        File configDropins = getConfigDropinsDir();
+        if (configDropins != null && configDropins.exists()) {
+            collectDropinsConfigElements(new File(configDropins, "overrides"), nodes, overridesEndpointNodes, resolvedValues);
+            collectDropinsConfigElements(new File(configDropins, "defaults"), nodes, defaultsEndpointNodes, resolvedValues);
+        }
+
+        // configDropins/defaults are merged before the server.xml, and configDropins/overrides after it
+        defaultsEndpointNodes.addAll(endpointNodes);
+        defaultsEndpointNodes.addAll(overridesEndpointNodes);
+        httpEndpoints = resolveHttpEndpoints(defaultsEndpointNodes, resolvedValues);
+
+        List<ServerApplication> resolvedApplications = new ArrayList<ServerApplication>(nodes.size());
+        for (ConfigNode node : nodes) {
+            String type = node.element.getTagName();
+            String location = node.element.getAttribute("location");
+            String resolvedLocation = null;
+            if (!location.isEmpty()) {
+                if ("springBootApplication".equals(type)) {
+                    checkForSpringBootConfigNode(node.documentURI, location);
+                }
+                resolvedLocation = resolveValue(location, resolvedValues);
+                if (resolvedLocation == null) {
                     // location could not be resolved, log message and add location as is
-                    log.info("The variables referenced by location " + nodeValue + " cannot be resolved.");
-                    if (!locations.contains(nodeValue)) {
-                        locations.add(nodeValue);
-                    }
-                } else if (!locations.contains(resolved)) {
-                    log.debug("Adding resolved app location: "+resolved+" for specified location: "+nodeValue);
-                    locations.add(resolved);
+                    log.info("The variables referenced by location " + location + " cannot be resolved.");
+                    locations.add(location);
+                } else if (locations.add(resolvedLocation)) {
+                    log.debug("Adding resolved app location: "+resolvedLocation+" for specified location: "+location);
                 }
             }
-        }
-    }
 
-    private void checkForSpringBootApplicationNode(Document doc, XPathExpression expression, String nodeValue) throws PluginExecutionException {
-        if(expression.equals(XPATH_SERVER_SPRINGBOOT_APPLICATION)){
-            // checking whether any springBootAppNodeLocation already configured from other server configuration files
-            if(springBootAppNodeLocation.isPresent() && springBootAppNodeDocumentURI.isPresent()){
-                throw new PluginExecutionException(String.format("Found multiple springBootApplication elements specified in the server configuration in files [%s, %s]. Only one springBootApplication can be configured per Liberty server.", springBootAppNodeDocumentURI.get(), doc.getDocumentURI()));
+            String name = null;
+            if (node.element.hasAttribute("name")) {
+                String nameValue = node.element.getAttribute("name");
+                if (!nameValue.isEmpty()) {
+                    String resolvedName = resolveValue(nameValue, resolvedValues);
+                    name = resolvedName == null ? nameValue : resolvedName;
+                    names.add(name);
+                    if (resolvedLocation != null) {
+                        locationsAndNames.put(resolvedLocation, name);
+                    }
+                }
+            } else if (!location.isEmpty()) {
+                namelessLocations.add(resolvedLocation == null ? location : resolvedLocation);
             }
-            else {
-                log.debug("Setting springBootApplication location as "+ nodeValue);
-                springBootAppNodeLocation = Optional.of(nodeValue);
-                springBootAppNodeDocumentURI = Optional.of(doc.getDocumentURI());
+
+            if (!location.isEmpty()) {
+                resolvedApplications.add(new ServerApplication(type, resolvedLocation == null ? location : resolvedLocation, name, node.documentURI));
             }
         }
+        applications = Collections.unmodifiableList(resolvedApplications);
     }
 
-    private void parseInclude(Document doc) throws XPathExpressionException, IOException, SAXException, PluginExecutionException {
-        // parse include document in source server xml
-        NodeList nodeList = (NodeList) XPATH_SERVER_INCLUDE.evaluate(doc, XPathConstants.NODESET);
-
+    /**
+     * Adds the applications and httpEndpoints of a document and of the documents it includes.
+     */
+    private void collectConfigElements(Document doc, List<ConfigNode> nodes, List<ConfigNode> endpointNodes, Map<String, String> resolvedValues) throws XPathExpressionException, IOException, SAXException, PluginExecutionException {
+        if (XPathCache.evaluateNodeSet(XPATH_SERVER_SPRINGBOOT_APPLICATION, doc).getLength() > 1) {
+            throw new PluginExecutionException(String.format("Found multiple springBootApplication elements specified in the server configuration file %s. Only one springBootApplication can be configured per Liberty server.", doc.getDocumentURI()));
+        }
+        NodeList nodeList = XPathCache.evaluateNodeSet(XPATH_ALL_SERVER_APPLICATIONS, doc);
         for (int i = 0; i < nodeList.getLength(); i++) {
-            if (nodeList.item(i) instanceof Element) {
-                Element child = (Element) nodeList.item(i);
+            nodes.add(new ConfigNode((Element) nodeList.item(i), doc.getDocumentURI()));
+        }
+        NodeList endpointList = XPathCache.evaluateNodeSet(XPATH_SERVER_HTTP_ENDPOINT, doc);
+        for (int i = 0; i < endpointList.getLength(); i++) {
+            endpointNodes.add(new ConfigNode((Element) endpointList.item(i), doc.getDocumentURI()));
+        }
+
+        // parse include document in source server xml
+        NodeList includeList = XPathCache.evaluateNodeSet(XPATH_SERVER_INCLUDE, doc);
+        for (int i = 0; i < includeList.getLength(); i++) {
+            if (includeList.item(i) instanceof Element) {
+                Element child = (Element) includeList.item(i);
 
                 // Need to handle more variable substitution for include location.
                 String nodeValue = child.getAttribute("location");
-                String includeFileName = VariableUtility.resolveVariables(log, nodeValue, null, getProperties(), getDefaultProperties(), getLibertyDirPropertyFiles());
+                String includeFileName = resolveValue(nodeValue, resolvedValues);
 
                 if (includeFileName == null || includeFileName.trim().isEmpty()) {
                     log.warn("Unable to resolve include file location "+nodeValue+". Skipping the included file during application location processing.");
                     continue;
                 }
 
-                ArrayList<Document> inclDocs = getIncludeDocs(includeFileName);
-                for (Document inclDoc : inclDocs) {
-                    parseApplication(inclDoc, XPATH_SERVER_APPLICATION);
-                    parseApplication(inclDoc, XPATH_SERVER_WEB_APPLICATION);
-                    parseApplication(inclDoc, XPATH_SERVER_SPRINGBOOT_APPLICATION);
-                    parseApplication(inclDoc, XPATH_SERVER_ENTERPRISE_APPLICATION);
-                    parseNames(inclDoc, XPATH_ALL_SERVER_APPLICATIONS);
+                for (Document inclDoc : getIncludeDocs(includeFileName)) {
                     // handle nested include elements
-                    parseInclude(inclDoc);
+                    collectConfigElements(inclDoc, nodes, endpointNodes, resolvedValues);
                 }
             }
         }
     }
 
-    private void parseConfigDropinsDir() throws XPathExpressionException, IOException, SAXException, PluginExecutionException {
-        File configDropins = getConfigDropinsDir();
-
-        if (configDropins == null || !configDropins.exists()) {
+    private void collectDropinsConfigElements(File dir, List<ConfigNode> nodes, List<ConfigNode> endpointNodes, Map<String, String> resolvedValues) throws XPathExpressionException, IOException, SAXException, PluginExecutionException {
+        recordInput(dir);
+        if (!dir.exists()) {
             return;
         }
+        File[] files = dir.listFiles();
+        Arrays.sort(files, NameFileComparator.NAME_INSENSITIVE_COMPARATOR);
+        for (File file : files) {
+            if (file.isFile()) {
+                // get input XML Document
+                Document doc = parseDocument(file);
+                if (doc != null) {
+                    collectConfigElements(doc, nodes, endpointNodes, resolvedValues);
+                }
+            }
+        }
+    }
+
+    /**
+     * Merges the attributes of the httpEndpoint elements with the same id, in the order the
+     * elements are applied, then resolves their host and ports. Elements without an id are
+     * not merged.
+     */
+    private List<ServerHttpEndpoint> resolveHttpEndpoints(List<ConfigNode> endpointNodes, Map<String, String> resolvedValues) {
+        Map<String, Map<String, String>> mergedAttributes = new LinkedHashMap<String, Map<String, String>>();
+        Map<String, String> sourceDocuments = new HashMap<String, String>();
+        for (int i = 0; i < endpointNodes.size(); i++) {
+            ConfigNode node = endpointNodes.get(i);
+            String key = node.element.hasAttribute("id") ? "id:" + node.element.getAttribute("id") : "element:" + i;
+            Map<String, String> attributes = mergedAttributes.get(key);
+            if (attributes == null) {
+                attributes = new HashMap<String, String>();
+                mergedAttributes.put(key, attributes);
+            }
+            for (String attribute : HTTP_ENDPOINT_ATTRIBUTES) {
+                if (node.element.hasAttribute(attribute)) {
+                    attributes.put(attribute, node.element.getAttribute(attribute));
+                }
+            }
+            sourceDocuments.put(key, node.documentURI);
+        }
 
-        File overrides = new File(configDropins, "overrides");
-        if (overrides.exists()) {
-            parseDropinsFiles(overrides.listFiles());
+        List<ServerHttpEndpoint> endpoints = new ArrayList<ServerHttpEndpoint>(mergedAttributes.size());
+        for (Map.Entry<String, Map<String, String>> entry : mergedAttributes.entrySet()) {
+            Map<String, String> attributes = entry.getValue();
+            String host = attributes.get("host");
+            if (host == null) {
+                host = ServerHttpEndpoint.DEFAULT_HOST;
+            } else {
+                String resolvedHost = resolveValue(host, resolvedValues);
+                host = resolvedHost == null ? host : resolvedHost;
+            }
+            ServerHttpEndpoint endpoint = new ServerHttpEndpoint(attributes.get("id"), host,
+                    resolvePort(attributes.get("httpPort"), ServerHttpEndpoint.DEFAULT_HTTP_PORT, resolvedValues),
+                    resolvePort(attributes.get("httpsPort"), ServerHttpEndpoint.DEFAULT_HTTPS_PORT, resolvedValues),
+                    sourceDocuments.get(entry.getKey()));
+            log.debug("Adding resolved " + endpoint);
+            endpoints.add(endpoint);
         }
+        return Collections.unmodifiableList(endpoints);
+    }
 
-        File defaults = new File(configDropins, "defaults");
-        if (defaults.exists()) {
-            parseDropinsFiles(defaults.listFiles());
+    private Integer resolvePort(String port, int defaultPort, Map<String, String> resolvedValues) {
+        if (port == null) {
+            return defaultPort;
+        }
+        String resolvedPort = resolveValue(port, resolvedValues);
+        if (resolvedPort == null) {
+            log.debug("The variables referenced by port " + port + " cannot be resolved.");
+            return null;
+        }
+        try {
+            return Integer.valueOf(resolvedPort.trim());
+        } catch (NumberFormatException e) {
+            log.debug("The port " + resolvedPort + " is not a number.");
+            return null;
         }
     }
 
-    private void parseDropinsFiles(File[] files) throws XPathExpressionException, IOException, SAXException, PluginExecutionException {
-        Arrays.sort(files, NameFileComparator.NAME_INSENSITIVE_COMPARATOR);
-        for (File file : files) {
-            if (file.isFile()) {
-                parseDropinsFile(file);
-            }
+    /**
+     * Resolves the variables in a value, reusing the result for values already resolved.
+     *
+     * @return the resolved value, or null if the variables cannot be resolved
+     */
+    private String resolveValue(String value, Map<String, String> resolvedValues) {
+        if (resolvedValues.containsKey(value)) {
+            return resolvedValues.get(value);
         }
+        String resolved = VariableUtility.resolveVariables(log, value, null, props, defaultProps, getLibertyDirPropertyFiles());
+        resolvedValues.put(value, resolved);
+        return resolved;
     }
 
-    private void parseDropinsFile(File file) throws IOException, XPathExpressionException, SAXException, PluginExecutionException {
-        // get input XML Document
-        Document doc = parseDocument(file);
-        if (doc != null) {
-            parseApplication(doc, XPATH_SERVER_APPLICATION);
-            parseApplication(doc, XPATH_SERVER_WEB_APPLICATION);
-            parseApplication(doc, XPATH_SERVER_SPRINGBOOT_APPLICATION);
-            parseApplication(doc, XPATH_SERVER_ENTERPRISE_APPLICATION);
-            parseNames(doc, XPATH_ALL_SERVER_APPLICATIONS);
-            parseInclude(doc);
+    private void checkForSpringBootConfigNode(String documentURI, String nodeValue) throws PluginExecutionException {
+        // checking whether any springBootAppNodeLocation already configured from other server configuration files
+        if(springBootAppNodeLocation.isPresent() && springBootAppNodeDocumentURI.isPresent()){
+            throw new PluginExecutionException(String.format("Found multiple springBootApplication elements specified in the server configuration in files [%s, %s]. Only one springBootApplication can be configured per Liberty server.", springBootAppNodeDocumentURI.get(), documentURI));
+        }
+        else {
+            log.debug("Setting springBootApplication location as "+ nodeValue);
+            springBootAppNodeLocation = Optional.of(nodeValue);
+            springBootAppNodeDocumentURI = Optional.of(documentURI);
         }
     }
 
@@ -703,6 +1684,9 @@ public class ServerConfigDocument {
         File locFile = null;
 
         if (loc.startsWith("http:") || loc.startsWith("https:")) {
+            if (layerInputs != null) {
+                layerInputs.put(REMOTE_INPUT + ":" + loc, REMOTE_INPUT);
+            }
             if (isValidURL(loc)) {
                 URL url = new URL(loc);
                 doc = parseDocument(url);
@@ -727,9 +1711,11 @@ public class ServerConfigDocument {
                 }
 
                 if (locFile == null || !locFile.exists()) {
+                    recordInput(locFile);
                     locFile = new File(getServerXML().getParentFile(), loc);
                 }
             }
+            recordInput(locFile);
             parseDocumentFromFileOrDirectory(locFile, loc, docs);
         }
 
@@ -783,6 +1769,7 @@ public class ServerConfigDocument {
     private void parseDocumentsInDirectory(File directory, ArrayList<Document> docs) {
         // OpenLiberty reference code for behavior: https://github.com/OpenLiberty/open-liberty
         // ServerXMLConfiguration.java:parseDirectoryFiles() and XMLConfigParser.java:parseInclude()
+        recordInput(directory);
         File[] files = directory.listFiles();
         Arrays.sort(files, NameFileComparator.NAME_INSENSITIVE_COMPARATOR);
         for (File file : files) {
@@ -803,6 +1790,7 @@ public class ServerConfigDocument {
      * @throws SAXException
      */
     public Document parseDocument(File file) throws FileNotFoundException, IOException {
+        recordInput(file);
         try (FileInputStream is = new FileInputStream(file)) {
             Document document= parseDocument(is);
             document.setDocumentURI(file.getCanonicalPath());
@@ -829,6 +1817,7 @@ public class ServerConfigDocument {
     }
 
     public void parsePropertiesFromFile(File propertiesFile) throws Exception, FileNotFoundException {
+        recordInput(propertiesFile);
         if (propertiesFile != null && propertiesFile.exists()) {
             parseProperties(new FileInputStream(propertiesFile));
             log.debug("Processed properties from file: " + propertiesFile.getAbsolutePath());
@@ -837,7 +1826,9 @@ public class ServerConfigDocument {
 
     private void parseProperties(InputStream ins) throws Exception {
         try {
-            props.load(ins);
+            Properties loaded = new Properties();
+            loaded.load(ins);
+            props.putAll(loaded);
         } catch (Exception e) {
             throw e;
         } finally {
@@ -876,7 +1867,7 @@ public class ServerConfigDocument {
 
     public void parseIncludeVariables(Document doc) throws XPathExpressionException, IOException, SAXException {
         // parse include document in source server xml
-        NodeList nodeList = (NodeList) XPATH_SERVER_INCLUDE.evaluate(doc, XPathConstants.NODESET);
+        NodeList nodeList = XPathCache.evaluateNodeSet(XPATH_SERVER_INCLUDE, doc);
 
         for (int i = 0; i < nodeList.getLength(); i++) {
             if (!(nodeList.item(i) instanceof Element)) {
@@ -886,7 +1877,7 @@ public class ServerConfigDocument {
             Element child = (Element) nodeList.item(i);
             // Need to handle more variable substitution for include location.
             String nodeValue = child.getAttribute("location");
-            String includeFileName = VariableUtility.resolveVariables(log, nodeValue, null, getProperties(), getDefaultProperties(), getLibertyDirPropertyFiles());
+            String includeFileName = VariableUtility.resolveVariables(log, nodeValue, null, props, defaultProps, getLibertyDirPropertyFiles());
 
             if (includeFileName == null || includeFileName.trim().isEmpty()) {
                 log.warn("Unable to resolve include file location "+nodeValue+". Skipping the included file during application location processing.");
@@ -910,10 +1901,12 @@ public class ServerConfigDocument {
         // its configDropins has higher precedence.
         if (configDirectory != null && configDirectory.exists()) {
             configDropins = new File(configDirectory, "configDropins");
+            recordInput(configDropins);
         }
 
         if (configDropins == null || !configDropins.exists()) {
             configDropins = new File(getServerXML().getParent(), "configDropins");
+            recordInput(configDropins);
         }
         return configDropins;
     }
@@ -926,6 +1919,7 @@ public class ServerConfigDocument {
         }
 
         File dir = new File(configDropins, inDir);
+        recordInput(dir);
         if (!dir.exists()) {
             return;
         }
@@ -982,6 +1976,7 @@ public class ServerConfigDocument {
      */
     private File getFileFromConfigDirectory(String filename) {
         File f = new File(configDirectory, filename);
+        recordInput(f);
         if (configDirectory != null && f.exists()) {
             return f;
         }
@@ -0,0 +1,104 @@
+/**
+ * (C) Copyright IBM Corporation 2026.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openliberty.tools.common.plugins.config;
+
+import java.util.Objects;
+
+/**
+ * An httpEndpoint configured in the server configuration, after the elements with the
+ * same id are merged and the server variables are resolved.
+ */
+public final class ServerHttpEndpoint {
+
+    public static final String DEFAULT_HTTP_ENDPOINT_ID = "defaultHttpEndpoint";
+    public static final String DEFAULT_HOST = "localhost";
+    public static final int DEFAULT_HTTP_PORT = 9080;
+    public static final int DEFAULT_HTTPS_PORT = 9443;
+
+    private final String id;
+    private final String host;
+    private final Integer httpPort;
+    private final Integer httpsPort;
+    private final String sourceDocument;
+
+    public ServerHttpEndpoint(String id, String host, Integer httpPort, Integer httpsPort, String sourceDocument) {
+        this.id = id;
+        this.host = host;
+        this.httpPort = httpPort;
+        this.httpsPort = httpsPort;
+        this.sourceDocument = sourceDocument;
+    }
+
+    /**
+     * @return the id, or null if the httpEndpoint has no id
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return the resolved host, or the host as configured if its variables cannot be resolved
+     */
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * @return the resolved HTTP port, -1 if HTTP is disabled, or null if the port cannot be resolved
+     */
+    public Integer getHttpPort() {
+        return httpPort;
+    }
+
+    /**
+     * @return the resolved HTTPS port, -1 if HTTPS is disabled, or null if the port cannot be resolved
+     */
+    public Integer getHttpsPort() {
+        return httpsPort;
+    }
+
+    /**
+     * @return the URI of the last configuration document that sets the httpEndpoint
+     */
+    public String getSourceDocument() {
+        return sourceDocument;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ServerHttpEndpoint)) {
+            return false;
+        }
+        ServerHttpEndpoint other = (ServerHttpEndpoint) o;
+        return Objects.equals(id, other.id) && Objects.equals(host, other.host)
+                && Objects.equals(httpPort, other.httpPort) && Objects.equals(httpsPort, other.httpsPort)
+                && Objects.equals(sourceDocument, other.sourceDocument);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, host, httpPort, httpsPort, sourceDocument);
+    }
+
+    @Override
+    public String toString() {
+        return "httpEndpoint[id=" + id + ", host=" + host + ", httpPort=" + httpPort + ", httpsPort=" + httpsPort
+                + ", source=" + sourceDocument + "]";
+    }
+}
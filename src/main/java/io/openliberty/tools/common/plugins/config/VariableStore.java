@@ -0,0 +1,284 @@
+/**
+ * (C) Copyright IBM Corporation 2026.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openliberty.tools.common.plugins.config;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import io.openliberty.tools.common.CommonLoggerI;
+
+/**
+ * The server variables of a ServerConfigDocument.
+ *
+ * Variables from the files of a variables directory can be added lazily, in which
+ * case a file is read when its variable is first looked up. Servers that mount large
+ * directories of secrets only read the files their configuration references. Looking
+ * up a variable with containsKey or getProperty only reads that variable's file,
+ * while getValues and toProperties read all of them. Files are read as UTF-8. A file
+ * that cannot be read is logged and does not define its variable.
+ *
+ * The variables added while changes are recorded can be taken as a separate store,
+ * so that the output of a configuration layer is kept as its changes rather than as
+ * a copy of every variable. Lazy variables stay lazy in the recorded changes. The
+ * variables looked up before the layer set them are recorded with the values read,
+ * so that the layer can be reused while those values are the same.
+ *
+ * A store belongs to the document that evaluates it and is not thread-safe.
+ */
+public class VariableStore {
+
+    private final Map<String, String> values = new HashMap<String, String>();
+
+    // files of the variables that are not read yet, by variable name
+    private final Map<String, File> lazyValues = new HashMap<String, File>();
+
+    private VariableStore changes = null;
+
+    // values looked up while changes are recorded, or null once the variables are iterated
+    private Map<String, String> reads = null;
+
+    // the values looked up while this store's changes were recorded
+    private Map<String, String> readValues = null;
+
+    private CommonLoggerI log = null;
+
+    /**
+     * Sets the logger for the variable files that cannot be read.
+     *
+     * @param log the logger, or null to not log
+     */
+    public void setLogger(CommonLoggerI log) {
+        this.log = log;
+    }
+
+    /**
+     * Adds a variable whose value is the content of a file, read on first lookup.
+     * The variable replaces an earlier value of the same name.
+     *
+     * @param name the variable name
+     * @param file the file with the variable value
+     */
+    public void putLazy(String name, File file) {
+        values.remove(name);
+        lazyValues.put(name, file);
+        if (changes != null) {
+            changes.putLazy(name, file);
+        }
+    }
+
+    /**
+     * @return the number of variables whose file is not read yet
+     */
+    public int getUnloadedCount() {
+        return lazyValues.size();
+    }
+
+    /**
+     * Starts recording the variables that are added to this store.
+     */
+    void startRecordingChanges() {
+        changes = new VariableStore();
+        reads = new HashMap<String, String>();
+    }
+
+    /**
+     * Stops recording the variables that are added to this store.
+     *
+     * @return the variables added since recording started
+     */
+    VariableStore stopRecordingChanges() {
+        VariableStore recorded = changes;
+        changes = null;
+        if (recorded != null) {
+            recorded.readValues = reads;
+        }
+        reads = null;
+        return recorded;
+    }
+
+    /**
+     * @return the variables looked up while these changes were recorded, before they were set,
+     *         with the values read or null for a variable that was not set. Returns null if the
+     *         variables were iterated, since any variable may have been read.
+     */
+    Map<String, String> getReadValues() {
+        return readValues;
+    }
+
+    private void recordRead(String name) {
+        if (reads != null && !reads.containsKey(name) && !changes.containsLoadedOrLazy(name)) {
+            load(name);
+            reads.put(name, values.get(name));
+        }
+    }
+
+    private boolean containsLoadedOrLazy(String name) {
+        return values.containsKey(name) || lazyValues.containsKey(name);
+    }
+
+    /**
+     * Compares the variables of two stores without reading lazy variables. Stores with
+     * lazy variables are never considered the same, since the files can change.
+     */
+    boolean hasSameValues(VariableStore other) {
+        return lazyValues.isEmpty() && other.lazyValues.isEmpty() && values.equals(other.values);
+    }
+
+    Map<String, String> getLoadedValues() {
+        return Collections.unmodifiableMap(values);
+    }
+
+    Map<String, File> getLazyValues() {
+        return Collections.unmodifiableMap(lazyValues);
+    }
+
+    private void load(String name) {
+        File file = lazyValues.remove(name);
+        if (file != null) {
+            try {
+                values.put(name, new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                // a file that cannot be read does not define its variable
+                if (log != null) {
+                    log.warn("Could not read the variable " + name + " from the file " + file + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void loadAll() {
+        reads = null;
+        for (String name : new ArrayList<String>(lazyValues.keySet())) {
+            load(name);
+        }
+    }
+
+    /**
+     * Sets a variable, replacing a lazy variable of the same name without reading it.
+     *
+     * @param name  the variable name
+     * @param value the variable value
+     */
+    public void put(String name, String value) {
+        lazyValues.remove(name);
+        if (changes != null) {
+            changes.put(name, value);
+        }
+        values.put(name, value);
+    }
+
+    /**
+     * Sets the variables of the given map, such as Properties.
+     *
+     * @param variables the variables to set
+     */
+    public void putAll(Map<?, ?> variables) {
+        for (Map.Entry<?, ?> entry : variables.entrySet()) {
+            put(entry.getKey().toString(), entry.getValue().toString());
+        }
+    }
+
+    /**
+     * Sets the variables of another store. Its lazy variables are added as lazy
+     * variables.
+     *
+     * @param other the variables to set
+     */
+    public void putAll(VariableStore other) {
+        for (Map.Entry<String, String> entry : other.values.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<String, File> entry : other.lazyValues.entrySet()) {
+            putLazy(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Removes a variable. The file of a lazy variable is not read.
+     *
+     * @param name the variable name
+     */
+    public void remove(String name) {
+        lazyValues.remove(name);
+        values.remove(name);
+    }
+
+    /**
+     * @param name the variable name
+     * @return the value of the variable, or null if it is not defined
+     */
+    public String getProperty(String name) {
+        recordRead(name);
+        load(name);
+        return values.get(name);
+    }
+
+    /**
+     * Reads the variable's file if it is not read yet, so that a variable whose file
+     * cannot be read is not reported as present.
+     *
+     * @param name the variable name
+     * @return true if the variable is defined
+     */
+    public boolean containsKey(String name) {
+        recordRead(name);
+        load(name);
+        return values.containsKey(name);
+    }
+
+    public int size() {
+        reads = null;
+        return values.size() + lazyValues.size();
+    }
+
+    public boolean isEmpty() {
+        reads = null;
+        return values.isEmpty() && lazyValues.isEmpty();
+    }
+
+    /**
+     * Reads all the variables.
+     *
+     * @return an unmodifiable view of the variables by name
+     */
+    public Map<String, String> getValues() {
+        loadAll();
+        return Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * Reads all the variables.
+     *
+     * @return a copy of the variables
+     */
+    public Properties toProperties() {
+        Properties properties = new Properties();
+        properties.putAll(getValues());
+        return properties;
+    }
+
+    @Override
+    public String toString() {
+        return getValues().toString();
+    }
+}
@@ -1,5 +1,5 @@
 /**
- * (C) Copyright IBM Corporation 2017, 2024.
+ * (C) Copyright IBM Corporation 2017, 2026.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,32 +16,45 @@
 package io.openliberty.tools.common.plugins.config;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 
 import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
 
+import org.w3c.dom.Attr;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 import org.w3c.dom.Text;
 import org.xml.sax.SAXException;
 
 public abstract class XmlDocument {
+
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+    private static final String INDENTATION = "    ";
+
+    // created once, since looking up the factory implementation is expensive
+    private static XMLOutputFactory outputFactory;
     
     protected Document doc;
     
@@ -77,29 +90,177 @@ public abstract class XmlDocument {
     }
     
     public void writeXMLDocument(File f) throws IOException, TransformerException {
-        if (!f.getParentFile().exists()) {
-            f.getParentFile().mkdirs();
-        }
-        OutputStream outFile = Files.newOutputStream(f.toPath());
-        
-        DOMSource source = new DOMSource(doc);
-        StreamResult result = new StreamResult(new OutputStreamWriter(outFile, StandardCharsets.UTF_8));
-        
-        TransformerFactory transformerFactory = getTransformerFactory();
-        Transformer transformer = transformerFactory.newTransformer();
-        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "no");
-        transformer.setOutputProperty(OutputKeys.DOCTYPE_PUBLIC, "yes");
-        transformer.setOutputProperty(OutputKeys.VERSION, "1.0");
-        transformer.setOutputProperty(OutputKeys.ENCODING,"UTF-8");
-        if (isIndented()) {
-            transformer.setOutputProperty(OutputKeys.INDENT, "no");
+        writeXMLDocumentIfChanged(f);
+    }
+
+    /**
+     * Writes the document to a temporary file in the same directory, then moves it over the file.
+     * The file is left untouched if it already has the same content, so that its timestamp only
+     * changes when the document does.
+     *
+     * @param f the file to write
+     * @return true if the file was written, false if it already had the same content
+     */
+    public boolean writeXMLDocumentIfChanged(File f) throws IOException, TransformerException {
+        File dir = f.getAbsoluteFile().getParentFile();
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+        // created with the default permissions, unlike Files.createTempFile
+        Path tempFile = File.createTempFile("." + f.getName() + "-", ".tmp", dir).toPath();
+        try {
+            MessageDigest digest = newDigest();
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(tempFile), digest)) {
+                Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                writeDocument(writer);
+                writer.flush();
+            }
+            if (f.isFile() && f.length() == Files.size(tempFile)
+                    && Arrays.equals(digest.digest(), getDigest(f.toPath()))) {
+                return false;
+            }
+            try {
+                Files.move(tempFile, f.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, f.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private void writeDocument(Writer writer) throws IOException, TransformerException {
+        // the XML declaration is written directly since the stream writer cannot write standalone="no"
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"");
+        if (!doc.getXmlStandalone()) {
+            writer.write(" standalone=\"no\"");
+        }
+        writer.write("?>");
+        writer.write(LINE_SEPARATOR);
+
+        boolean indent = !isIndented();
+        try {
+            XMLStreamWriter xmlWriter = getOutputFactory().createXMLStreamWriter(writer);
+            for (Node node = doc.getFirstChild(); node != null; node = node.getNextSibling()) {
+                writeNode(xmlWriter, node, indent, 0);
+                if (indent) {
+                    xmlWriter.writeCharacters(LINE_SEPARATOR);
+                }
+            }
+            xmlWriter.flush();
+            xmlWriter.close();
+        } catch (XMLStreamException e) {
+            throw new TransformerException(e);
+        }
+    }
+
+    private void writeNode(XMLStreamWriter xmlWriter, Node node, boolean indent, int depth) throws XMLStreamException {
+        switch (node.getNodeType()) {
+            case Node.ELEMENT_NODE:
+                writeElement(xmlWriter, (Element) node, indent, depth);
+                break;
+            case Node.TEXT_NODE:
+                xmlWriter.writeCharacters(node.getNodeValue());
+                break;
+            case Node.CDATA_SECTION_NODE:
+                xmlWriter.writeCData(node.getNodeValue());
+                break;
+            case Node.COMMENT_NODE:
+                xmlWriter.writeComment(node.getNodeValue());
+                break;
+            case Node.PROCESSING_INSTRUCTION_NODE:
+                xmlWriter.writeProcessingInstruction(node.getNodeName(), node.getNodeValue());
+                break;
+            case Node.ENTITY_REFERENCE_NODE:
+                for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+                    writeNode(xmlWriter, child, indent, depth);
+                }
+                break;
+            default:
+                // document types are not allowed in the configuration files
+                break;
+        }
+    }
+
+    private void writeElement(XMLStreamWriter xmlWriter, Element element, boolean indent, int depth) throws XMLStreamException {
+        // whitespace is replaced by the indentation, and mixed content is written as is
+        boolean indentChildren = indent;
+        boolean hasChildren = false;
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (isWhitespace(child) && indent) {
+                continue;
+            }
+            hasChildren = true;
+            if ((child.getNodeType() == Node.TEXT_NODE || child.getNodeType() == Node.CDATA_SECTION_NODE) && !isWhitespace(child)) {
+                indentChildren = false;
+            }
+        }
+
+        if (hasChildren) {
+            xmlWriter.writeStartElement(element.getTagName());
         } else {
-            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+            xmlWriter.writeEmptyElement(element.getTagName());
+        }
+        NamedNodeMap attributes = element.getAttributes();
+        for (int i = 0; i < attributes.getLength(); i++) {
+            Attr attribute = (Attr) attributes.item(i);
+            xmlWriter.writeAttribute(attribute.getName(), attribute.getValue());
+        }
+        if (!hasChildren) {
+            return;
         }
-        transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "4");
-        
-        transformer.transform(source, result);
-        outFile.close();
+
+        boolean wroteIndentedChild = false;
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (indent && isWhitespace(child)) {
+                continue;
+            }
+            if (indentChildren && child.getNodeType() != Node.TEXT_NODE) {
+                writeIndentation(xmlWriter, depth + 1);
+                wroteIndentedChild = true;
+            }
+            writeNode(xmlWriter, child, indentChildren, depth + 1);
+        }
+        if (wroteIndentedChild) {
+            writeIndentation(xmlWriter, depth);
+        }
+        xmlWriter.writeEndElement();
+    }
+
+    private static void writeIndentation(XMLStreamWriter xmlWriter, int depth) throws XMLStreamException {
+        StringBuilder indentation = new StringBuilder(LINE_SEPARATOR);
+        for (int i = 0; i < depth; i++) {
+            indentation.append(INDENTATION);
+        }
+        xmlWriter.writeCharacters(indentation.toString());
+    }
+
+    private static synchronized XMLOutputFactory getOutputFactory() {
+        if (outputFactory == null) {
+            outputFactory = XMLOutputFactory.newInstance();
+        }
+        return outputFactory;
+    }
+
+    private static MessageDigest newDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static byte[] getDigest(Path file) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return digest.digest();
     }
 
     protected boolean isIndented() {
@@ -116,17 +277,17 @@ public abstract class XmlDocument {
         // look for "<?xml version="1.0" ... ?><server .../>" and add a newline
         byte[] contents = Files.readAllBytes(f.toPath());
         String xmlContents = new String(contents, StandardCharsets.UTF_8);
-        xmlContents = xmlContents.replace("?><", "?>"+System.getProperty("line.separator")+"<");
-        Files.write(f.toPath(), xmlContents.getBytes());
-    }
-
-    private static TransformerFactory getTransformerFactory() throws TransformerConfigurationException {
-        TransformerFactory transformerFactory = TransformerFactory.newInstance();
-        transformerFactory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, Boolean.TRUE);
-        // XMLConstants.ACCESS_EXTERNAL_DTD uses an empty string to deny all access to external references;
-        transformerFactory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
-        // XMLConstants.ACCESS_EXTERNAL_STYLESHEET uses an empty string to deny all access to external references;
-        transformerFactory.setAttribute(XMLConstants.ACCESS_EXTERNAL_STYLESHEET, "");
-        return transformerFactory;
+        if (!xmlContents.contains("?><")) {
+            // the documents written by writeXMLDocument already have the newline
+            return;
+        }
+        xmlContents = xmlContents.replace("?><", "?>"+LINE_SEPARATOR+"<");
+        Path tempFile = File.createTempFile("." + f.getName() + "-", ".tmp", f.getAbsoluteFile().getParentFile()).toPath();
+        try {
+            Files.write(tempFile, xmlContents.getBytes(StandardCharsets.UTF_8));
+            Files.move(tempFile, f.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
     }
 }
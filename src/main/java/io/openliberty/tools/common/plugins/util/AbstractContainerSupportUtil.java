@@ -1,5 +1,5 @@
 /**
- * (C) Copyright IBM Corporation 2020, 2023.
+ * (C) Copyright IBM Corporation 2020, 2026.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,8 +18,10 @@ package io.openliberty.tools.common.plugins.util;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 public abstract class AbstractContainerSupportUtil {
 
@@ -160,6 +162,73 @@ public abstract class AbstractContainerSupportUtil {
         return result;
     }
 
+    /**
+     * Runs a container command like execContainerCmd, but passes each line of
+     * stdout and stderr to the given consumer while the command runs instead of
+     * reading the output after the command ends.
+     *
+     * @param timeout unit is seconds
+     * @param lineConsumer receives each line of output as it is written
+     * @return the stdout of the command or null for no output on stdout. If the
+     *         command fails and throwExceptionOnError is false, all of its output
+     *         followed by the return code.
+     */
+    protected String execContainerCmdAndStream(String command, int timeout, boolean throwExceptionOnError, Consumer<String> lineConsumer) {
+        try {
+            debug("execContainer, timeout=" + timeout + ", cmd=" + command);
+            Process p = Runtime.getRuntime().exec(command);
+            StringBuffer stdout = new StringBuffer();
+            StringBuffer stderr = new StringBuffer();
+            Thread stdoutReader = startOutputReader(p.getInputStream(), stdout, lineConsumer);
+            Thread stderrReader = startOutputReader(p.getErrorStream(), stderr, lineConsumer);
+
+            if (!p.waitFor(timeout, TimeUnit.SECONDS)) {
+                p.destroyForcibly();
+                String timeoutMessage = "The container command did not complete within the timeout period: " + timeout + " seconds. ";
+                debug(timeoutMessage);
+                throw new RuntimeException(timeoutMessage);
+            }
+            // the output is fully read once the streams are closed
+            stdoutReader.join();
+            stderrReader.join();
+
+            if (p.exitValue() != 0) {
+                debug("Error running container command, return value="+p.exitValue());
+                String errorMessage = (stderr.toString().trim() + " " + stdout.toString().trim()).trim() + " RC=" + p.exitValue();
+                if (throwExceptionOnError) {
+                    throw new RuntimeException(errorMessage);
+                } else {
+                    return errorMessage;
+                }
+            }
+            return stdout.length() > 0 ? stdout.toString() : null;
+        } catch (InterruptedException e) {
+            error("An interruption error occurred while running a container command: " + e.getMessage(), e);
+            throw new RuntimeException(e.getMessage());
+        } catch (IOException e) {
+            debug("An error occurred while running a container command: " + e.getMessage());
+            debug("This message will occur when Docker or Podman are not installed.");
+        }
+        return null;
+    }
+
+    private Thread startOutputReader(final InputStream stream, final StringBuffer output, final Consumer<String> lineConsumer) {
+        Thread reader = new Thread(() -> {
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(stream))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    output.append(line).append(" ");
+                    lineConsumer.accept(line);
+                }
+            } catch (IOException e) {
+                debug("Stopped reading the output of a container command: " + e.getMessage());
+            }
+        }, "Container command output reader");
+        reader.setDaemon(true);
+        reader.start();
+        return reader;
+    }
+
     protected String execContainerCmd(String command, int timeout) {
         return execContainerCmd(command, timeout, true);
     }
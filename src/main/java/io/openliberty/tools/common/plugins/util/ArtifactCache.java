@@ -0,0 +1,225 @@
+/**
+ * (C) Copyright IBM Corporation 2026.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openliberty.tools.common.plugins.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches the artifacts resolved by the plugin-specific downloadArtifact methods,
+ * so that repeated lookups of the same coordinates do not go to the Maven or
+ * Gradle resolver on every build.
+ *
+ * Artifacts with a fixed version are reused for as long as the resolved file
+ * exists. Version ranges are reused until the range TTL expires, but only when
+ * the caller identifies the repositories they were resolved from, since other
+ * repositories can resolve a range to another version. In offline mode, a
+ * cached range is used regardless of its age.
+ *
+ * Snapshots are resolved on every call, since a rebuilt snapshot can be stored
+ * at another path, and artifacts that could not be found are not remembered,
+ * so that a transient repository failure does not outlast the call. Ranges
+ * resolved in offline mode are not remembered either, since only the local
+ * repository was searched.
+ *
+ * A cache created with a cache file persists its results across builds when
+ * {@link #store()} is called, such as after a batch of downloads.
+ */
+public class ArtifactCache {
+
+    public static final long DEFAULT_RANGE_TTL = TimeUnit.HOURS.toMillis(24);
+
+    private static final String SNAPSHOT_SUFFIX = "-SNAPSHOT";
+
+    private final File cacheFile;
+    private final Map<String, CachedArtifact> artifacts = new ConcurrentHashMap<String, CachedArtifact>();
+    private final Map<String, CachedArtifact> unstored = new ConcurrentHashMap<String, CachedArtifact>();
+
+    private volatile boolean offline = false;
+    private volatile long rangeTtl = DEFAULT_RANGE_TTL;
+
+    /**
+     * Downloads an artifact, such as the downloadArtifact method of
+     * InstallFeatureUtil and PrepareFeatureUtil.
+     */
+    public interface ArtifactDownloader {
+        File downloadArtifact(String groupId, String artifactId, String type, String version)
+                throws PluginExecutionException;
+    }
+
+    private static class CachedArtifact {
+        final long resolvedAt;
+        final String path;
+
+        CachedArtifact(long resolvedAt, String path) {
+            this.resolvedAt = resolvedAt;
+            this.path = path;
+        }
+
+        static CachedArtifact parse(String value) {
+            int separator = value.indexOf('|');
+            if (separator < 0 || separator == value.length() - 1) {
+                return null;
+            }
+            try {
+                return new CachedArtifact(Long.parseLong(value.substring(0, separator)), value.substring(separator + 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return resolvedAt + "|" + path;
+        }
+    }
+
+    /**
+     * Creates a cache, with the results of earlier builds read from the cache
+     * file.
+     *
+     * @param cacheFile the file that persists cached results across builds, or
+     *                  null to only cache in memory
+     */
+    public ArtifactCache(File cacheFile) {
+        this.cacheFile = cacheFile;
+        artifacts.putAll(load(cacheFile));
+    }
+
+    private static Map<String, CachedArtifact> load(File cacheFile) {
+        Map<String, CachedArtifact> loaded = new ConcurrentHashMap<String, CachedArtifact>();
+        if (cacheFile != null && cacheFile.isFile()) {
+            Properties cached = new Properties();
+            try (InputStream in = new FileInputStream(cacheFile)) {
+                cached.load(in);
+            } catch (IOException e) {
+                // treat an unreadable cache as empty
+            }
+            for (String key : cached.stringPropertyNames()) {
+                CachedArtifact artifact = CachedArtifact.parse(cached.getProperty(key));
+                if (artifact != null) {
+                    loaded.put(key, artifact);
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Sets whether builds are offline. In offline mode, cached results are used
+     * even if they expired.
+     *
+     * @param isOffline true if the build cannot access remote repositories
+     */
+    public void setOffline(boolean isOffline) {
+        offline = isOffline;
+    }
+
+    /**
+     * Sets how long the artifact resolved for a version range is reused.
+     *
+     * @param ttl the time to live in milliseconds
+     */
+    public void setRangeTtl(long ttl) {
+        rangeTtl = ttl;
+    }
+
+    /**
+     * Gets the artifact from the cache, or downloads it with the given downloader
+     * and caches the result.
+     *
+     * @param groupId      The group ID
+     * @param artifactId   The artifact ID
+     * @param type         The type e.g. esa
+     * @param version      The version or version range
+     * @param repositories A description of the repositories the downloader
+     *                     resolves from, such as their URLs, or null if unknown.
+     *                     Version ranges are only cached when it is not null.
+     * @param downloader   The plugin-specific downloader
+     * @return The file corresponding to the artifact
+     * @throws PluginExecutionException If the artifact could not be downloaded
+     */
+    public File downloadArtifact(String groupId, String artifactId, String type, String version,
+            String repositories, ArtifactDownloader downloader) throws PluginExecutionException {
+        if (version != null && version.endsWith(SNAPSHOT_SUFFIX)) {
+            return downloader.downloadArtifact(groupId, artifactId, type, version);
+        }
+        boolean isRange = isRange(version);
+        if (isRange && repositories == null) {
+            return downloader.downloadArtifact(groupId, artifactId, type, version);
+        }
+        String key = groupId + ":" + artifactId + ":" + type + ":" + version + "@" + (repositories == null ? "" : repositories);
+        CachedArtifact cached = artifacts.get(key);
+        if (cached != null) {
+            long age = System.currentTimeMillis() - cached.resolvedAt;
+            File file = new File(cached.path);
+            if (file.isFile() && (offline || !isRange || age < rangeTtl)) {
+                return file;
+            }
+        }
+
+        File file = downloader.downloadArtifact(groupId, artifactId, type, version);
+        if (file != null && file.isFile() && !(isRange && offline)) {
+            CachedArtifact artifact = new CachedArtifact(System.currentTimeMillis(), file.getAbsolutePath());
+            artifacts.put(key, artifact);
+            if (cacheFile != null) {
+                unstored.put(key, artifact);
+            }
+        }
+        return file;
+    }
+
+    private static boolean isRange(String version) {
+        return version != null && (version.startsWith("[") || version.startsWith("("));
+    }
+
+    /**
+     * Writes the results cached since the last call to the cache file. The
+     * results that other caches stored to the same file in the meantime are
+     * kept. Does nothing if the cache has no cache file or no new results.
+     */
+    public synchronized void store() {
+        if (cacheFile == null || unstored.isEmpty()) {
+            return;
+        }
+        Map<String, CachedArtifact> merged = load(cacheFile);
+        for (String key : unstored.keySet()) {
+            CachedArtifact artifact = unstored.remove(key);
+            if (artifact != null) {
+                merged.put(key, artifact);
+            }
+        }
+        Properties cached = new Properties();
+        for (Map.Entry<String, CachedArtifact> entry : merged.entrySet()) {
+            cached.setProperty(entry.getKey(), entry.getValue().toString());
+        }
+        cacheFile.getAbsoluteFile().getParentFile().mkdirs();
+        try (FileOutputStream out = new FileOutputStream(cacheFile)) {
+            cached.store(out, "Cached artifact resolution results");
+        } catch (IOException e) {
+            // the in-memory cache is still populated
+        }
+    }
+
+}
@@ -61,6 +61,10 @@ import java.util.Properties;
 import java.util.Scanner;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -68,6 +72,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.jar.Attributes;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
+import java.util.regex.Pattern;
 
 import javax.tools.JavaCompiler;
 import javax.tools.JavaFileObject;
@@ -108,6 +113,7 @@ import org.xml.sax.SAXException;
 public abstract class DevUtil extends AbstractContainerSupportUtil {
 
     private static final String START_SERVER_MESSAGE_PREFIX = "CWWKF0011I:";
+    private static final Pattern VERSIONED_FEATURE_PATTERN = Pattern.compile(".+-\\d+(\\.\\d+)*");
     private static final String START_APP_MESSAGE_REGEXP = "CWWKZ0001I:";
     private static final String UPDATED_APP_MESSAGE_REGEXP = "CWWKZ0003I:";
     private static final String STOPPED_APP_MESSAGE_REGEXP = "CWWKZ0009I:";
@@ -447,6 +453,14 @@ public abstract class DevUtil extends AbstractContainerSupportUtil {
     protected File generateFeaturesOutputDir; // output directory for the generate-features goal/task (i.e. where the file is generated)
     protected File generateFeaturesTmpDir; // the location where the generated features file is written during dev mode loop when generateToSrc is false
     private File modifiedSrcBuildFile;
+    private boolean speculativeGenerateFeatures; // generate features while dependent modules are still compiling
+    private ExecutorService speculativeGenerateExecutor;
+    private Future<Boolean> speculativeGenerateResult;
+    private AtomicBoolean speculativeGenerateClaimed; // set by whichever of the run or a cancel happens first
+    private File installDirectory; // the Liberty installation, if set by the Liberty plugin
+    private Collection<File> speculativeGenerateClasses;
+    private long speculativeGeneratedTime;
+    private int speculativeApplicationUpdatedMessages;
 
     protected boolean skipInstallFeature;
     // for gradle, this map will be kept as null
@@ -868,6 +882,10 @@ public abstract class DevUtil extends AbstractContainerSupportUtil {
             // Watch logs directory if it already exists
             boolean logsExist = new File(logsDirectory).isDirectory();
 
+            if (container) {
+                startContainerFeaturePrefetch();
+            }
+
             // Start server
             serverThread = new Thread(new Runnable() {
 
@@ -1425,6 +1443,43 @@ public abstract class DevUtil extends AbstractContainerSupportUtil {
         }
     }
 
+    /**
+     * Download the given features to the local Maven repository that is mounted in
+     * the container as /devmode-maven-cache, so that featureUtility in the container
+     * finds them there instead of downloading them. Called in a background thread
+     * while the container starts. The default implementation does nothing, since
+     * only the plugins can create an InstallFeatureUtil with a downloadArtifact
+     * method. Plugins override this to call InstallFeatureUtil.prefetchFeatures,
+     * with a resolver that can be used from this thread while the build
+     * continues.
+     *
+     * @param features the features configured for the server
+     */
+    protected void prefetchContainerFeatures(Set<String> features) {
+    }
+
+    private void startContainerFeaturePrefetch() {
+        final Set<String> features;
+        try {
+            features = getConfiguredFeatures();
+        } catch (RuntimeException e) {
+            debug("Could not determine the features to prefetch for the container", e);
+            return;
+        }
+        if (features == null || features.isEmpty()) {
+            return;
+        }
+        Thread prefetchThread = new Thread(() -> {
+            try {
+                prefetchContainerFeatures(features);
+            } catch (RuntimeException e) {
+                debug("Could not prefetch features for the container", e);
+            }
+        }, "Liberty container feature prefetch");
+        prefetchThread.setDaemon(true);
+        prefetchThread.start();
+    }
+
     private void startContainer() throws PluginExecutionException {
         try {
             // Allow the server to write to the log files. If we don't create it here docker daemon will create it as root.
@@ -1974,7 +2029,12 @@ public abstract class DevUtil extends AbstractContainerSupportUtil {
     public abstract void libertyDeploy() throws PluginExecutionException;
 
     /**
-     * Generate features for the application
+     * Generate features for the application.
+     * 
+     * When speculative feature generation is enabled, this method is called on a
+     * background thread while the watch loop keeps calling compile,
+     * recompileBuildFile and updateArtifactPaths, so implementations must not
+     * share unsynchronized state with those methods.
      * 
      * @param classes class file paths features should be generated for (can be null if no modified classes)
      * @param optimize if true, generate optimized feature list
@@ -2823,6 +2883,24 @@ public abstract class DevUtil extends AbstractContainerSupportUtil {
         logFeatureGenerationStatus();
     }
 
+    /**
+     * Called by Liberty plugins to set the Liberty installation directory, which
+     * is needed to check for installed features when the server is not in the
+     * default user directory of the installation.
+     */
+    protected void setInstallDirectory(File installDirectory) {
+        this.installDirectory = installDirectory;
+    }
+
+    /**
+     * Called by Liberty plugins. When enabled, libertyGenerateFeatures and the
+     * logging methods are called from a background thread, so the plugin's
+     * implementations of them must be thread-safe.
+     */
+    protected void setSpeculativeFeatureGeneration(boolean speculativeGenerateFeatures) {
+        this.speculativeGenerateFeatures = speculativeGenerateFeatures;
+    }
+
     protected boolean optimizeGenerateFeatures(boolean useTmpDir) {
         debug("Entering optimizeGenerateFeatures(boolean)");
         return optimizeGenerateFeatures(useTmpDir, false);
@@ -2871,6 +2949,125 @@ public abstract class DevUtil extends AbstractContainerSupportUtil {
         return generatedFeatures;
     }
 
+    /**
+     * Start generating features in the background as soon as the module with the
+     * latest source change has compiled, while the modules that depend on it are
+     * still compiling. Only used when recompileDependencies is true, since that is
+     * when the watch loop waits for compilation to complete before generating features.
+     */
+    void startSpeculativeGenerateFeatures() {
+        if (!speculativeGenerateFeatures || !generateFeatures || speculativeGenerateResult != null
+                || modifiedClasses.isEmpty() || classesFailingToCompile()) {
+            return;
+        }
+        final Collection<File> classes = new HashSet<File>(modifiedClasses);
+        classes.addAll(failedToGenerateClasses);
+        final Collection<String> classPaths;
+        try {
+            classPaths = getClassPaths(classes);
+        } catch (IOException e) {
+            debug("Could not start generating features in the background", e);
+            return;
+        }
+        debug("Generating features in the background for the following classes/directories: " + classes);
+        modifiedClasses.clear();
+        lastChangeCompiled = false;
+        modifiedSrcBuildFile = null;
+        speculativeGenerateClasses = classes;
+        speculativeGeneratedTime = generateFeaturesFile.lastModified();
+        speculativeApplicationUpdatedMessages = countApplicationUpdatedMessages();
+        final AtomicBoolean claimed = new AtomicBoolean();
+        speculativeGenerateClaimed = claimed;
+        speculativeGenerateResult = getSpeculativeGenerateExecutor().submit(() -> claimed.compareAndSet(false, true)
+                && libertyGenerateFeatures(classPaths, false, generateToSrc, !generateToSrc, false));
+    }
+
+    /**
+     * Cancel feature generation that was started in the background if it has not
+     * started running yet, because a new source change makes its result stale.
+     * Feature generation that is already running completes, and the new change
+     * is processed after it.
+     */
+    void cancelSpeculativeGenerateFeatures() {
+        // Future.cancel also succeeds for a running task, so check whether the run has started
+        if (speculativeGenerateResult != null && speculativeGenerateClaimed.compareAndSet(false, true)) {
+            speculativeGenerateResult.cancel(false);
+            debug("Cancelled background feature generation for: " + speculativeGenerateClasses);
+            modifiedClasses.addAll(speculativeGenerateClasses);
+            speculativeGenerateResult = null;
+            speculativeGenerateClasses = null;
+        }
+    }
+
+    /**
+     * Process the result of feature generation that was started in the background.
+     * 
+     * @return true if there is no background feature generation running
+     */
+    boolean finishSpeculativeGenerateFeatures(ThreadPoolExecutor executor) throws PluginExecutionException {
+        if (speculativeGenerateResult == null) {
+            return true;
+        }
+        if (!speculativeGenerateResult.isDone()) {
+            return false;
+        }
+        boolean generatedFeatures = false;
+        try {
+            generatedFeatures = speculativeGenerateResult.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            error("An error occurred while trying to generate features: " + e.getCause().getMessage(), e.getCause());
+        }
+        Collection<File> classes = speculativeGenerateClasses;
+        speculativeGenerateResult = null;
+        speculativeGenerateClasses = null;
+        if (generatedFeatures) {
+            failedToGenerateClasses.removeAll(classes);
+            generatedFeaturesModified = generatedFeaturesModified();
+            // if more classes changed in the meantime, tests run after features are generated for them
+            if (modifiedClasses.isEmpty() && !classesFailingToCompile()) {
+                runTestsAfterGenerateFeatures(executor, speculativeGeneratedTime, speculativeApplicationUpdatedMessages);
+            }
+        } else {
+            failedToGenerateClasses.addAll(classes);
+        }
+        return true;
+    }
+
+    ExecutorService getSpeculativeGenerateExecutor() {
+        if (speculativeGenerateExecutor == null) {
+            speculativeGenerateExecutor = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "Liberty dev mode feature generation");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return speculativeGenerateExecutor;
+    }
+
+    private void runTestsAfterGenerateFeatures(ThreadPoolExecutor executor, long generatedTime,
+            int numApplicationUpdatedMessages) throws PluginExecutionException {
+        if (!generateFeaturesFile.exists()) {
+            // run tests if generated-features.xml does not exist as there are no new features to install
+            // (typically tests run after generate features & install when hotTests=true)
+            if (isMultiModuleProject()) {
+                runTestThread(false, executor, -1, false, getAllBuildFiles());
+            } else {
+                runTestThread(false, executor, -1, false, false, buildFile);
+            }
+        } else if (generateFeaturesFile.lastModified() == generatedTime) {
+            // The generated-features.xml file was not modified by adding or removing features as a
+            // result of the compilation so call tests now. If it had been changed tests would be called
+            // after processing the config file change.
+            if (isMultiModuleProject()) {
+                runTestThread(false, executor, numApplicationUpdatedMessages, false, getAllBuildFiles());
+            } else {
+                runTestThread(false, executor, numApplicationUpdatedMessages, false, false, buildFile);
+            }
+        }
+    }
+
     private class HotkeyReader implements Runnable {
         private Scanner scanner;
         private ThreadPoolExecutor executor;
@@ -3263,7 +3460,7 @@ public abstract class DevUtil extends AbstractContainerSupportUtil {
 
                 // Generate features from source or class file changes
                 // do not run generate features if there are classes failing to compile
-                if (generateFeatures && !classesFailingToCompile() && !modifiedClasses.isEmpty()) {
+                if (generateFeatures && finishSpeculativeGenerateFeatures(executor) && !classesFailingToCompile() && !modifiedClasses.isEmpty()) {
                     // recompileDependencies = no class file tracking, so we wait for compilation to be complete
                     // !recompileDepenencies = class file tracking, so waiting on class file changes
                     if ((recompileDependencies && lastChangeCompiled) || !recompileDependencies) {
@@ -3277,24 +3474,7 @@ public abstract class DevUtil extends AbstractContainerSupportUtil {
                         long generatedTime = generateFeaturesFile.lastModified();
                         int numApplicationUpdatedMessages = countApplicationUpdatedMessages();
                         incrementGenerateFeatures(!generateToSrc);
-                        if (!generateFeaturesFile.exists()) {
-                            // run tests if generated-features.xml does not exist as there are no new features to install
-                            // (typically tests run after generate features & install when hotTests=true)
-                            if (isMultiModuleProject()) {
-                                runTestThread(false, executor, -1, false, getAllBuildFiles());
-                            } else {
-                                runTestThread(false, executor, -1, false, false, buildFile);
-                            }
-                        } else if (generateFeaturesFile.lastModified() == generatedTime) {
-                            // The generated-features.xml file was not modified by adding or removing features as a
-                            // result of the compilation so call tests now. If it had been changed tests would be called
-                            // after processing the config file change.
-                            if (isMultiModuleProject()) {
-                                runTestThread(false, executor, numApplicationUpdatedMessages, false, getAllBuildFiles());
-                            } else {
-                                runTestThread(false, executor, numApplicationUpdatedMessages, false, false, buildFile);
-                            }
-                        }
+                        runTestsAfterGenerateFeatures(executor, generatedTime, numApplicationUpdatedMessages);
                     }
                 }
 
@@ -3876,6 +4056,7 @@ public abstract class DevUtil extends AbstractContainerSupportUtil {
                             // The module with the latest src file change has compiled successfully
                             debug("Setting lastChangeCompiled to true");
                             lastChangeCompiled = true;
+                            startSpeculativeGenerateFeatures();
                         }
                     } else {
                         successfulCompilation = false;
@@ -4136,6 +4317,7 @@ public abstract class DevUtil extends AbstractContainerSupportUtil {
                         // The module with the latest src file change has compiled successfully
                         debug("Setting lastChangeCompiled to true");
                         lastChangeCompiled = true;
+                        startSpeculativeGenerateFeatures();
                     }
                 } else {
                     failedCompilationJavaSources.addAll(recompileJavaSources);
@@ -4427,6 +4609,7 @@ public abstract class DevUtil extends AbstractContainerSupportUtil {
                                 }
                                 // New src file change, reset lastChangeCompiled
                                 lastChangeCompiled = false;
+                                cancelSpeculativeGenerateFeatures();
                             }
                             triggerUpstreamModuleCompile(project, false);
                         } else {
@@ -4545,6 +4728,7 @@ public abstract class DevUtil extends AbstractContainerSupportUtil {
                         }
                         // New src file change, reset lastChangeCompiled
                         lastChangeCompiled = false;
+                        cancelSpeculativeGenerateFeatures();
                     }
                     triggerMainModuleCompile(false);
                 } else {
@@ -4761,7 +4945,9 @@ public abstract class DevUtil extends AbstractContainerSupportUtil {
             if (serverFeaturesModified) {
                 // suppress install feature warning - property must be set before installing using temp dir
                 System.setProperty(SKIP_BETA_INSTALL_WARNING, Boolean.TRUE.toString());
-                installFeaturesToTempDir(fileChanged, fileChangedParentDir, targetFileName, generateFeaturesSuccess);
+                if (featureChangesRequireInstall()) {
+                    installFeaturesToTempDir(fileChanged, fileChangedParentDir, targetFileName, generateFeaturesSuccess);
+                }
             }
             // Copy the config file which was changed to the server directory unless it is
             // the generated features file. The generated features file may have been copied 
@@ -6078,6 +6264,13 @@ public abstract class DevUtil extends AbstractContainerSupportUtil {
 
     // Returns true if features have been modified in the configuration directory
     private boolean serverFeaturesModified() {
+        Set<String> features = getConfiguredFeatures();
+        return features == null || !features.equals(getExistingFeatures());
+    }
+
+    // Returns the features in the configuration directory including the generated features,
+    // or null if a generated feature has been manually added to other config files
+    private Set<String> getConfiguredFeatures() {
         ServerFeatureUtil servUtil = getServerFeatureUtilObj();
         Set<String> generatedFeatureSet = null;
         Set<String> featuresExcludingGenerated = null;
@@ -6104,7 +6297,7 @@ public abstract class DevUtil extends AbstractContainerSupportUtil {
             if (featuresExcludingGenerated != null && generatedFeatureSet != null
                     && !Collections.disjoint(featuresExcludingGenerated, generatedFeatureSet)) {
                 // indicates a generated feature has been manually added to other config files
-                return true;
+                return null;
             }
         } else {
         	FeaturesPlatforms fp = servUtil.getServerFeatures(configDirectory, serverXmlFile,
@@ -6119,7 +6312,82 @@ public abstract class DevUtil extends AbstractContainerSupportUtil {
         if (generatedFeatureSet != null) {
             features.addAll(generatedFeatureSet);
         }
-        return !features.equals(getExistingFeatures());
+        return features;
+    }
+
+    /**
+     * Compares the features in the configuration directory to the existing
+     * features to decide whether the changed features need to be installed.
+     * Removing features does not need an install, and neither does adding
+     * versioned features that are already installed in the runtime together with
+     * the features they depend on.
+     * 
+     * @return true if features need to be installed
+     */
+    boolean featureChangesRequireInstall() {
+        Set<String> features = getConfiguredFeatures();
+        Set<String> existingFeatures = getExistingFeatures();
+        if (features == null || existingFeatures == null) {
+            return true;
+        }
+        Set<String> addedFeatures = new HashSet<String>();
+        for (String feature : features) {
+            addedFeatures.add(feature.toLowerCase());
+        }
+        for (String feature : existingFeatures) {
+            addedFeatures.remove(feature.toLowerCase());
+        }
+        if (addedFeatures.isEmpty()) {
+            debug("Features were only removed from the server configuration, skipping feature installation.");
+            return false;
+        }
+        debug("Features added to the server configuration: " + addedFeatures);
+        File installDirectory = container ? null : getInstallDirectory();
+        if (installDirectory == null) {
+            return true;
+        }
+        for (String feature : addedFeatures) {
+            // versionless features resolve to versioned features that may not be installed
+            if (!VERSIONED_FEATURE_PATTERN.matcher(feature).matches()) {
+                return true;
+            }
+        }
+        if (ProductInfoUtil.areFeaturesInstalled(installDirectory, getUserDirectory(), addedFeatures)) {
+            debug("The added features are already installed, skipping feature installation.");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the Liberty installation directory of the server. Unless the Liberty
+     * plugin set the installation directory, the server must be in the default
+     * usr directory of the installation.
+     * 
+     * @return the installation directory, or null if it is not known
+     */
+    protected File getInstallDirectory() {
+        File result = installDirectory;
+        if (result == null) {
+            File userDirectory = getUserDirectory();
+            if (userDirectory == null || !"usr".equals(userDirectory.getName())) {
+                return null;
+            }
+            result = userDirectory.getParentFile();
+        }
+        if (result == null || !new File(result, "lib/features").isDirectory()) {
+            return null;
+        }
+        return result;
+    }
+
+    // the user directory is the parent of the servers directory that contains the server
+    private File getUserDirectory() {
+        File serversDir = serverDirectory.getParentFile();
+        if (serversDir == null || !"servers".equals(serversDir.getName())) {
+            return null;
+        }
+        return serversDir.getParentFile();
     }
 
     // returns true and updates the generatedFeaturesSet if the feature set in the
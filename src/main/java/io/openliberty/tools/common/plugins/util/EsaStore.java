@@ -0,0 +1,308 @@
+/**
+ * (C) Copyright IBM Corporation 2026.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openliberty.tools.common.plugins.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * A content-addressed store of ESA files that can be shared by the installs of
+ * all projects and runtimes on a machine.
+ *
+ * ESAs are stored by their SHA-256 hash, and can be looked up by the Maven
+ * coordinates they were added with so that a project does not download an ESA
+ * that another project already stored. Files are written to a temporary file
+ * and moved into place, so several builds can use the same store at the same
+ * time. Files placed into a runtime are copies, since the runtime may later
+ * write to them in place. Stored files are checked against their hash before
+ * they are returned, so content that was changed in the store is not used.
+ */
+public class EsaStore {
+
+    private static final String ESA_DIR = "esa";
+    private static final String EXTRACTED_DIR = "extracted";
+    private static final String COORDINATES_DIR = "coordinates";
+    private static final String ESA_EXT = ".esa";
+
+    private static final Pattern COORDINATES_PATTERN = Pattern.compile("\\w[\\w.-]*:\\w[\\w.-]*:\\w[\\w.-]*");
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private final File storeDirectory;
+    private final boolean replaceSources;
+
+    // hashes by absolute path, reused while the size and last modified time are unchanged
+    private final Map<String, FileHash> fileHashes = new ConcurrentHashMap<String, FileHash>();
+
+    private static class FileHash {
+        final long size;
+        final long lastModified;
+        final String hash;
+
+        FileHash(long size, long lastModified, String hash) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * @param storeDirectory the directory of the store
+     * @param replaceSources true to replace the files added to the store with
+     *                       hard links to the stored content, so that the copies
+     *                       in build repositories do not use extra disk space.
+     *                       Only use this for repositories that replace their
+     *                       files instead of writing to them in place, such as
+     *                       Maven and Gradle repositories
+     */
+    public EsaStore(File storeDirectory, boolean replaceSources) {
+        this.storeDirectory = storeDirectory;
+        this.replaceSources = replaceSources;
+    }
+
+    public File getStoreDirectory() {
+        return storeDirectory;
+    }
+
+    /**
+     * Adds an ESA to the store if its content is not stored yet.
+     *
+     * @param esa the ESA file
+     * @return the stored file with the same content
+     * @throws IOException if the ESA cannot be read or stored
+     */
+    public File add(File esa) throws IOException {
+        return getStoredFile(store(esa));
+    }
+
+    /**
+     * Adds an ESA to the store and records the Maven coordinates it was resolved
+     * from, so that it can be found with {@link #find(String)}. Snapshot versions
+     * are stored but not recorded, since their content changes.
+     *
+     * @param esa         the ESA file
+     * @param coordinates the groupId:artifactId:version of the ESA
+     * @return the stored file with the same content
+     * @throws IOException if the ESA cannot be read or stored
+     */
+    public File add(File esa, String coordinates) throws IOException {
+        String hash = store(esa);
+        File index = getIndexFile(coordinates);
+        if (index != null) {
+            index.getParentFile().mkdirs();
+            Path temp = Files.createTempFile(index.getParentFile().toPath(), index.getName(), ".tmp");
+            try {
+                Files.write(temp, hash.getBytes(StandardCharsets.UTF_8));
+                Files.move(temp, index.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+        return getStoredFile(hash);
+    }
+
+    /**
+     * Finds the stored ESA that was added with the given Maven coordinates.
+     *
+     * @param coordinates the groupId:artifactId:version of the ESA
+     * @return the stored file, or null if the store does not have the ESA or
+     *         the stored content does not match its hash
+     */
+    public File find(String coordinates) {
+        File index = getIndexFile(coordinates);
+        if (index == null || !index.isFile()) {
+            return null;
+        }
+        try {
+            String hash = new String(Files.readAllBytes(index.toPath()), StandardCharsets.UTF_8).trim();
+            if (!HASH_PATTERN.matcher(hash).matches()) {
+                return null;
+            }
+            File stored = getStoredFile(hash);
+            return isIntact(stored, hash) ? stored : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private File getIndexFile(String coordinates) {
+        if (coordinates == null || !COORDINATES_PATTERN.matcher(coordinates).matches()
+                || coordinates.endsWith("-SNAPSHOT")) {
+            return null;
+        }
+        String[] gav = coordinates.split(":");
+        return new File(new File(new File(new File(storeDirectory, COORDINATES_DIR), gav[0]), gav[1]), gav[2]);
+    }
+
+    private String store(File esa) throws IOException {
+        String hash = getHash(esa);
+        File stored = getStoredFile(hash);
+        if (!isIntact(stored, hash)) {
+            // the stored file is never modified, so it can be hard linked to the source when the source is replaced
+            boolean replace = stored.exists();
+            stored.getParentFile().mkdirs();
+            Path temp = Files.createTempFile(stored.getParentFile().toPath(), hash, ".tmp");
+            try {
+                FileUtil.copyFile(esa, temp.toFile());
+                if (replace) {
+                    Files.move(temp, stored.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                } else {
+                    moveIntoPlace(temp, stored.toPath());
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+        if (replaceSources && !Files.isSameFile(esa.toPath(), stored.toPath())) {
+            createLink(stored, esa);
+        }
+        return hash;
+    }
+
+    /**
+     * Gets the directory with the extracted content of the given ESA, extracting
+     * it into the store if needed.
+     *
+     * @param esa the ESA file
+     * @return the directory with the entries of the ESA
+     * @throws IOException if the ESA cannot be read or extracted
+     */
+    public File getExtracted(File esa) throws IOException {
+        String hash = store(esa);
+        File extracted = new File(new File(storeDirectory, EXTRACTED_DIR), hash);
+        if (extracted.isDirectory()) {
+            return extracted;
+        }
+        extracted.getParentFile().mkdirs();
+        Path temp = Files.createTempDirectory(extracted.getParentFile().toPath(), hash);
+        try (ZipFile zip = new ZipFile(esa)) {
+            File tempDir = temp.toFile();
+            String tempPath = tempDir.getCanonicalPath() + File.separator;
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                File target = new File(tempDir, entry.getName());
+                if (!target.getCanonicalPath().startsWith(tempPath)) {
+                    throw new IOException("The entry " + entry.getName() + " is outside of the ESA " + esa);
+                }
+                if (entry.isDirectory()) {
+                    target.mkdirs();
+                } else {
+                    target.getParentFile().mkdirs();
+                    FileUtil.copyZipEntry(zip, entry, target);
+                }
+            }
+            moveIntoPlace(temp, extracted.toPath());
+        } finally {
+            if (Files.exists(temp)) {
+                FileUtils.deleteDirectory(temp.toFile());
+            }
+        }
+        return extracted;
+    }
+
+    /**
+     * Copies a stored file to the target location. The copy is written to a
+     * temporary file and moved into place, so an existing target file is
+     * replaced rather than written in place, and a hard link from the target to
+     * the store is never written through.
+     *
+     * @param stored a file in the store
+     * @param target the file to create
+     * @throws IOException if the file cannot be copied
+     */
+    public static void copy(File stored, File target) throws IOException {
+        File parent = target.getAbsoluteFile().getParentFile();
+        parent.mkdirs();
+        Path temp = Files.createTempFile(parent.toPath(), target.getName(), ".tmp");
+        try {
+            FileUtil.copyFile(stored, temp.toFile());
+            Files.move(temp, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Replaces the target with a hard link to the stored file.
+     *
+     * @return false if hard links are not supported, such as across file systems,
+     *         in which case the target is unchanged
+     */
+    private static boolean createLink(File stored, File target) {
+        Path link = target.toPath().resolveSibling(target.getName() + ".link.tmp");
+        try {
+            Files.deleteIfExists(link);
+            Files.createLink(link, stored.toPath());
+            Files.move(link, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        } catch (IOException | UnsupportedOperationException | SecurityException e) {
+            try {
+                Files.deleteIfExists(link);
+            } catch (IOException e2) {
+                // the temporary link is left behind
+            }
+            return false;
+        }
+    }
+
+    private File getStoredFile(String hash) {
+        return new File(new File(new File(storeDirectory, ESA_DIR), hash.substring(0, 2)), hash + ESA_EXT);
+    }
+
+    private static void moveIntoPlace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // another build stored the same content
+        } catch (IOException e) {
+            if (!Files.exists(target)) {
+                throw e;
+            }
+        }
+    }
+
+    private boolean isIntact(File stored, String hash) throws IOException {
+        return stored.isFile() && hash.equals(getHash(stored));
+    }
+
+    private String getHash(File file) throws IOException {
+        String path = file.getAbsolutePath();
+        long size = file.length();
+        long lastModified = file.lastModified();
+        FileHash cached = fileHashes.get(path);
+        if (cached != null && cached.size == size && cached.lastModified == lastModified) {
+            return cached.hash;
+        }
+        String hash = FileUtil.sha256(file);
+        fileHashes.put(path, new FileHash(size, lastModified, hash));
+        return hash;
+    }
+
+}
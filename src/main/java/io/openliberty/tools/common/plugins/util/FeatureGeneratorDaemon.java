@@ -0,0 +1,393 @@
+/**
+ * (C) Copyright IBM Corporation 2026.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openliberty.tools.common.plugins.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.PrintStream;
+import java.io.Serializable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs the feature generator in a separate JVM so that the memory used to scan
+ * an application is not allocated in the Maven or Gradle JVM, and a failure of
+ * the generator does not end the build or dev mode.
+ *
+ * The forked JVM is started on first use and reused for later calls with the
+ * same generator jar and JVM arguments. Requests and responses are exchanged
+ * as serialized objects over the standard input and output of the forked JVM.
+ * A forked JVM that does not respond within the response timeout is stopped.
+ */
+public class FeatureGeneratorDaemon {
+
+    private static final String BINARY_SCANNER_CLASS = "com.ibm.websphere.binary.cmdline.BinaryScanner";
+    private static final String[] EXCEPTION_METHODS = { "getFeatures", "getUnavailableMPFeatures",
+            "getUnavailableEEFeatures", "getIllegalMPTarget", "getIllegalEETarget" };
+    private static final long STOP_TIMEOUT_SECONDS = 5;
+
+    public static final long DEFAULT_RESPONSE_TIMEOUT_SECONDS = 300;
+
+    private static final Map<String, FeatureGeneratorDaemon> daemons = new HashMap<String, FeatureGeneratorDaemon>();
+
+    // reads the responses, so that a forked JVM that stops responding does not block the build
+    private static final ExecutorService responseReaders = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "Feature generator response reader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final File featureGenJar;
+    private final List<String> jvmArgs;
+    private Process process;
+    private ObjectOutputStream out;
+    private ObjectInputStream in;
+
+    private FeatureGeneratorDaemon(File featureGenJar, List<String> jvmArgs) {
+        this.featureGenJar = featureGenJar;
+        this.jvmArgs = jvmArgs;
+    }
+
+    /**
+     * Gets the daemon for the given generator jar and JVM arguments, creating it
+     * if needed. The forked JVM is started by the first call to generate.
+     *
+     * @param featureGenJar the feature generator jar
+     * @param jvmArgs       arguments for the forked JVM, such as -Xmx1g, or null
+     * @return the daemon
+     */
+    public static synchronized FeatureGeneratorDaemon getDaemon(File featureGenJar, List<String> jvmArgs) {
+        List<String> args = jvmArgs == null ? new ArrayList<String>() : new ArrayList<String>(jvmArgs);
+        String key = featureGenJar.getAbsolutePath() + "|" + args;
+        FeatureGeneratorDaemon daemon = daemons.get(key);
+        if (daemon == null) {
+            daemon = new FeatureGeneratorDaemon(featureGenJar, args);
+            daemons.put(key, daemon);
+        }
+        return daemon;
+    }
+
+    /**
+     * Stops all the forked JVMs.
+     */
+    public static synchronized void stopAll() {
+        for (FeatureGeneratorDaemon daemon : daemons.values()) {
+            daemon.stop();
+        }
+        daemons.clear();
+    }
+
+    /**
+     * Calls the feature generator in the forked JVM. The arguments are the same as
+     * the arguments of BinaryScanner.generateFeatureList, followed by the number of
+     * seconds to wait for the response.
+     *
+     * @return the generated features
+     * @throws InvocationTargetException if the feature generator threw an
+     *                                   exception, with a RemoteGeneratorException
+     *                                   as the cause
+     * @throws ResponseTimeoutException  if the forked JVM did not respond within
+     *                                   the timeout. The forked JVM is stopped.
+     * @throws PluginExecutionException  if the forked JVM could not be started or
+     *                                   did not respond
+     */
+    public synchronized Set<String> generate(Set<String> binaryInputs, String targetJavaEE, String targetMicroProfile,
+            Set<String> currentFeatures, Map<?, ?> featureListFileMap, String logLocation, String logLevel,
+            Locale locale, long timeoutSeconds) throws InvocationTargetException, PluginExecutionException {
+        GenerateRequest request = new GenerateRequest();
+        request.binaryInputs = new HashSet<String>(binaryInputs);
+        request.targetJavaEE = targetJavaEE;
+        request.targetMicroProfile = targetMicroProfile;
+        request.currentFeatures = new HashSet<String>(currentFeatures);
+        request.featureListFileMap = featureListFileMap == null ? null : new HashMap<Object, Object>(featureListFileMap);
+        request.logLocation = logLocation;
+        request.logLevel = logLevel;
+        request.locale = locale;
+
+        GenerateResponse response;
+        try {
+            response = send(request, timeoutSeconds);
+        } catch (IOException | ClassNotFoundException e) {
+            // the forked JVM may have ended, start a new one and try once more
+            stop();
+            try {
+                response = send(request, timeoutSeconds);
+            } catch (IOException | ClassNotFoundException e2) {
+                stop();
+                throw new PluginExecutionException("An error occurred when calling the feature generator in a separate JVM: " + e2.toString(), e2);
+            }
+        }
+        if (response.error != null) {
+            throw new PluginExecutionException("An error occurred when trying to call the feature generator jar: " + response.error);
+        }
+        if (response.exception != null) {
+            throw new InvocationTargetException(response.exception);
+        }
+        return response.features;
+    }
+
+    private GenerateResponse send(GenerateRequest request, long timeoutSeconds) throws IOException, ClassNotFoundException, PluginExecutionException {
+        if (process == null || !process.isAlive()) {
+            start();
+        }
+        out.writeObject(request);
+        out.flush();
+        out.reset();
+        Future<Object> response = responseReaders.submit(in::readObject);
+        try {
+            return (GenerateResponse) response.get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            // destroying the forked JVM closes its output, which ends the blocked read
+            destroy();
+            throw new ResponseTimeoutException("The feature generator in a separate JVM did not respond within " + timeoutSeconds + " seconds.");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof ClassNotFoundException) {
+                throw (ClassNotFoundException) cause;
+            }
+            throw new IOException("Could not read the response of the feature generator in a separate JVM.", cause);
+        } catch (InterruptedException e) {
+            destroy();
+            Thread.currentThread().interrupt();
+            throw new PluginExecutionException("Interrupted while waiting for the feature generator in a separate JVM.", e);
+        }
+    }
+
+    private void start() throws IOException, PluginExecutionException {
+        List<String> command = new ArrayList<String>();
+        command.add(new File(System.getProperty("java.home"), "bin" + File.separator + "java").getAbsolutePath());
+        command.addAll(jvmArgs);
+        command.add("-cp");
+        command.add(getCommonClasspath());
+        command.add(FeatureGeneratorDaemon.class.getName());
+        command.add(featureGenJar.getAbsolutePath());
+
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+        process = pb.start();
+        out = new ObjectOutputStream(new BufferedOutputStream(process.getOutputStream()));
+        out.flush();
+        in = new ObjectInputStream(new BufferedInputStream(process.getInputStream()));
+    }
+
+    private static String getCommonClasspath() throws PluginExecutionException {
+        try {
+            URL location = FeatureGeneratorDaemon.class.getProtectionDomain().getCodeSource().getLocation();
+            return new File(location.toURI()).getAbsolutePath();
+        } catch (URISyntaxException | SecurityException | NullPointerException e) {
+            throw new PluginExecutionException("Could not determine the class path to run the feature generator in a separate JVM.", e);
+        }
+    }
+
+    private synchronized void stop() {
+        if (process != null) {
+            try {
+                out.close();
+                if (!process.waitFor(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (IOException e) {
+                process.destroyForcibly();
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+            process = null;
+            out = null;
+            in = null;
+        }
+    }
+
+    private synchronized void destroy() {
+        if (process != null) {
+            process.destroyForcibly();
+            process = null;
+            out = null;
+            in = null;
+        }
+    }
+
+    /**
+     * Entry point of the forked JVM. Reads requests from standard input until it
+     * is closed, and writes a response to standard output for each request.
+     *
+     * @param args the location of the feature generator jar
+     */
+    public static void main(String[] args) throws Exception {
+        // the protocol owns standard output, anything the generator prints goes to standard error
+        PrintStream protocolOut = System.out;
+        System.setOut(System.err);
+
+        ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(protocolOut));
+        out.flush();
+        ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(System.in));
+
+        Method generateFeatureList = null;
+        String loadError = null;
+        try {
+            URLClassLoader cl = new URLClassLoader(new URL[] { new File(args[0]).toURI().toURL() },
+                    FeatureGeneratorDaemon.class.getClassLoader());
+            generateFeatureList = cl.loadClass(BINARY_SCANNER_CLASS).getMethod("generateFeatureList", Set.class,
+                    String.class, String.class, Set.class, Map.class, String.class, String.class, Locale.class);
+        } catch (Exception e) {
+            loadError = e.toString();
+        }
+
+        while (true) {
+            GenerateRequest request;
+            try {
+                request = (GenerateRequest) in.readObject();
+            } catch (IOException e) {
+                // the build JVM closed the connection
+                return;
+            }
+            GenerateResponse response = new GenerateResponse();
+            if (loadError != null) {
+                response.error = loadError;
+            } else {
+                try {
+                    @SuppressWarnings("unchecked")
+                    Set<String> features = (Set<String>) generateFeatureList.invoke(null, request.binaryInputs,
+                            request.targetJavaEE, request.targetMicroProfile, request.currentFeatures,
+                            request.featureListFileMap, request.logLocation, request.logLevel, request.locale);
+                    response.features = new HashSet<String>(features);
+                } catch (InvocationTargetException e) {
+                    response.exception = new RemoteGeneratorException(e.getCause());
+                } catch (Exception e) {
+                    response.error = e.toString();
+                }
+            }
+            out.writeObject(response);
+            out.flush();
+            out.reset();
+        }
+    }
+
+    private static class GenerateRequest implements Serializable {
+        private static final long serialVersionUID = 1L;
+        Set<String> binaryInputs;
+        String targetJavaEE;
+        String targetMicroProfile;
+        Set<String> currentFeatures;
+        Map<Object, Object> featureListFileMap;
+        String logLocation;
+        String logLevel;
+        Locale locale;
+    }
+
+    private static class GenerateResponse implements Serializable {
+        private static final long serialVersionUID = 1L;
+        Set<String> features;
+        RemoteGeneratorException exception;
+        String error;
+    }
+
+    /**
+     * Thrown when the forked JVM does not respond within the response timeout.
+     */
+    public static class ResponseTimeoutException extends PluginExecutionException {
+        private static final long serialVersionUID = 1L;
+
+        public ResponseTimeoutException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * An exception thrown by the feature generator in the forked JVM. It keeps
+     * the class name, messages and stack trace of the original exception and the
+     * results of its accessor methods, since the exception classes of the
+     * generator are not loaded in the build JVM.
+     */
+    public static class RemoteGeneratorException extends Exception {
+        private static final long serialVersionUID = 1L;
+        private final String className;
+        private final String localizedMessage;
+        private final HashMap<String, Object> results = new HashMap<String, Object>();
+
+        RemoteGeneratorException(Throwable generatorException) {
+            super(generatorException.getMessage());
+            this.className = generatorException.getClass().getName();
+            this.localizedMessage = generatorException.getLocalizedMessage();
+            setStackTrace(generatorException.getStackTrace());
+            for (String methodName : EXCEPTION_METHODS) {
+                try {
+                    Object result = generatorException.getClass().getMethod(methodName).invoke(generatorException);
+                    if (result instanceof Set) {
+                        result = new HashSet<Object>((Set<?>) result);
+                    }
+                    if (result == null || result instanceof Serializable) {
+                        results.put(methodName, result);
+                    }
+                } catch (Exception e) {
+                    // the exception does not provide this information
+                }
+            }
+        }
+
+        /**
+         * @return the class name of the exception thrown by the feature generator
+         */
+        public String getClassName() {
+            return className;
+        }
+
+        /**
+         * Gets the result of an accessor method of the original exception, such as
+         * getFeatures.
+         *
+         * @param methodName the name of the method
+         * @return the result, or null if the exception does not have the method
+         */
+        public Object getResult(String methodName) {
+            return results.get(methodName);
+        }
+
+        @Override
+        public String getLocalizedMessage() {
+            return localizedMessage;
+        }
+
+        @Override
+        public String toString() {
+            return localizedMessage != null ? className + ": " + localizedMessage : className;
+        }
+    }
+
+}
@@ -0,0 +1,183 @@
+/**
+ * (C) Copyright IBM Corporation 2026.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openliberty.tools.common.plugins.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the state of the feature generator across calls in the same JVM, so
+ * that dev mode does not rescan an application that has not changed.
+ *
+ * The hash of every scanned file is cached by path, size and last modified
+ * time, so only the files that changed since the previous call are read again.
+ * The features generated for a set of inputs are cached by a fingerprint of
+ * the hashes of the scanned files and feature list files and the other
+ * generator arguments. Generated features are only reused when all of the
+ * inputs are unchanged; any changed class means the generator scans all of
+ * the inputs again.
+ */
+public class FeatureGeneratorSession {
+
+    private static final int MAX_CACHED_RESULTS = 16;
+
+    private static final Map<String, FileHash> fileHashes = new ConcurrentHashMap<String, FileHash>();
+
+    private static final Map<String, Set<String>> generatedFeatures = Collections
+            .synchronizedMap(new LinkedHashMap<String, Set<String>>(MAX_CACHED_RESULTS, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Set<String>> eldest) {
+                    return size() > MAX_CACHED_RESULTS;
+                }
+            });
+
+    private static class FileHash {
+        final long size;
+        final long lastModified;
+        final String hash;
+
+        FileHash(long size, long lastModified, String hash) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * Computes a fingerprint of the inputs of a feature generator call.
+     *
+     * @param featureGenJar      the feature generator jar
+     * @param binaryInputs       the class files and directories to scan
+     * @param targetJavaEE       the target Java EE or Jakarta EE version
+     * @param targetMicroProfile the target MicroProfile version
+     * @param currentFeatures    the features already specified in the server
+     *                           configuration
+     * @param featureListFileMap the feature list files passed to the generator
+     * @return the fingerprint, or null if any of the inputs cannot be read
+     */
+    public static String getFingerprint(File featureGenJar, Set<String> binaryInputs, String targetJavaEE,
+            String targetMicroProfile, Set<String> currentFeatures, Map<?, ?> featureListFileMap) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("generator=").append(featureGenJar.getAbsolutePath()).append(':').append(featureGenJar.length())
+                .append(':').append(featureGenJar.lastModified()).append('\n');
+        sb.append("ee=").append(targetJavaEE).append('\n');
+        sb.append("mp=").append(targetMicroProfile).append('\n');
+        sb.append("features=").append(new TreeSet<String>(currentFeatures)).append('\n');
+        try {
+            if (featureListFileMap != null) {
+                // the feature lists can be regenerated at the same path, so they are identified by content
+                Map<String, String> featureLists = new TreeMap<String, String>();
+                for (Map.Entry<?, ?> entry : featureListFileMap.entrySet()) {
+                    Object value = entry.getValue();
+                    File featureList = value instanceof File ? (File) value : new File(String.valueOf(value));
+                    featureLists.put(String.valueOf(entry.getKey()), featureList.getPath() + "="
+                            + (featureList.isFile() ? getFileHash(featureList) : "missing"));
+                }
+                sb.append("featureLists=").append(featureLists).append('\n');
+            }
+            for (String input : new TreeSet<String>(binaryInputs)) {
+                sb.append("input=").append(input).append('\n');
+                for (File file : listFiles(new File(input))) {
+                    sb.append(file.getPath()).append('=').append(getFileHash(file)).append('\n');
+                }
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        return FileUtil.sha256(sb.toString());
+    }
+
+    /**
+     * Gets the features generated for the inputs with the given fingerprint.
+     *
+     * @param fingerprint the fingerprint from getFingerprint
+     * @return a copy of the generated features, or null if the inputs have not
+     *         been scanned in this session
+     */
+    public static Set<String> getGeneratedFeatures(String fingerprint) {
+        if (fingerprint == null) {
+            return null;
+        }
+        Set<String> features = generatedFeatures.get(fingerprint);
+        return features == null ? null : new HashSet<String>(features);
+    }
+
+    /**
+     * Caches the features generated for the inputs with the given fingerprint.
+     *
+     * @param fingerprint the fingerprint from getFingerprint
+     * @param features    the generated features
+     */
+    public static void putGeneratedFeatures(String fingerprint, Set<String> features) {
+        if (fingerprint != null && features != null) {
+            generatedFeatures.put(fingerprint, new HashSet<String>(features));
+        }
+    }
+
+    /**
+     * Clears all the state of the session.
+     */
+    public static void clear() {
+        fileHashes.clear();
+        generatedFeatures.clear();
+    }
+
+    private static List<File> listFiles(File input) throws IOException {
+        if (input.isFile()) {
+            return Collections.singletonList(input);
+        }
+        if (!input.isDirectory()) {
+            return Collections.emptyList();
+        }
+        try (Stream<Path> paths = Files.walk(input.toPath())) {
+            List<File> files = new ArrayList<File>(paths.filter(Files::isRegularFile).map(Path::toFile)
+                    .collect(Collectors.toList()));
+            Collections.sort(files);
+            return files;
+        }
+    }
+
+    private static String getFileHash(File file) throws IOException {
+        String path = file.getAbsolutePath();
+        long size = file.length();
+        long lastModified = file.lastModified();
+        FileHash cached = fileHashes.get(path);
+        if (cached != null && cached.size == size && cached.lastModified == lastModified) {
+            return cached.hash;
+        }
+        String hash = FileUtil.sha256(file);
+        fileHashes.put(path, new FileHash(size, lastModified, hash));
+        return hash;
+    }
+
+}
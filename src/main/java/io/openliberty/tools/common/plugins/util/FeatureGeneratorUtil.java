@@ -121,10 +121,40 @@ public abstract class FeatureGeneratorUtil {
     private Class featureGenClass = null;
     private Method featureGenMethod = null;
 
+    // Run the feature generator in a separate JVM
+    private boolean forkedGenerator = false;
+    private List<String> forkedGeneratorJvmArgs = null;
+    private long forkedGeneratorTimeout = FeatureGeneratorDaemon.DEFAULT_RESPONSE_TIMEOUT_SECONDS;
+
     public FeatureGeneratorUtil(File featureGen) {
         this.featureGenJar = featureGen;
     }
 
+    /**
+     * Run the feature generator in a separate JVM that is reused across calls,
+     * instead of loading it into the current JVM.
+     * 
+     * @param forkedGenerator - true to run the feature generator in a separate JVM
+     */
+    public void setForkedGenerator(boolean forkedGenerator) {
+        this.forkedGenerator = forkedGenerator;
+    }
+
+    /**
+     * @param jvmArgs - arguments for the separate JVM of the feature generator, such as -Xmx2g
+     */
+    public void setForkedGeneratorJvmArgs(List<String> jvmArgs) {
+        this.forkedGeneratorJvmArgs = jvmArgs;
+    }
+
+    /**
+     * @param timeoutSeconds - seconds to wait for the separate JVM of the feature generator to respond before
+     *                         stopping it and failing the call with a ResponseTimeoutException
+     */
+    public void setForkedGeneratorTimeout(long timeoutSeconds) {
+        this.forkedGeneratorTimeout = timeoutSeconds;
+    }
+
     /**
      * Call the feature generator to generate a list of Liberty features to run an application. It will scan the
      * classFiles parameter or scan all the classes in the allClassesDirectories parameter depending on the
@@ -165,7 +195,6 @@ public abstract class FeatureGeneratorUtil {
             // we do not need to rerun the feature generator if it fails
             boolean reRunIfFailed = !currentFeatureSet.isEmpty() || !optimize;
             try {
-                Method generateFeatureSetMethod = getGeneratorMethod();
                 // names: binaryInputs, targetJavaEE, targetMicroProfile, currentFeatures, logLocation, logLevel, locale
                 Set<String> binaryInputs = getBinaryInputs(classFiles, allClassesDirectories, optimize);
                 String logLevel;
@@ -184,8 +213,16 @@ public abstract class FeatureGeneratorUtil {
                         "  logLocation: " + logLocation + "\n" +
                         "  logLevel: " + logLevel + "\n" +
                         "  locale: " + java.util.Locale.getDefault());
-                generatedFeatureList = (Set<String>) generateFeatureSetMethod.invoke(null, binaryInputs, targetJavaEE, targetMicroProfile,
-                        currentFeatureSet, featureListFileMap, logLocation, logLevel, java.util.Locale.getDefault());
+                String fingerprint = FeatureGeneratorSession.getFingerprint(featureGenJar, binaryInputs, targetJavaEE,
+                        targetMicroProfile, currentFeatureSet, featureListFileMap);
+                generatedFeatureList = FeatureGeneratorSession.getGeneratedFeatures(fingerprint);
+                if (generatedFeatureList != null) {
+                    debug("The scanned classes have not changed since the last call, reusing the generated features.");
+                } else {
+                    generatedFeatureList = invokeGenerator(binaryInputs, targetJavaEE, targetMicroProfile,
+                            currentFeatureSet, featureListFileMap, logLocation, logLevel);
+                    FeatureGeneratorSession.putGeneratedFeatures(fingerprint, generatedFeatureList);
+                }
                 for (String s : generatedFeatureList) {debug(s);};
             } catch (InvocationTargetException ite) {
                 // This is the exception from the JVM that indicates there was an exception in the method we
@@ -202,7 +239,7 @@ public abstract class FeatureGeneratorUtil {
                 // digit: ee6 to ee9. For MP we use the first two digits mp1.2 to mp5.0.
                 // 6. IllegalTargetCombinationException means that the EE level and the MP level are not compatible.
                 Throwable generatorException = ite.getCause();
-                if (generatorException.getClass().getName().equals(PROVIDED_FEATURE_EXCEPTION)) {
+                if (getGeneratorExceptionName(generatorException).equals(PROVIDED_FEATURE_EXCEPTION)) {
                     // The list of features from the app is passed in but it contains conflicts
                     Set<String> conflicts = getFeatures(generatorException);
                     // always rerun feature generator in this scenario, this exception only occurs if a current feature list is passed to feature generator
@@ -212,7 +249,7 @@ public abstract class FeatureGeneratorUtil {
                     } else {
                         throw new RecommendationSetException(true, conflicts, sampleFeatureList);
                     }
-                } else if (generatorException.getClass().getName().equals(FEATURE_CONFLICT_EXCEPTION)) {
+                } else if (getGeneratorExceptionName(generatorException).equals(FEATURE_CONFLICT_EXCEPTION)) {
                     // The scanned files conflict with each other or with current features
                     Set<String> conflicts = getFeatures(generatorException);
                     //  rerun feature generator with all class files and without the current feature set to get feature recommendations
@@ -222,14 +259,14 @@ public abstract class FeatureGeneratorUtil {
                     } else {
                         throw new RecommendationSetException(false, conflicts, sampleFeatureList);
                     }
-                } else if (generatorException.getClass().getName().equals(FEATURE_MODIFIED_EXCEPTION)) {
+                } else if (getGeneratorExceptionName(generatorException).equals(FEATURE_MODIFIED_EXCEPTION)) {
                     // The scanned files conflict and the generator suggests modifying some features
                     Set<String> modifications = getFeatures(generatorException);
                     //  rerun feature generator with all class files and without the current feature set
                     Set<String> sampleFeatureList = reRunIfFailed ? reRunFeatureGenerator(allClassesDirectories, logLocation, targetJavaEE, targetMicroProfile, featureListFileMap) : null;
                     throw new FeatureModifiedException(modifications, 
                             (sampleFeatureList == null) ? getNoSampleFeatureList() : sampleFeatureList, generatorException.getLocalizedMessage());
-                } else if (generatorException.getClass().getName().equals(FEATURE_NOT_AVAILABLE_EXCEPTION)) {
+                } else if (getGeneratorExceptionName(generatorException).equals(FEATURE_NOT_AVAILABLE_EXCEPTION)) {
                     // The list of features required by app or passed to feature generator do not exist
                     // at the required EE or MP level
                     Set<String> conflicts = getFeatures(generatorException);
@@ -237,16 +274,16 @@ public abstract class FeatureGeneratorUtil {
                     unavailableFeatures.addAll(getUnavailableMPFeatures(generatorException));
                     throw new FeatureUnavailableException(conflicts, unavailableFeatures, targetMicroProfile,
                             targetJavaEE);
-                } else if (generatorException.getClass().getName().equals(ILLEGAL_TARGET_EXCEPTION)) {
+                } else if (getGeneratorExceptionName(generatorException).equals(ILLEGAL_TARGET_EXCEPTION)) {
                     // The EE and/or the MP version number is out of range
                     throw new IllegalTargetException(getInvalidEETarget(generatorException), getInvalidMPTarget(generatorException));
-                } else if (generatorException.getClass().getName().equals(ILLEGAL_TARGET_COMBINATION_EXCEPTION)) {
+                } else if (getGeneratorExceptionName(generatorException).equals(ILLEGAL_TARGET_COMBINATION_EXCEPTION)) {
                     // The EE and MP version numbers are in range but they are not compatible with each other based on the standards.
                     throw new IllegalTargetComboException(getInvalidEETarget(generatorException), getInvalidMPTarget(generatorException));
-                } else if (generatorException.getClass().getName().equals(VERSIONLESS_FEATURE_EXCEPTION)) {
+                } else if (getGeneratorExceptionName(generatorException).equals(VERSIONLESS_FEATURE_EXCEPTION)) {
                     // One of the existing features has no version specified and the feature generator does not support this.
                     throw new VersionlessFeatureDetectedException();
-                } else if (generatorException.getClass().getName().contains("java.lang.IllegalArgumentException")) {
+                } else if (getGeneratorExceptionName(generatorException).contains("java.lang.IllegalArgumentException")) {
                     // Used by feature generator 22.0.0.3, remove after 22.0.0.4 is in sonatype
                     // TODO: Affected by issue #1558
                     String msg = generatorException.getMessage();
@@ -297,7 +334,6 @@ public abstract class FeatureGeneratorUtil {
             Map featureListFileMap) throws PluginExecutionException {
         Set<String> generatedFeatureList = null;
         try {
-            Method generateFeatureSetMethod = getGeneratorMethod();
             Set<String> binaryInputs = allClassesDirectories;
             Set<String> currentFeaturesSet = new HashSet<String>(); // when re-running always pass in no features
             String logLevel;
@@ -315,19 +351,27 @@ public abstract class FeatureGeneratorUtil {
                   "  logLocation: " + logLocation + "\n" +
                   "  logLevel: " + logLevel + "\n" +
                   "  locale: " + java.util.Locale.getDefault());
-            generatedFeatureList = (Set<String>) generateFeatureSetMethod.invoke(null, binaryInputs, targetJavaEE, targetMicroProfile,
-                    currentFeaturesSet, featureListFileMap, logLocation, logLevel, java.util.Locale.getDefault());
+            String fingerprint = FeatureGeneratorSession.getFingerprint(featureGenJar, binaryInputs, targetJavaEE,
+                    targetMicroProfile, currentFeaturesSet, featureListFileMap);
+            generatedFeatureList = FeatureGeneratorSession.getGeneratedFeatures(fingerprint);
+            if (generatedFeatureList != null) {
+                debug("The scanned classes have not changed since the last call, reusing the generated features.");
+            } else {
+                generatedFeatureList = invokeGenerator(binaryInputs, targetJavaEE, targetMicroProfile,
+                        currentFeaturesSet, featureListFileMap, logLocation, logLevel);
+                FeatureGeneratorSession.putGeneratedFeatures(fingerprint, generatedFeatureList);
+            }
             for (String s : generatedFeatureList) {debug(s);};
         } catch (InvocationTargetException ite) {
             Throwable generatorException = ite.getCause();
-            if (generatorException.getClass().getName().equals(PROVIDED_FEATURE_EXCEPTION)) {
+            if (getGeneratorExceptionName(generatorException).equals(PROVIDED_FEATURE_EXCEPTION)) {
                 // this happens when the list of features passed in contains conflicts so now no recommendation possible
                 debug("RuntimeException from re-run of feature generator", generatorException); // shouldn't happen
                 generatedFeatureList = null;
-            } else if (generatorException.getClass().getName().equals(FEATURE_CONFLICT_EXCEPTION)) {
+            } else if (getGeneratorExceptionName(generatorException).equals(FEATURE_CONFLICT_EXCEPTION)) {
                 // The features in the scanned files conflict with each other, no recommendation possible
                 generatedFeatureList = getNoSampleFeatureList();
-            } else if (generatorException.getClass().getName().equals(FEATURE_MODIFIED_EXCEPTION)) {
+            } else if (getGeneratorExceptionName(generatorException).equals(FEATURE_MODIFIED_EXCEPTION)) {
                 // The features in the scanned files conflict with each other, no recommendation possible
                 generatedFeatureList = getNoSampleFeatureList();
             } else {
@@ -352,6 +396,38 @@ public abstract class FeatureGeneratorUtil {
         return sampleFeatureList;
     }
 
+    /**
+     * Call BinaryScanner.generateFeatureList in this JVM, or in a separate JVM if
+     * setForkedGenerator(true) was called. If the separate JVM does not respond in
+     * time, it is stopped and the call fails rather than scanning the application
+     * again in this JVM, which the forked JVM is meant to protect.
+     */
+    @SuppressWarnings("unchecked")
+    private Set<String> invokeGenerator(Set<String> binaryInputs, String targetJavaEE, String targetMicroProfile,
+            Set<String> currentFeatures, Map featureListFileMap, String logLocation, String logLevel)
+            throws InvocationTargetException, MalformedURLException, ClassNotFoundException, NoSuchMethodException,
+            IllegalAccessException, PluginExecutionException {
+        if (forkedGenerator) {
+            try {
+                return FeatureGeneratorDaemon.getDaemon(featureGenJar, forkedGeneratorJvmArgs).generate(binaryInputs,
+                        targetJavaEE, targetMicroProfile, currentFeatures, featureListFileMap, logLocation, logLevel,
+                        java.util.Locale.getDefault(), forkedGeneratorTimeout);
+            } catch (FeatureGeneratorDaemon.ResponseTimeoutException e) {
+                throw new FeatureGeneratorDaemon.ResponseTimeoutException(e.getMessage()
+                        + " Increase the timeout or the memory of the separate JVM, or run the feature generator in the current JVM.");
+            }
+        }
+        return (Set<String>) getGeneratorMethod().invoke(null, binaryInputs, targetJavaEE, targetMicroProfile,
+                currentFeatures, featureListFileMap, logLocation, logLevel, java.util.Locale.getDefault());
+    }
+
+    private static String getGeneratorExceptionName(Throwable generatorException) {
+        if (generatorException instanceof FeatureGeneratorDaemon.RemoteGeneratorException) {
+            return ((FeatureGeneratorDaemon.RemoteGeneratorException) generatorException).getClassName();
+        }
+        return generatorException.getClass().getName();
+    }
+
     private ClassLoader getGeneratorClassLoader() throws MalformedURLException {
         if (featureGenClassLoader == null) {
             ClassLoader cl = this.getClass().getClassLoader();
@@ -426,6 +502,9 @@ public abstract class FeatureGeneratorUtil {
 
     @SuppressWarnings("unchecked")
     private Object getMethodResult(Throwable generatorResponse, String method) {
+        if (generatorResponse instanceof FeatureGeneratorDaemon.RemoteGeneratorException) {
+            return ((FeatureGeneratorDaemon.RemoteGeneratorException) generatorResponse).getResult(method);
+        }
         try {
             ClassLoader cl = getGeneratorClassLoader();
             @SuppressWarnings("rawtypes")
@@ -0,0 +1,148 @@
+/**
+ * (C) Copyright IBM Corporation 2026.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openliberty.tools.common.plugins.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Enumeration;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+public class FileUtil {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Computes the SHA-256 hash of the given file.
+     *
+     * @param file the file to hash
+     * @return the lowercase hex representation of the hash
+     * @throws IOException if the file cannot be read
+     */
+    public static String sha256(File file) throws IOException {
+        return hash(file, newDigest("SHA-256"));
+    }
+
+    /**
+     * Copies a file by transferring its content between file channels, which lets
+     * the operating system copy the data without passing it through the Java heap
+     * where supported. The target file is replaced if it exists.
+     *
+     * @param source the file to copy
+     * @param target the file to create or replace
+     * @throws IOException if the file cannot be copied
+     */
+    public static void copyFile(File source, File target) throws IOException {
+        try (FileChannel in = FileChannel.open(source.toPath(), StandardOpenOption.READ);
+                FileChannel out = FileChannel.open(target.toPath(), StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                position += in.transferTo(position, size - position, out);
+            }
+        }
+    }
+
+    /**
+     * Extracts a single zip entry to the target file. The target file is replaced
+     * if it exists.
+     *
+     * @param zip    the zip file
+     * @param entry  the entry to extract
+     * @param target the file to create or replace
+     * @throws IOException if the entry cannot be extracted
+     */
+    public static void copyZipEntry(ZipFile zip, ZipEntry entry, File target) throws IOException {
+        try (InputStream is = zip.getInputStream(entry)) {
+            Files.copy(is, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Finds a zip entry by name, ignoring case. The exact name is looked up in the
+     * zip central directory first, so the entries are only scanned if the name is
+     * stored with a different case.
+     *
+     * @param zip  the zip file
+     * @param name the entry name
+     * @return the zip entry, or null if it does not exist
+     */
+    public static ZipEntry getZipEntryIgnoreCase(ZipFile zip, String name) {
+        ZipEntry entry = zip.getEntry(name);
+        if (entry != null) {
+            return entry;
+        }
+        Enumeration<? extends ZipEntry> entries = zip.entries();
+        while (entries.hasMoreElements()) {
+            ZipEntry candidate = entries.nextElement();
+            if (candidate.getName().equalsIgnoreCase(name)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static String hash(File file, MessageDigest digest) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Computes the SHA-256 hash of the given string using UTF-8 encoding.
+     *
+     * @param value the string to hash
+     * @return the lowercase hex representation of the hash
+     */
+    public static String sha256(String value) {
+        return toHex(newDigest("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest newDigest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+}
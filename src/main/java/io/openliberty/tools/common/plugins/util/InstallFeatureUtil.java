@@ -1,5 +1,5 @@
 /**
- * (C) Copyright IBM Corporation 2018, 2023.
+ * (C) Copyright IBM Corporation 2018, 2026.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -28,22 +28,35 @@ import java.io.InputStreamReader;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 
 import java.security.AccessController;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Scanner;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
@@ -57,6 +70,10 @@ import java.util.regex.Matcher;
 
 import org.apache.commons.io.FileUtils;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
 /**
  * Utility class to install features from Maven repositories.
  */
@@ -72,6 +89,9 @@ public abstract class InstallFeatureUtil extends ServerFeatureUtil {
             ANY_CONFLICT = CONFLICT + "|" + MISSING_MULTIPLE_DEPENDENT + "|" + INCOMPATIBLE_SINGLETON + "|"
                     + EE_CONFLICT;
     public static final Pattern conflictPattern = Pattern.compile(ANY_CONFLICT);
+
+    // featureUtility progress: a percentage, a step count, or a Liberty info or warning message code
+    private static final Pattern CONTAINER_INSTALL_PROGRESS_PATTERN = Pattern.compile("\\d{1,3}(\\.\\d+)?%|\\bStep \\d+ of \\d+|\\bCWWKF\\d{4}[IW]\\b");
     public static final String CONFLICT_MESSAGE = "A feature conflict error occurred while installing features: ";
 
     private final File installDirectory;
@@ -114,12 +134,37 @@ public abstract class InstallFeatureUtil extends ServerFeatureUtil {
     private static final String MIN_USER_FEATURE_VERSION = "21.0.0.11";
     private static final String MIN_VERIFY_FEATURE_VERSION = "23.0.0.9";
     private static final String MIN_VERSIONLESS_FEATURE_VERSION = "24.0.0.10";
+    private static final String SUBSYSTEM_MANIFEST = "OSGI-INF/SUBSYSTEM.MF";
 
     private String openLibertyVersion;
     private static Boolean saveURLCacheStatus = null;
     
     private final String containerName;
 
+    private static final String ARTIFACT_CACHE_FILE = "liberty-artifact-cache.properties";
+
+    private final ArtifactCache artifactCache;
+
+    private final InstallReport installReport = new InstallReport();
+
+    private File installReportFile = null;
+
+    private boolean dryRun = false;
+
+    private EsaStore esaStore = null;
+
+    private File esaStagingDirectory = null;
+
+    private static final String VERIFIED_FEATURES_FILE = "liberty-verified-features.properties";
+
+    private static final String PUBLIC_KEY_ID = "keyid";
+    private static final String PUBLIC_KEY_URL = "keyurl";
+    private static final String PUBLIC_KEYS_DIR = "liberty-public-keys";
+    private static final int PUBLIC_KEY_TIMEOUT = 30000;
+
+    // Keys of artifacts whose signatures were verified for this build directory
+    private final Set<String> verifiedArtifacts = ConcurrentHashMap.newKeySet();
+
     /**
      * Initialize the utility and check for unsupported scenarios.
      * Calls the constructor InstallFeatureUtil(java.io.File, java.io.File, java.lang.String, java.lang.String, java.util.Set, java.util.List, java.lang.String, java.lang.String, java.util.List, java.lang.String, java.util.Collection, java.util.Map)
@@ -178,6 +223,7 @@ public abstract class InstallFeatureUtil extends ServerFeatureUtil {
     public InstallFeatureUtil(File installDirectory, File buildDirectory, String from, String to, Set<String> pluginListedEsas, List<ProductProperties> propertiesList, String openLibertyVersion, String containerName, List<String> additionalJsons, String verifyValue, Collection<Map<String, String>> keyMap, Map<String, String> environmentVariables) throws PluginScenarioException, PluginExecutionException {
         this.installDirectory = installDirectory;
         this.buildDirectory = buildDirectory;
+        this.artifactCache = new ArtifactCache(buildDirectory == null ? null : new File(buildDirectory, ARTIFACT_CACHE_FILE));
         this.to = to;
         this.propertiesList = propertiesList;
         this.openLibertyVersion = openLibertyVersion;
@@ -201,10 +247,12 @@ public abstract class InstallFeatureUtil extends ServerFeatureUtil {
 	}
         
         if (containerName == null) {
+            installReport.startPhase(InstallReport.PHASE_INSTALL_MAP_JAR);
             installJarFile = loadInstallJarFile(installDirectory);
             if (installJarFile == null) {
                 throw new PluginScenarioException("Install map jar not found.");
             }
+            installReport.startPhase(InstallReport.PHASE_DOWNLOAD_JSONS);
             downloadedJsons = downloadProductJsons();
             
             //check if the openliberty kernel meets min required version 21.0.0.11      	        		
@@ -216,6 +264,8 @@ public abstract class InstallFeatureUtil extends ServerFeatureUtil {
                     }
             	}
             }
+            artifactCache.store();
+            installReport.endPhase();
             
             if (downloadedJsons.isEmpty()) {
                 throw new PluginScenarioException(
@@ -232,20 +282,6 @@ public abstract class InstallFeatureUtil extends ServerFeatureUtil {
 
 
 
-	private void copyZipEntry(ZipFile zip, ZipEntry entry, File targetFile) throws IOException, FileNotFoundException {
-		try(InputStream is = zip.getInputStream(entry)){	
-			// write file content
-		    try(FileOutputStream fos = new FileOutputStream(targetFile)){
-		    	int len;
-		    	byte[] buffer = new byte[1024];
-		        while ((len = is.read(buffer)) > 0) {
-		            fos.write(buffer, 0, len);
-		        }
-		    }
-		}
-	}
-    
-
     /**
      * Retrieve additional JSONS from the coordinates provided
      * 
@@ -259,7 +295,7 @@ public abstract class InstallFeatureUtil extends ServerFeatureUtil {
 			String artifactId = coord[1];
 			String version = coord[2];
 			try {
-				File additionalJson = downloadArtifact(groupId, artifactId, "json", version);
+				File additionalJson = downloadCachedArtifact(groupId, artifactId, "json", version);
 				Jsons.add(additionalJson);
 			} catch (PluginExecutionException e) {
                 warn("Unable to find the following additional features JSON in the connected repositories: " + mavenCoord + ". Please ignore this warning if this is not a user feature.");
@@ -353,6 +389,40 @@ public abstract class InstallFeatureUtil extends ServerFeatureUtil {
      */
     public abstract File downloadArtifact(String groupId, String artifactId, String type, String version)
             throws PluginExecutionException;
+
+    /**
+     * Download the artifact from the specified Maven coordinates through the
+     * artifact cache, so that repeated lookups do not call downloadArtifact.
+     * 
+     * @param groupId    The group ID
+     * @param artifactId The artifact ID
+     * @param type       The type e.g. esa
+     * @param version    The version or version range
+     * @return The file corresponding to the downloaded artifact
+     * @throws PluginExecutionException If the artifact could not be downloaded
+     */
+    private File downloadCachedArtifact(String groupId, String artifactId, String type, String version)
+            throws PluginExecutionException {
+        final boolean[] downloaded = { false };
+        File artifact = artifactCache.downloadArtifact(groupId, artifactId, type, version, getArtifactRepositories(),
+                (g, a, t, v) -> {
+                    downloaded[0] = true;
+                    return downloadArtifact(g, a, t, v);
+                });
+        installReport.recordArtifact(artifact, !downloaded[0]);
+        return artifact;
+    }
+
+    /**
+     * Get the cache in front of downloadArtifact, such as to set whether the build
+     * is offline.
+     *
+     * @return the artifact cache
+     */
+    protected ArtifactCache getArtifactCache() {
+        return artifactCache;
+    }
+
     /**
      * Download the signature file from the specified Maven coordinates, or retrieve it
      * from the cache if it already exists. This is same as downloadArtifact method, but for Gradle 
@@ -428,7 +498,7 @@ public abstract class InstallFeatureUtil extends ServerFeatureUtil {
     private File downloadJsons(String productId, String productVersion) {
         String jsonGroupId = productId + ".features";
         try {
-            return downloadArtifact(jsonGroupId, "features", "json", productVersion);
+            return downloadCachedArtifact(jsonGroupId, "features", "json", productVersion);
         } catch (PluginExecutionException e) {
             debug("Cannot find json for productId " + productId + ", productVersion " + productVersion, e);
             return null;
@@ -538,11 +608,26 @@ public abstract class InstallFeatureUtil extends ServerFeatureUtil {
         String groupId = mavenCoordinateArray[0];
         String artifactId = mavenCoordinateArray[1];
         String version = mavenCoordinateArray[2];
-        File downloadedEsa = downloadArtifact(groupId, artifactId, "esa", version);
+        File downloadedEsa = getStoredEsa(mavenCoordinates, artifactId, version);
+        boolean stored = downloadedEsa != null;
+        if (!stored) {
+            downloadedEsa = downloadCachedArtifact(groupId, artifactId, "esa", version);
+            addToEsaStore(downloadedEsa, mavenCoordinates);
+        }
         if(this.verifyOption != VerifyOption.skip) {
             //download signature file for this esa
             try {
-        	downloadSignature(downloadedEsa, groupId, artifactId, "esa.asc", version);
+        	File signature = downloadSignature(downloadedEsa, groupId, artifactId, "esa.asc", version);
+        	installReport.recordArtifact(signature, false);
+        	if (stored && signature != null && signature.isFile()) {
+        	    // the signature is verified next to the ESA, which was copied from the store
+        	    File esaSignature = new File(downloadedEsa.getParentFile(), downloadedEsa.getName() + ".asc");
+        	    if (!signature.equals(esaSignature)) {
+        		EsaStore.copy(signature, esaSignature);
+        	    }
+        	}
+            }catch(IOException e) {
+        	throw new PluginExecutionException("Could not copy the signature of " + mavenCoordinates, e);
             }catch(PluginExecutionException e) {
         	if(this.verifyOption == VerifyOption.all) {
         	    //At this point, we don't know if the download failed for the Liberty feature or the user feature. 
@@ -563,11 +648,70 @@ public abstract class InstallFeatureUtil extends ServerFeatureUtil {
         	String[] coordinateArray = ((String) coordinate).split(":");
         	String artifactId = coordinateArray[1];
         	
-        	featurepathToExt.put((downloadEsaArtifact((String) coordinate)), artifactIdToExt.get(artifactId));
+        	File esa = downloadEsaArtifact((String) coordinate);
+        	featurepathToExt.put(esa, artifactIdToExt.get(artifactId));
         }
+        artifactCache.store();
         return featurepathToExt;
     }
 
+    /**
+     * Add a downloaded ESA to the ESA store, if one is set. The ESA keeps its
+     * location so that its signature file is still found next to it.
+     */
+    private void addToEsaStore(File esa, String mavenCoordinates) {
+        if (esaStore == null || esa == null || !esa.isFile()) {
+            return;
+        }
+        try {
+            esaStore.add(esa, mavenCoordinates);
+        } catch (IOException e) {
+            debug("Could not add " + esa + " to the ESA store " + esaStore.getStoreDirectory(), e);
+        }
+    }
+
+    /**
+     * Get a copy of the ESA with the given coordinates from the ESA store, if one
+     * is set and has the ESA, so that it is not downloaded again. The copy is put
+     * in a temporary directory of this install, since the signature file is
+     * placed next to it.
+     *
+     * @return the copied ESA, or null if the ESA must be downloaded
+     */
+    private File getStoredEsa(String mavenCoordinates, String artifactId, String version) {
+        if (esaStore == null) {
+            return null;
+        }
+        File stored = esaStore.find(mavenCoordinates);
+        if (stored == null) {
+            return null;
+        }
+        try {
+            if (esaStagingDirectory == null) {
+                esaStagingDirectory = Files.createTempDirectory("liberty-esa").toFile();
+            }
+            File esa = new File(esaStagingDirectory, artifactId + "-" + version + ".esa");
+            EsaStore.copy(stored, esa);
+            installReport.recordArtifact(esa, true);
+            debug("Using " + mavenCoordinates + " from the ESA store " + esaStore.getStoreDirectory());
+            return esa;
+        } catch (IOException e) {
+            debug("Could not copy " + stored + " from the ESA store", e);
+            return null;
+        }
+    }
+
+    private void deleteEsaStagingDirectory() {
+        if (esaStagingDirectory != null) {
+            try {
+                FileUtils.deleteDirectory(esaStagingDirectory);
+            } catch (IOException e) {
+                debug("Could not delete " + esaStagingDirectory, e);
+            }
+            esaStagingDirectory = null;
+        }
+    }
+
     /**
      * Gets the set of all Open Liberty features by scanning the product JSONs.
      * 
@@ -649,34 +793,49 @@ public abstract class InstallFeatureUtil extends ServerFeatureUtil {
 		for(String esa : pluginListedEsas) {
 			debug("Copying " + esa + " to Liberty image.");
 			try (ZipFile zip = new ZipFile(esa)){	
-				Enumeration<? extends ZipEntry> zipEntries = zip.entries();
+				// look up the subsystem manifest in the zip central directory instead of reading every entry
+				ZipEntry manifestEntry = FileUtil.getZipEntryIgnoreCase(zip, SUBSYSTEM_MANIFEST);
+				if (manifestEntry == null) {
+					warn("The feature " + esa + " does not contain a " + SUBSYSTEM_MANIFEST + " file. Skipping the feature.");
+					continue;
+				}
+				Manifest m;
+				try (InputStream is = zip.getInputStream(manifestEntry)) {
+					m = new Manifest(is);
+				}
+				String symbolicName = m.getMainAttributes().getValue("Subsystem-SymbolicName").split(";")[0];	            	
+				String shortName = m.getMainAttributes().getValue("IBM-ShortName");
+				
+				if(shortName != null) {
+					manuallyInstalledUsrFeatureMap.put(symbolicName.toLowerCase(), shortName.toLowerCase());
+				} else {
+					manuallyInstalledUsrFeatureMap.put(symbolicName.toLowerCase(), "");
+				}
+				File targetFile = new File(featuresDirectory, symbolicName + ".mf");
+				if(targetFile.exists()) {
+					info("The feature " + esa + " is already installed.");
+					continue;
+				}
 				
+				// with an ESA store, the files are extracted once per machine and copied into the runtime
+				File extracted = esaStore != null ? esaStore.getExtracted(new File(esa)) : null;
+				Enumeration<? extends ZipEntry> zipEntries = zip.entries();
 				while (zipEntries.hasMoreElements()) {
 					ZipEntry entry = zipEntries.nextElement();	   
-		            String fileName = entry.getName();
-		            if (fileName.toLowerCase().endsWith("subsystem.mf")) {
-		            	Manifest m = new Manifest(zip.getInputStream(entry));
-		            	String symbolicName = m.getMainAttributes().getValue("Subsystem-SymbolicName").split(";")[0];	            	
-		            	String shortName = m.getMainAttributes().getValue("IBM-ShortName");
-		            	
-		            	if(shortName != null) {
-		            		manuallyInstalledUsrFeatureMap.put(symbolicName.toLowerCase(), shortName.toLowerCase());
-		            	} else {
-		            		manuallyInstalledUsrFeatureMap.put(symbolicName.toLowerCase(), "");
-		            	}
-		            	File targetFile = new File(featuresDirectory, symbolicName + ".mf");
-		            	if(targetFile.exists()) {
-		            		info("The feature " + esa + " is already installed.");
-		            		break;
-		            	}
-		            	copyZipEntry(zip, entry, targetFile);
-		            	
-		            }else if(fileName.toLowerCase().endsWith(".jar")){
-		            	File targetFile = new File(libDirectory, fileName);
-		            	copyZipEntry(zip, entry, targetFile);	
-		            }
-		        }
-				
+					String fileName = entry.getName();
+					if(fileName.toLowerCase().endsWith(".jar")){
+						if (extracted != null) {
+							EsaStore.copy(new File(extracted, fileName), new File(libDirectory, fileName));
+						} else {
+							FileUtil.copyZipEntry(zip, entry, new File(libDirectory, fileName));
+						}
+					}
+				}
+				if (extracted != null) {
+					EsaStore.copy(new File(extracted, manifestEntry.getName()), targetFile);
+				} else {
+					FileUtil.copyZipEntry(zip, manifestEntry, targetFile);
+				}
 
 			} catch (IOException e) {
 				throw new PluginExecutionException(e);
@@ -753,9 +912,22 @@ public abstract class InstallFeatureUtil extends ServerFeatureUtil {
     	    debug("featuresToInstall is empty");
     		return;
     	}
+        installReport.setDryRun(dryRun);
+        installReport.setFeatures(featuresToInstall);
     	
         if (containerName != null) {
-            installFeaturesOnContainer(featuresToInstall, isAcceptLicense, verifyOption);
+            if (dryRun) {
+                info("Dry run: the following features would be installed in the container: " + featuresToInstall);
+                writeInstallReport();
+                return;
+            }
+            installReport.startPhase(InstallReport.PHASE_CONTAINER_INSTALL);
+            try {
+                installFeaturesOnContainer(featuresToInstall, isAcceptLicense, verifyOption);
+            } finally {
+                installReport.endPhase();
+                writeInstallReport();
+            }
             return;
         }
         
@@ -774,24 +946,33 @@ public abstract class InstallFeatureUtil extends ServerFeatureUtil {
 
         disableCacheInURLClassLoader();
         try {
+            installReport.startPhase(InstallReport.PHASE_KERNEL_INIT);
             String bundle = getOverrideBundleDescriptor(OPEN_LIBERTY_GROUP_ID, REPOSITORY_RESOLVER_ARTIFACT_ID);
 	        mapBasedInstallKernel = createMapBasedInstallKernelInstance(bundle, installDirectory);
 	    
-	    
+	        installReport.startPhase(InstallReport.PHASE_RESOLVE);
 	        Collection<?> resolvedFeatures = resolveFeatures(featuresToInstall, platformsList,jsonRepos, acceptLicenseMapValue, pluginListedEsas);
 	        if(resolvedFeatures == null || resolvedFeatures.isEmpty()) {
 		        return;
 	        }
+	        installReport.setResolvedFeatures(resolvedFeatures);
+	        if (dryRun) {
+	            info("Dry run: the following features would be installed: " + resolvedFeatures);
+	            return;
+	        }
 	    
+            installReport.startPhase(InstallReport.PHASE_DOWNLOAD_ESAS);
             Map<File, String> artifactsToExt = downloadEsas(resolvedFeatures, featureToExtMap);
             Set<File> artifacts = artifactsToExt.keySet();
             
             
             if (verifyOption != null && verifyOption != VerifyOption.skip) {
+                installReport.startPhase(InstallReport.PHASE_VERIFY);
 		        verifyFeatures(artifacts, installJarURL);
             }
             
 
+            installReport.startPhase(InstallReport.PHASE_INSTALL);
             info("Installing features: " + featuresToInstall);
             StringBuilder installedFeaturesBuilder = new StringBuilder();
             Collection<String> actionReturnResult = new ArrayList<String>();
@@ -827,10 +1008,12 @@ public abstract class InstallFeatureUtil extends ServerFeatureUtil {
             for (String installResult : actionReturnResult) {
                 installedFeaturesBuilder.append(installResult).append(" ");
             }
+            installReport.startPhase(InstallReport.PHASE_PRODUCT_INFO_VALIDATE);
             productInfoValidate();
             info("The following features have been installed: " + installedFeaturesBuilder.toString());
 
             // Look for and remove .libertyls folder (Liberty Tools) to cause regeneration of the schema
+            installReport.startPhase(InstallReport.PHASE_DELETE_LIBERTYLS);
             File schemaGenDir = new File(buildDirectory, ".libertyls");
             if (schemaGenDir.exists() && schemaGenDir.isDirectory()) {
                 try {
@@ -845,21 +1028,92 @@ public abstract class InstallFeatureUtil extends ServerFeatureUtil {
         } catch (IOException e) {
             throw new PluginExecutionException("Could not close the jar " + installJarFile.getAbsolutePath() + " after installing features.", e);
         } finally {
-            if (mapBasedInstallKernel != null) {
-                try {
+            installReport.endPhase();
+            writeInstallReport();
+            try {
+                if (mapBasedInstallKernel != null) {
                     mapBasedInstallKernel.clear();
-                } catch (UnsupportedOperationException e) {
-                    debug("This version of the install map does not support the clear operation.", e);
-                } catch (RuntimeException e) {
-                    throw new PluginExecutionException("Could not close resources after installing features.", e);
                 }
+            } catch (UnsupportedOperationException e) {
+                debug("This version of the install map does not support the clear operation.", e);
+            } catch (RuntimeException e) {
+                throw new PluginExecutionException("Could not close resources after installing features.", e);
+            } finally {
+                releaseInstallMap();
             }
+            deleteEsaStagingDirectory();
             restoreCacheInURLClassLoader();
         }
     }
 
 
 
+    /**
+     * Resolve, download, and install the features for several servers that share
+     * this runtime. The feature and platform lists of all servers are combined so
+     * that resolution runs once and each ESA is downloaded and installed once.
+     *
+     * If the combined features cannot be resolved together because of a conflict
+     * between servers, the features of each server are installed separately.
+     * Servers with the same features and platforms are only installed once.
+     *
+     * @param isAcceptLicense flag for accepting the license terms
+     * @param serverFeatures  Map of server name to the features and platforms
+     *                        that server requires
+     * @throws PluginExecutionException if any of the features could not be
+     *                                  installed
+     */
+    public void installServerFeatures(boolean isAcceptLicense, Map<String, FeaturesPlatforms> serverFeatures)
+            throws PluginExecutionException {
+        if (serverFeatures == null || serverFeatures.isEmpty()) {
+            debug("Skipping installing features since no servers were specified.");
+            return;
+        }
+
+        Set<String> combinedFeatures = new HashSet<String>();
+        Set<String> combinedPlatforms = new HashSet<String>();
+        for (Map.Entry<String, FeaturesPlatforms> entry : serverFeatures.entrySet()) {
+            FeaturesPlatforms fp = entry.getValue();
+            if (fp != null) {
+                debug("Features for server " + entry.getKey() + ": " + fp.getFeatures() + ", platforms: " + fp.getPlatforms());
+                combinedFeatures = combineToSet(combinedFeatures, fp.getFeatures());
+                combinedPlatforms = combineToSet(combinedPlatforms, fp.getPlatforms());
+            }
+        }
+
+        try {
+            installFeatures(isAcceptLicense, new ArrayList<String>(combinedFeatures), new ArrayList<String>(combinedPlatforms));
+        } catch (PluginExecutionException e) {
+            if (serverFeatures.size() < 2 || e.getMessage() == null || !e.getMessage().startsWith(CONFLICT_MESSAGE)) {
+                throw e;
+            }
+            warn("The features of servers " + serverFeatures.keySet() + " conflict with each other and cannot be installed together. Installing the features of each server separately.");
+            debug(e.getMessage());
+            installEachServerFeatures(isAcceptLicense, serverFeatures);
+        }
+    }
+
+    private void installEachServerFeatures(boolean isAcceptLicense, Map<String, FeaturesPlatforms> serverFeatures)
+            throws PluginExecutionException {
+        Set<Set<String>> installedFeatureSets = new HashSet<Set<String>>();
+        for (Map.Entry<String, FeaturesPlatforms> entry : serverFeatures.entrySet()) {
+            FeaturesPlatforms fp = entry.getValue();
+            if (fp == null) {
+                continue;
+            }
+            Set<String> key = toLowerCase(fp.getFeatures());
+            for (String platform : fp.getPlatforms()) {
+                key.add("platform:" + platform.toLowerCase());
+            }
+            if (!installedFeatureSets.add(key)) {
+                debug("The features of server " + entry.getKey() + " were already installed.");
+                continue;
+            }
+            info("Installing features for server " + entry.getKey());
+            installFeatures(isAcceptLicense, new ArrayList<String>(fp.getFeatures()), new ArrayList<String>(fp.getPlatforms()));
+        }
+    }
+
     /**
      * @param featuresToInstall
      * @param jsonRepos
@@ -955,7 +1209,7 @@ public abstract class InstallFeatureUtil extends ServerFeatureUtil {
     
     private File downloadOverrideJar(String groupId, String artifactId) {
         try {
-            return downloadArtifact(groupId, artifactId, "jar",
+            return downloadCachedArtifact(groupId, artifactId, "jar",
                     String.format("[%s)", openLibertyVersion + ", " + getNextProductVersion(openLibertyVersion)));
         } catch (PluginExecutionException e) {
             debug("Using jar from Liberty directory for " + artifactId + " bundle.");
@@ -1148,6 +1402,59 @@ public abstract class InstallFeatureUtil extends ServerFeatureUtil {
         return components1.length - components2.length;
     }
     
+    /**
+     * Indicate whether installFeatures should only resolve the features to install,
+     * without downloading, verifying or installing them. The resolved features are
+     * logged and recorded in the install report.
+     *
+     * @param val boolean true to resolve the features without installing them
+     */
+    public void setDryRun(boolean val) {
+        dryRun = val;
+    }
+
+    /**
+     * Set the file to write the install report to after installFeatures. The
+     * report is JSON with the install plan and the wall time, bytes downloaded
+     * and artifact cache hits of each install phase.
+     *
+     * @param reportFile the report file, or null to not write the report
+     */
+    public void setInstallReportFile(File reportFile) {
+        installReportFile = reportFile;
+    }
+
+    /**
+     * Set a content-addressed store to share ESAs across the projects and runtimes
+     * on this machine. Downloaded ESAs are added to the store, ESAs already in the
+     * store are not downloaded again, and user feature files are extracted once
+     * in the store and copied into the runtime from there.
+     *
+     * @param store the ESA store, or null to not use a store
+     */
+    public void setEsaStore(EsaStore store) {
+        esaStore = store;
+    }
+
+    /**
+     * @return the phases recorded so far by this utility
+     */
+    public InstallReport getInstallReport() {
+        return installReport;
+    }
+
+    private void writeInstallReport() {
+        if (installReportFile == null) {
+            return;
+        }
+        try {
+            installReport.writeJson(installReportFile);
+            debug("Wrote the install report to " + installReportFile.getAbsolutePath());
+        } catch (IOException e) {
+            warn("Could not write the install report to " + installReportFile.getAbsolutePath() + ": " + e.getMessage());
+        }
+    }
+
     /**
      * Performs product validation by running bin/productInfo validate
      * 
@@ -1277,7 +1584,7 @@ public abstract class InstallFeatureUtil extends ServerFeatureUtil {
             featureUtilityCommand += " --verify=" + verifyOption.name();
         }
         
-        String cmdResult = execContainerCmd(featureUtilityCommand, 600, false);
+        String cmdResult = execContainerCmdAndStream(featureUtilityCommand, 600, false, this::logContainerInstallOutput);
         if (cmdResult.contains(" RC=")) { // This piece of the string is added in execDockerCmd if there is an error
             if (cmdResult.contains("CWWKF1250I")) {
                 // The features are already installed message
@@ -1296,6 +1603,186 @@ public abstract class InstallFeatureUtil extends ServerFeatureUtil {
         }
     }
 
+    /**
+     * Log a line of featureUtility output while features are installed on the
+     * container. Progress lines are logged as info so that a long install does not
+     * look hung, and other lines are logged as debug.
+     */
+    private void logContainerInstallOutput(String line) {
+        if (CONTAINER_INSTALL_PROGRESS_PATTERN.matcher(line).find()) {
+            info(line.trim());
+        } else {
+            debug(line);
+        }
+    }
+
+    /**
+     * Download the ESAs of the given features and of the features they require to
+     * the local repository, so that a later install, such as featureUtility in a
+     * dev mode container that mounts the local Maven repository as
+     * /devmode-maven-cache, finds them without downloading them. The features are
+     * looked up in the Open Liberty features JSON of the runtime version, and
+     * features that are not found are skipped.
+     *
+     * This is a best effort that can run while the container starts. Errors are
+     * logged as debug and do not fail the build.
+     *
+     * @param features the features to prefetch
+     * @return the ESA files that were downloaded
+     */
+    public Set<File> prefetchFeatures(Collection<String> features) {
+        Set<File> prefetched = ConcurrentHashMap.newKeySet();
+        if (openLibertyVersion == null || features == null || features.isEmpty()) {
+            return prefetched;
+        }
+        try {
+            File json = downloadCachedArtifact(OPEN_LIBERTY_GROUP_ID, FEATURES_JSON_ARTIFACT_ID, "json", openLibertyVersion);
+            Set<String> coordinates = getRequiredFeatureCoordinates(json, features);
+            debug("Prefetching features " + features + " as " + coordinates);
+            int threads = Math.min(getMaxParallelDownloads(), coordinates.size());
+            ExecutorService executor = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+            try {
+                List<Future<?>> downloads = new ArrayList<Future<?>>();
+                for (String coordinate : coordinates) {
+                    final String[] gav = coordinate.split(":");
+                    if (gav.length < 3) {
+                        continue;
+                    }
+                    Runnable download = () -> {
+                        try {
+                            prefetched.add(downloadCachedArtifact(gav[0], gav[1], "esa", gav[2]));
+                        } catch (PluginExecutionException e) {
+                            debug("Could not prefetch feature " + coordinate + ": " + e.getMessage());
+                        }
+                    };
+                    if (executor == null) {
+                        download.run();
+                    } else {
+                        downloads.add(executor.submit(download));
+                    }
+                }
+                for (Future<?> download : downloads) {
+                    download.get();
+                }
+            } finally {
+                if (executor != null) {
+                    executor.shutdownNow();
+                }
+                artifactCache.store();
+            }
+        } catch (PluginExecutionException | IOException | ExecutionException e) {
+            debug("Could not prefetch features " + features, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return prefetched;
+    }
+
+    /**
+     * Get the Maven coordinates of the given features and of the features they
+     * require, from a features JSON.
+     */
+    @SuppressWarnings("unchecked")
+    static Set<String> getRequiredFeatureCoordinates(File json, Collection<String> features) throws IOException {
+        Map<String, Map<String, Object>> byShortName = new HashMap<String, Map<String, Object>>();
+        Map<String, Map<String, Object>> bySymbolicName = new HashMap<String, Map<String, Object>>();
+        try (JsonParser parser = new JsonFactory().createParser(json)) {
+            Object root = readJsonValue(parser, parser.nextToken());
+            if (root instanceof List) {
+                for (Object asset : (List<Object>) root) {
+                    Object info = asset instanceof Map ? ((Map<String, Object>) asset).get("wlpInformation") : null;
+                    if (!(info instanceof Map)) {
+                        continue;
+                    }
+                    Map<String, Object> wlpInformation = (Map<String, Object>) info;
+                    Object shortName = wlpInformation.get("shortName");
+                    if (shortName instanceof String) {
+                        byShortName.put(((String) shortName).toLowerCase(), wlpInformation);
+                    }
+                    for (String symbolicName : getJsonStrings(wlpInformation.get("provideFeature"))) {
+                        bySymbolicName.put(symbolicName, wlpInformation);
+                    }
+                }
+            }
+        }
+
+        Set<String> coordinates = new HashSet<String>();
+        // the JSON maps are shared by reference, hashing their content would walk every entry
+        Set<Map<String, Object>> visited = Collections.newSetFromMap(new IdentityHashMap<Map<String, Object>, Boolean>());
+        List<Map<String, Object>> toVisit = new ArrayList<Map<String, Object>>();
+        for (String feature : features) {
+            Map<String, Object> wlpInformation = byShortName.get(feature.toLowerCase());
+            if (wlpInformation != null) {
+                toVisit.add(wlpInformation);
+            }
+        }
+        while (!toVisit.isEmpty()) {
+            Map<String, Object> wlpInformation = toVisit.remove(toVisit.size() - 1);
+            if (!visited.add(wlpInformation)) {
+                continue;
+            }
+            Object mavenCoordinates = wlpInformation.get("mavenCoordinates");
+            if (mavenCoordinates instanceof String) {
+                coordinates.add((String) mavenCoordinates);
+            }
+            List<String> required = new ArrayList<String>(getJsonStrings(wlpInformation.get("requireFeature")));
+            Object withTolerates = wlpInformation.get("requireFeatureWithTolerates");
+            if (withTolerates instanceof List) {
+                for (Object requirement : (List<Object>) withTolerates) {
+                    if (requirement instanceof Map && ((Map<String, Object>) requirement).get("feature") instanceof String) {
+                        required.add((String) ((Map<String, Object>) requirement).get("feature"));
+                    }
+                }
+            }
+            for (String symbolicName : required) {
+                Map<String, Object> requiredInformation = bySymbolicName.get(symbolicName);
+                if (requiredInformation != null) {
+                    toVisit.add(requiredInformation);
+                }
+            }
+        }
+        return coordinates;
+    }
+
+    private static List<String> getJsonStrings(Object value) {
+        List<String> strings = new ArrayList<String>();
+        if (value instanceof List) {
+            for (Object item : (List<?>) value) {
+                if (item instanceof String) {
+                    strings.add((String) item);
+                }
+            }
+        }
+        return strings;
+    }
+
+    private static Object readJsonValue(JsonParser parser, JsonToken token) throws IOException {
+        if (token == null) {
+            return null;
+        }
+        switch (token) {
+        case START_OBJECT:
+            Map<String, Object> object = new HashMap<String, Object>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                object.put(name, readJsonValue(parser, parser.nextToken()));
+            }
+            return object;
+        case START_ARRAY:
+            List<Object> array = new ArrayList<Object>();
+            JsonToken next;
+            while ((next = parser.nextToken()) != JsonToken.END_ARRAY && next != null) {
+                array.add(readJsonValue(parser, next));
+            }
+            return array;
+        case VALUE_STRING:
+            return parser.getText();
+        default:
+            // numbers, booleans and nulls are not needed
+            return null;
+        }
+    }
+
     // Return true if feature conflict code is detected in the exception message
     private boolean isFeatureConflict(String exceptionMessage) {
         Matcher m = conflictPattern.matcher(exceptionMessage);
@@ -1316,10 +1803,24 @@ public abstract class InstallFeatureUtil extends ServerFeatureUtil {
 	    return;
 	}
 	
+	Map<File, String> verificationKeys = getVerificationKeys(artifacts);
+	List<File> artifactsToVerify = new ArrayList<File>();
+	for (File artifact : artifacts) {
+	    String key = verificationKeys.get(artifact);
+	    if (key == null || !verifiedArtifacts.contains(key)) {
+		artifactsToVerify.add(artifact);
+	    }
+	}
+	if (artifactsToVerify.isEmpty()) {
+	    info("Skipping feature verification since the signatures of all features were previously verified");
+	    return;
+	}
+	debug("Previously verified features: " + (artifacts.size() - artifactsToVerify.size()) + ", features to verify: " + artifactsToVerify);
+	
 	downloadPublicKeys();
 	
 	info("Verifying features");
-	mapBasedInstallKernel.put("action.verify", artifacts.stream().collect(Collectors.toList()));
+	mapBasedInstallKernel.put("action.verify", artifactsToVerify);
 	mapBasedInstallKernel.get("action.result");
 	if (mapBasedInstallKernel.get("action.error.message") != null) {
 	    // error with installation
@@ -1328,7 +1829,137 @@ public abstract class InstallFeatureUtil extends ServerFeatureUtil {
 	    }
 	    throw new PluginExecutionException((String) mapBasedInstallKernel.get("action.error.message"));
 	}
+	
+	// with the warn option a failed verification is not an error, so only remember enforced results
+	if (verifyOption == VerifyOption.enforce || verifyOption == VerifyOption.all) {
+	    for (File artifact : artifactsToVerify) {
+		String key = verificationKeys.get(artifact);
+		if (key != null) {
+		    verifiedArtifacts.add(key);
+		}
+	    }
+	    saveVerifiedArtifacts();
+	}
+    }
+
+    /**
+     * Gets the keys that identify a successful verification of each artifact. A
+     * key combines the SHA-256 hashes of the ESA and its signature file with the
+     * fingerprint of the public keys used, so a changed artifact, signature or
+     * key is verified again. The hashes are computed in parallel.
+     * 
+     * @param artifacts downloaded artifacts
+     * @return map of artifact to its verification key. Artifacts without a
+     *         signature file next to them or that cannot be read are not
+     *         included, and the map is empty if the public keys cannot be
+     *         fingerprinted.
+     */
+    private Map<File, String> getVerificationKeys(Set<File> artifacts) {
+	Map<File, String> result = new ConcurrentHashMap<File, String>();
+	final String optionKey = getPublicKeysFingerprint();
+	if (optionKey == null) {
+	    debug("Could not fingerprint the public keys, so all features will be verified");
+	    return result;
+	}
+	loadVerifiedArtifacts();
+	artifacts.parallelStream().forEach(artifact -> {
+	    File signature = new File(artifact.getPath() + ".asc");
+	    if (!signature.isFile()) {
+		return;
+	    }
+	    try {
+		result.put(artifact, FileUtil.sha256(artifact) + ":" + FileUtil.sha256(signature) + ":" + optionKey);
+	    } catch (IOException e) {
+		debug("Could not compute the hash of " + artifact + " or its signature " + signature, e);
+	    }
+	});
+	return result;
+    }
+
+    /**
+     * Gets a fingerprint of the public keys used for verification. The Liberty key
+     * is part of the runtime, so it is identified by the runtime version. A user key
+     * is identified by the SHA-256 hash of its content when its URL is a local file,
+     * or otherwise by its key id, which the install kernel checks against the
+     * downloaded key.
+     * 
+     * @return the fingerprint, or null if a user key has neither a local file nor
+     *         a key id
+     */
+    String getPublicKeysFingerprint() {
+	StringBuilder fingerprint = new StringBuilder(verifyOption.name()).append(':').append(openLibertyVersion);
+	for (Map<String, String> key : keyMap) {
+	    File keyFile = getLocalPublicKeyFile(key.get(PUBLIC_KEY_URL));
+	    String keyId = key.get(PUBLIC_KEY_ID);
+	    if (keyFile != null) {
+		try {
+		    fingerprint.append(':').append(FileUtil.sha256(keyFile));
+		    continue;
+		} catch (IOException e) {
+		    debug("Could not compute the hash of the public key " + keyFile, e);
+		}
+	    }
+	    if (keyId == null || keyId.trim().isEmpty()) {
+		return null;
+	    }
+	    fingerprint.append(':').append(keyId.trim().toLowerCase());
+	}
+	return FileUtil.sha256(fingerprint.toString());
+    }
+
+    private File getLocalPublicKeyFile(String keyUrl) {
+	if (keyUrl == null) {
+	    return null;
+	}
+	File keyFile;
+	try {
+	    URI uri = new URI(keyUrl.trim());
+	    if (uri.getScheme() == null) {
+		keyFile = new File(keyUrl.trim());
+	    } else if ("file".equalsIgnoreCase(uri.getScheme())) {
+		keyFile = new File(uri);
+	    } else {
+		return null;
+	    }
+	} catch (URISyntaxException | IllegalArgumentException e) {
+	    keyFile = new File(keyUrl.trim());
+	}
+	return keyFile.isFile() ? keyFile : null;
+    }
+
+    private File getVerifiedArtifactsFile() {
+	return buildDirectory == null ? null : new File(buildDirectory, VERIFIED_FEATURES_FILE);
+    }
+
+    private void loadVerifiedArtifacts() {
+	File cacheFile = getVerifiedArtifactsFile();
+	if (cacheFile == null || !cacheFile.isFile()) {
+	    return;
+	}
+	Properties verified = new Properties();
+	try (InputStream input = new FileInputStream(cacheFile)) {
+	    verified.load(input);
+	    verifiedArtifacts.addAll(verified.stringPropertyNames());
+	} catch (IOException e) {
+	    debug("Could not read the verified features file " + cacheFile, e);
+	}
+    }
 
+    private void saveVerifiedArtifacts() {
+	File cacheFile = getVerifiedArtifactsFile();
+	if (cacheFile == null) {
+	    return;
+	}
+	Properties verified = new Properties();
+	for (String key : verifiedArtifacts) {
+	    verified.setProperty(key, "verified");
+	}
+	cacheFile.getParentFile().mkdirs();
+	try (FileOutputStream output = new FileOutputStream(cacheFile)) {
+	    verified.store(output, "Signatures verified by the Liberty install feature task");
+	} catch (IOException e) {
+	    debug("Could not write the verified features file " + cacheFile, e);
+	}
     }
 
 
@@ -1341,7 +1972,7 @@ public abstract class InstallFeatureUtil extends ServerFeatureUtil {
 	info("Downloading public key(s) for signature verification");
 	mapBasedInstallKernel.get("environment.variable.map");
 	mapBasedInstallKernel.put("verify.option", verifyOption.name());
-	mapBasedInstallKernel.put("user.public.keys", keyMap);
+	mapBasedInstallKernel.put("user.public.keys", getCachedPublicKeys());
 	mapBasedInstallKernel.get("download.pubkeys");
 
 	if (mapBasedInstallKernel.get("action.error.message") != null) {
@@ -1351,5 +1982,62 @@ public abstract class InstallFeatureUtil extends ServerFeatureUtil {
 	throw new PluginExecutionException((String) mapBasedInstallKernel.get("action.error.message"));
 	}
     }
-    
+
+    /**
+     * Gets the user keys to pass to the install kernel, with each key at a remote
+     * URL replaced by a copy in the build directory. A copy is named by the hash
+     * of the key id and URL, so a key is downloaded once per build directory
+     * instead of on every install, and the install kernel still checks the copy
+     * against its key id.
+     * 
+     * @return the user keys, unchanged if there is no build directory
+     */
+    Collection<Map<String, String>> getCachedPublicKeys() {
+	if (buildDirectory == null) {
+	    return keyMap;
+	}
+	List<Map<String, String>> result = new ArrayList<Map<String, String>>();
+	for (Map<String, String> key : keyMap) {
+	    String keyUrl = key.get(PUBLIC_KEY_URL);
+	    String keyId = key.get(PUBLIC_KEY_ID);
+	    if (keyUrl == null || keyId == null || keyId.trim().isEmpty() || getLocalPublicKeyFile(keyUrl) != null) {
+		result.add(key);
+		continue;
+	    }
+	    File cachedKey = new File(new File(buildDirectory, PUBLIC_KEYS_DIR),
+		    FileUtil.sha256(keyId.trim().toLowerCase() + "|" + keyUrl.trim()) + ".asc");
+	    try {
+		if (cachedKey.isFile()) {
+		    debug("Using the previously downloaded public key " + cachedKey + " for " + keyUrl);
+		} else {
+		    downloadPublicKey(new URL(keyUrl.trim()), cachedKey);
+		}
+		Map<String, String> localKey = new HashMap<String, String>(key);
+		localKey.put(PUBLIC_KEY_URL, cachedKey.getAbsolutePath());
+		result.add(localKey);
+	    } catch (IOException e) {
+		debug("Could not download the public key " + keyUrl + ", so the install kernel will download it", e);
+		result.add(key);
+	    }
+	}
+	return result;
+    }
+
+    private void downloadPublicKey(URL keyUrl, File target) throws IOException {
+	File parent = target.getParentFile();
+	parent.mkdirs();
+	Path temp = Files.createTempFile(parent.toPath(), target.getName(), ".tmp");
+	try {
+	    URLConnection connection = keyUrl.openConnection();
+	    connection.setConnectTimeout(PUBLIC_KEY_TIMEOUT);
+	    connection.setReadTimeout(PUBLIC_KEY_TIMEOUT);
+	    try (InputStream input = connection.getInputStream()) {
+		Files.copy(input, temp, StandardCopyOption.REPLACE_EXISTING);
+	    }
+	    Files.move(temp, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	} finally {
+	    Files.deleteIfExists(temp);
+	}
+    }
+
 }
@@ -0,0 +1,244 @@
+/**
+ * (C) Copyright IBM Corporation 2026.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openliberty.tools.common.plugins.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.security.AccessController;
+import java.security.PrivilegedActionException;
+import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reuses the class loader of the install map jar across ServerFeatureUtil,
+ * InstallFeatureUtil and PrepareFeatureUtil, so that the jar is not loaded again
+ * by every utility. The install kernel keeps static state about the runtime and
+ * the action it works on, so a class loader is only reused for the same jar,
+ * runtime install directory and parent class loader, and it is only used by one
+ * lease at a time. Projects that work on the same runtime concurrently get
+ * separate class loaders and never share the state of the install kernel.
+ *
+ * A class loader is kept open for reuse after its lease is closed, and it is
+ * closed when the jar changes, when too many unused class loaders are kept, or
+ * when closeAll is called.
+ */
+public class InstallMapLoaderRegistry {
+
+    private static final String INSTALL_MAP_CLASS = "com.ibm.ws.install.map.InstallMap";
+    private static final int MAX_UNUSED_LOADERS = 2;
+
+    // in order of last use
+    private static final List<LoaderEntry> loaders = new ArrayList<LoaderEntry>();
+
+    private static class LoaderEntry {
+        final String key;
+        final String version;
+        final ClassLoader parent;
+        final URLClassLoader loader;
+        Class<Map<String, Object>> installMapClass;
+        boolean leased;
+        boolean retired;
+
+        LoaderEntry(String key, String version, ClassLoader parent, URLClassLoader loader) {
+            this.key = key;
+            this.version = version;
+            this.parent = parent;
+            this.loader = loader;
+        }
+    }
+
+    /**
+     * The exclusive use of an install map class loader. Closing the lease releases
+     * the class loader for reuse.
+     */
+    public static class Lease implements Closeable {
+        private LoaderEntry entry;
+
+        private Lease(LoaderEntry entry) {
+            this.entry = entry;
+        }
+
+        /**
+         * @return the class loader of the install map jar
+         */
+        public ClassLoader getClassLoader() {
+            return getEntry().loader;
+        }
+
+        /**
+         * @return the com.ibm.ws.install.map.InstallMap class, loaded once per class
+         *         loader
+         * @throws PrivilegedActionException if the class cannot be loaded
+         */
+        @SuppressWarnings("unchecked")
+        public Class<Map<String, Object>> getInstallMapClass() throws PrivilegedActionException {
+            final LoaderEntry entry = getEntry();
+            synchronized (entry) {
+                if (entry.installMapClass == null) {
+                    entry.installMapClass = AccessController
+                            .doPrivileged(new PrivilegedExceptionAction<Class<Map<String, Object>>>() {
+                                @Override
+                                public Class<Map<String, Object>> run() throws Exception {
+                                    return (Class<Map<String, Object>>) entry.loader.loadClass(INSTALL_MAP_CLASS);
+                                }
+                            });
+                }
+                return entry.installMapClass;
+            }
+        }
+
+        private LoaderEntry getEntry() {
+            if (entry == null) {
+                throw new IllegalStateException("The install map class loader lease is closed.");
+            }
+            return entry;
+        }
+
+        @Override
+        public void close() {
+            if (entry != null) {
+                release(entry);
+                entry = null;
+            }
+        }
+    }
+
+    /**
+     * Gets a lease on a class loader of the given install map jar for the given
+     * runtime, reusing an unused class loader of the current version of the jar
+     * or creating a new one.
+     *
+     * @param installJarFile   the install map jar
+     * @param installDirectory the install directory of the runtime that the
+     *                         install map works on
+     * @param parent           the parent of the class loader, normally the class
+     *                         loader of the caller
+     * @return the lease, which must be closed when the class loader is no longer
+     *         used
+     * @throws MalformedURLException if the jar location cannot be converted to a
+     *                               URL
+     */
+    public static synchronized Lease acquire(File installJarFile, File installDirectory, ClassLoader parent) throws MalformedURLException {
+        String key = installJarFile.getAbsolutePath() + "|" + getPath(installDirectory);
+        String version = installJarFile.length() + ":" + installJarFile.lastModified();
+        LoaderEntry entry = null;
+        Iterator<LoaderEntry> it = loaders.iterator();
+        while (it.hasNext()) {
+            LoaderEntry candidate = it.next();
+            if (!candidate.key.equals(key)) {
+                continue;
+            }
+            if (!candidate.version.equals(version)) {
+                // the jar was replaced, stop reusing the class loaders of the previous jar
+                it.remove();
+                retire(candidate);
+            } else if (entry == null && !candidate.leased && candidate.parent == parent) {
+                entry = candidate;
+                it.remove();
+            }
+        }
+        if (entry == null) {
+            URLClassLoader loader = new URLClassLoader(new URL[] { installJarFile.toURI().toURL() }, parent);
+            entry = new LoaderEntry(key, version, parent, loader);
+        }
+        entry.leased = true;
+        loaders.add(entry);
+        closeUnusedLoaders(MAX_UNUSED_LOADERS);
+        return new Lease(entry);
+    }
+
+    private static String getPath(File installDirectory) {
+        if (installDirectory == null) {
+            return "";
+        }
+        try {
+            return installDirectory.getCanonicalPath();
+        } catch (IOException e) {
+            return installDirectory.getAbsolutePath();
+        }
+    }
+
+    /**
+     * Closes all the class loaders that are not in use. Class loaders in use are
+     * closed when their last lease is closed.
+     */
+    public static synchronized void closeAll() {
+        for (LoaderEntry entry : loaders) {
+            retire(entry);
+        }
+        loaders.clear();
+    }
+
+    /**
+     * @return the number of install map class loaders that are open
+     */
+    static synchronized int getLoaderCount() {
+        return loaders.size();
+    }
+
+    private static synchronized void release(LoaderEntry entry) {
+        entry.leased = false;
+        if (entry.retired) {
+            closeLoader(entry);
+        } else {
+            closeUnusedLoaders(MAX_UNUSED_LOADERS);
+        }
+    }
+
+    private static void closeUnusedLoaders(int maxUnused) {
+        int unused = 0;
+        for (LoaderEntry entry : loaders) {
+            if (!entry.leased) {
+                unused++;
+            }
+        }
+        // the least recently used class loaders are first
+        int toClose = unused - maxUnused;
+        Iterator<LoaderEntry> it = loaders.iterator();
+        while (toClose > 0 && it.hasNext()) {
+            LoaderEntry entry = it.next();
+            if (!entry.leased) {
+                it.remove();
+                retire(entry);
+                toClose--;
+            }
+        }
+    }
+
+    private static void retire(LoaderEntry entry) {
+        entry.retired = true;
+        if (!entry.leased) {
+            closeLoader(entry);
+        }
+    }
+
+    private static void closeLoader(LoaderEntry entry) {
+        try {
+            entry.loader.close();
+        } catch (IOException e) {
+            // the class loader is no longer used, nothing else can be done
+        }
+    }
+
+}
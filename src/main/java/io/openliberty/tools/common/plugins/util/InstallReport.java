@@ -0,0 +1,247 @@
+/**
+ * (C) Copyright IBM Corporation 2026.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openliberty.tools.common.plugins.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Records the phases of a feature installation, with the wall time, the bytes of
+ * the artifacts returned by downloadArtifact and the artifact cache hits of each
+ * phase, and the install plan: the features to install and the features they
+ * resolved to.
+ *
+ * The phases run one after the other, so the slowest phase is the one on the
+ * critical path to shorten first.
+ */
+public class InstallReport {
+
+    public static final String PHASE_INSTALL_MAP_JAR = "installMapJar";
+    public static final String PHASE_DOWNLOAD_JSONS = "downloadJsons";
+    public static final String PHASE_KERNEL_INIT = "kernelInit";
+    public static final String PHASE_RESOLVE = "resolve";
+    public static final String PHASE_DOWNLOAD_ESAS = "downloadEsas";
+    public static final String PHASE_VERIFY = "verify";
+    public static final String PHASE_INSTALL = "install";
+    public static final String PHASE_CONTAINER_INSTALL = "containerInstall";
+    public static final String PHASE_PRODUCT_INFO_VALIDATE = "productInfoValidate";
+    public static final String PHASE_DELETE_LIBERTYLS = "deleteLibertyLs";
+
+    private final List<Phase> phases = new ArrayList<Phase>();
+    private Phase currentPhase;
+    private boolean dryRun = false;
+    private final List<String> features = new ArrayList<String>();
+    private final List<String> resolvedFeatures = new ArrayList<String>();
+
+    /**
+     * A phase of the installation.
+     */
+    public static class Phase {
+        private final String name;
+        private final long startNanos;
+        private long timeNanos = -1;
+        private long bytesDownloaded;
+        private int cacheHits;
+        private int cacheMisses;
+
+        private Phase(String name) {
+            this.name = name;
+            this.startNanos = System.nanoTime();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the wall time of the phase in milliseconds, or of the time so far
+         *         if the phase did not end
+         */
+        public long getTimeMillis() {
+            long nanos = timeNanos >= 0 ? timeNanos : System.nanoTime() - startNanos;
+            return TimeUnit.NANOSECONDS.toMillis(nanos);
+        }
+
+        /**
+         * @return the total size of the artifacts returned by downloadArtifact in
+         *         this phase, which can include artifacts from the local repository
+         */
+        public long getBytesDownloaded() {
+            return bytesDownloaded;
+        }
+
+        public int getCacheHits() {
+            return cacheHits;
+        }
+
+        public int getCacheMisses() {
+            return cacheMisses;
+        }
+    }
+
+    /**
+     * Starts a phase, ending the current phase.
+     *
+     * @param name the name of the phase
+     */
+    public synchronized void startPhase(String name) {
+        endPhase();
+        currentPhase = new Phase(name);
+        phases.add(currentPhase);
+    }
+
+    /**
+     * Ends the current phase, if any.
+     */
+    public synchronized void endPhase() {
+        if (currentPhase != null) {
+            currentPhase.timeNanos = System.nanoTime() - currentPhase.startNanos;
+            currentPhase = null;
+        }
+    }
+
+    /**
+     * Records an artifact in the current phase.
+     *
+     * @param artifact the artifact file, or null if it was not found
+     * @param cacheHit true if the artifact came from the artifact cache
+     */
+    public synchronized void recordArtifact(File artifact, boolean cacheHit) {
+        if (currentPhase == null) {
+            return;
+        }
+        if (cacheHit) {
+            currentPhase.cacheHits++;
+        } else {
+            currentPhase.cacheMisses++;
+            if (artifact != null && artifact.isFile()) {
+                currentPhase.bytesDownloaded += artifact.length();
+            }
+        }
+    }
+
+    public synchronized void setDryRun(boolean dryRun) {
+        this.dryRun = dryRun;
+    }
+
+    public synchronized void setFeatures(Collection<String> features) {
+        this.features.clear();
+        this.features.addAll(features);
+    }
+
+    public synchronized void setResolvedFeatures(Collection<?> resolvedFeatures) {
+        this.resolvedFeatures.clear();
+        for (Object resolved : resolvedFeatures) {
+            this.resolvedFeatures.add(String.valueOf(resolved));
+        }
+    }
+
+    public synchronized List<Phase> getPhases() {
+        return Collections.unmodifiableList(new ArrayList<Phase>(phases));
+    }
+
+    /**
+     * @return the phase with the longest wall time, or null if no phase ran
+     */
+    public synchronized Phase getSlowestPhase() {
+        Phase slowest = null;
+        for (Phase phase : phases) {
+            if (slowest == null || phase.getTimeMillis() > slowest.getTimeMillis()) {
+                slowest = phase;
+            }
+        }
+        return slowest;
+    }
+
+    /**
+     * Writes the report as JSON to the given file.
+     *
+     * @param reportFile the report file
+     * @throws IOException if the file cannot be written
+     */
+    public void writeJson(File reportFile) throws IOException {
+        File parent = reportFile.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        Files.write(reportFile.toPath(), toJson().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the report as JSON
+     */
+    public synchronized String toJson() {
+        StringWriter out = new StringWriter();
+        try {
+            writeJson(out);
+        } catch (IOException e) {
+            // a StringWriter does not throw IOException
+            throw new IllegalStateException(e);
+        }
+        return out.toString();
+    }
+
+    private void writeJson(Writer out) throws IOException {
+        long totalMillis = 0;
+        try (JsonGenerator json = new JsonFactory().createGenerator(out)) {
+            json.useDefaultPrettyPrinter();
+            json.writeStartObject();
+            json.writeBooleanField("dryRun", dryRun);
+            writeStringArray(json, "features", features);
+            writeStringArray(json, "resolvedFeatures", resolvedFeatures);
+            json.writeArrayFieldStart("phases");
+            for (Phase phase : phases) {
+                totalMillis += phase.getTimeMillis();
+                json.writeStartObject();
+                json.writeStringField("name", phase.getName());
+                json.writeNumberField("timeMs", phase.getTimeMillis());
+                json.writeNumberField("bytesDownloaded", phase.getBytesDownloaded());
+                json.writeNumberField("cacheHits", phase.getCacheHits());
+                json.writeNumberField("cacheMisses", phase.getCacheMisses());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeNumberField("totalTimeMs", totalMillis);
+            Phase slowest = getSlowestPhase();
+            if (slowest != null) {
+                json.writeStringField("slowestPhase", slowest.getName());
+            }
+            json.writeEndObject();
+        }
+    }
+
+    private static void writeStringArray(JsonGenerator json, String name, List<String> values) throws IOException {
+        json.writeArrayFieldStart(name);
+        for (String value : values) {
+            json.writeString(value);
+        }
+        json.writeEndArray();
+    }
+
+}
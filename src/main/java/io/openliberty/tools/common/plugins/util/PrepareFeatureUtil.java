@@ -1,5 +1,5 @@
 /**
- * (C) Copyright IBM Corporation 2021, 2024.
+ * (C) Copyright IBM Corporation 2021, 2026.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,21 +16,25 @@
 package io.openliberty.tools.common.plugins.util;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.MalformedURLException;
-import java.net.URL;
-import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.AccessController;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilder;
@@ -55,9 +59,11 @@ public abstract class PrepareFeatureUtil extends ServerFeatureUtil {
 	private static final String MIN_USER_FEATURE_VERSION = "21.0.0.11";
 	private static final String INSTALL_MAP_PREFIX = "com.ibm.ws.install.map";
 	private static final String JAR_EXT = ".jar";
-
+	private static final String JSON_FINGERPRINT_EXT = ".fingerprint";
+	private static final String[] DEPENDENCY_TAGS = { "groupId", "artifactId", "type", "version" };
 	private File installJarFile;
 	private File jsonFile;
+	private final ArtifactCache artifactCache = new ArtifactCache(null);
 	
 
 	public PrepareFeatureUtil(File installDirectory, String openLibertyVersion)
@@ -83,7 +89,7 @@ public abstract class PrepareFeatureUtil extends ServerFeatureUtil {
 			String groupId = coord[0];
 			String artifactId = coord[1];
 			String version = coord[2];
-			File additionalBOM = downloadArtifact(groupId, artifactId, "pom", version);
+			File additionalBOM = downloadCachedArtifact(groupId, artifactId, "pom", version);
 			esaMap.putAll(populateESAMap(additionalBOM));
 			if(esaMap.isEmpty()) {
 			    warn("The features.json could not be generated due to errors encountered while resolving the feature ESA file specified in feautres-bom file at coordinates " + groupId + ":" +artifactId + ":" +version);
@@ -118,7 +124,16 @@ public abstract class PrepareFeatureUtil extends ServerFeatureUtil {
             String repoLocation = parseRepositoryLocation(additionalBOM, groupId, artifactId, "pom", version);
             String targetJsonFile = createArtifactFilePath(repoLocation, groupId, FEATURES_JSON_ARTIFACT_ID, "json",
                 version);
-            File generatedJson = generateJson(targetJsonFile, esaMap);
+            File generatedJson;
+            File fingerprintFile = new File(targetJsonFile + JSON_FINGERPRINT_EXT);
+            String fingerprint = getJsonFingerprint(esaMap);
+            if (fingerprint != null && new File(targetJsonFile).isFile() && fingerprint.equals(readFingerprint(fingerprintFile))) {
+                debug("The ESA files have not changed since " + targetJsonFile + " was generated. Skipping the features.json generation.");
+                generatedJson = new File(targetJsonFile);
+            } else {
+                generatedJson = generateJson(targetJsonFile, esaMap);
+                writeFingerprint(fingerprintFile, fingerprint);
+            }
             if (generatedJson.exists()) {
                 jsonFile = generatedJson;
                 provideJsonFileDependency(generatedJson, groupId, version);
@@ -132,6 +147,53 @@ public abstract class PrepareFeatureUtil extends ServerFeatureUtil {
 	    }
 	}
 
+	/**
+	 * Computes a fingerprint of the inputs of the generated JSON: the SHA-256 hash
+	 * and groupId of each ESA file and the install map jar that generates it.
+	 * 
+	 * @param esaMap Map of ESA files to their groupIds
+	 * @return the fingerprint, or null if any of the ESA files cannot be read
+	 */
+	private String getJsonFingerprint(Map<File, String> esaMap) {
+	    List<String> entries = esaMap.entrySet().parallelStream().map(entry -> {
+	        try {
+	            return FileUtil.sha256(entry.getKey()) + ":" + entry.getValue();
+	        } catch (IOException e) {
+	            return null;
+	        }
+	    }).collect(Collectors.toList());
+	    if (entries.contains(null)) {
+	        return null;
+	    }
+	    Collections.sort(entries);
+	    entries.add(installJarFile.getName() + ":" + installJarFile.length());
+	    return FileUtil.sha256(String.join("\n", entries));
+	}
+
+	private String readFingerprint(File fingerprintFile) {
+	    if (!fingerprintFile.isFile()) {
+	        return null;
+	    }
+	    try {
+	        return new String(Files.readAllBytes(fingerprintFile.toPath()), StandardCharsets.UTF_8).trim();
+	    } catch (IOException e) {
+	        debug("Could not read " + fingerprintFile, e);
+	        return null;
+	    }
+	}
+
+	private void writeFingerprint(File fingerprintFile, String fingerprint) {
+	    try {
+	        if (fingerprint == null) {
+	            Files.deleteIfExists(fingerprintFile.toPath());
+	        } else {
+	            Files.write(fingerprintFile.toPath(), fingerprint.getBytes(StandardCharsets.UTF_8));
+	        }
+	    } catch (IOException e) {
+	        debug("Could not write " + fingerprintFile, e);
+	    }
+	}
+
 	/**
 	 * Download the Artifacts mentioned within the additionalBOM pom file.
 	 * Required artifact properties are "groupId, artifactId, version and type".
@@ -142,8 +204,7 @@ public abstract class PrepareFeatureUtil extends ServerFeatureUtil {
 	 *                                  artifacts
 	 */
 	private Map<File, String> downloadArtifactsFromBOM(File additionalBOM) throws PluginExecutionException {
-	    Map<File, String> result = new HashMap<File, String>();
-	    ArrayList<String> missing_tags = new ArrayList<>();
+	    final List<String[]> dependencies = new ArrayList<String[]>();
 	    try {
 			DocumentBuilder db = getDocumentBuilder();
 			Document doc = db.parse(additionalBOM);
@@ -152,39 +213,92 @@ public abstract class PrepareFeatureUtil extends ServerFeatureUtil {
             for (int itr = 0; itr < dependencyList.getLength(); itr++) {
                 Node node = dependencyList.item(itr);
                 if (node.getNodeType() == Node.ELEMENT_NODE) {
-                Element eElement = (Element) node;
-                
-                if(eElement.getElementsByTagName("groupId").item(0) == null ) {
-                    missing_tags.add("groupId");
-                }
-                if(eElement.getElementsByTagName("artifactId").item(0) == null ) {
-                    missing_tags.add("artifactId ");
-                }
-                if(eElement.getElementsByTagName("type").item(0) == null ) {
-                    missing_tags.add("type");
-                }
-                if(eElement.getElementsByTagName("version").item(0) == null ) {
-                    missing_tags.add("version");
-                }
-                
-                if(!missing_tags.isEmpty()) {
-                    throw new PluginExecutionException("Error: "+ missing_tags.toString()  + " tag(s) not found in features-bom file " + additionalBOM);
-                }
-                
-                String groupId = eElement.getElementsByTagName("groupId").item(0).getTextContent();
-                String artifactId = eElement.getElementsByTagName("artifactId").item(0).getTextContent();
-                String type = eElement.getElementsByTagName("type").item(0).getTextContent();
-                String version = eElement.getElementsByTagName("version").item(0).getTextContent();
-                
-                File artifactFile = downloadArtifact(groupId, artifactId, type, version);
-                result.put(artifactFile, groupId);
+                    String[] coordinates = getDependencyCoordinates((Element) node);
+                    ArrayList<String> missing_tags = new ArrayList<>();
+                    for (int i = 0; i < DEPENDENCY_TAGS.length; i++) {
+                        if (coordinates[i] == null) {
+                            missing_tags.add(DEPENDENCY_TAGS[i]);
+                        }
+                    }
+                    if(!missing_tags.isEmpty()) {
+                        throw new PluginExecutionException("Error: "+ missing_tags.toString()  + " tag(s) not found in features-bom file " + additionalBOM);
+                    }
+                    dependencies.add(coordinates);
                 }
             }
 		} catch (SAXException | IOException e) {
 		    throw new PluginExecutionException("Cannot read the features-bom file " + additionalBOM.getAbsolutePath() + ". " + e.getMessage());
 		    
 		} 
-		return result;
+	    return downloadDependencies(dependencies);
+	}
+
+	/**
+	 * Gets the groupId, artifactId, type and version of a dependency element by
+	 * looking at its child elements only.
+	 * 
+	 * @param dependency The dependency element
+	 * @return The coordinates in the order of DEPENDENCY_TAGS, with null for any
+	 *         tag that is missing
+	 */
+	private String[] getDependencyCoordinates(Element dependency) {
+	    String[] coordinates = new String[DEPENDENCY_TAGS.length];
+	    for (Node child = dependency.getFirstChild(); child != null; child = child.getNextSibling()) {
+	        if (child.getNodeType() == Node.ELEMENT_NODE) {
+	            for (int i = 0; i < DEPENDENCY_TAGS.length; i++) {
+	                if (coordinates[i] == null && DEPENDENCY_TAGS[i].equals(child.getNodeName())) {
+	                    coordinates[i] = child.getTextContent();
+	                }
+	            }
+	        }
+	    }
+	    return coordinates;
+	}
+
+	/**
+	 * Download the given dependencies concurrently.
+	 * 
+	 * @param dependencies List of groupId, artifactId, type and version arrays
+	 * @return A map of Files to groupIds
+	 * @throws PluginExecutionException if any of the artifacts could not be
+	 *                                  downloaded
+	 */
+	private Map<File, String> downloadDependencies(List<String[]> dependencies) throws PluginExecutionException {
+	    Map<File, String> result = new HashMap<File, String>();
+	    int threads = Math.min(getMaxParallelDownloads(), dependencies.size());
+	    if (threads <= 1) {
+	        for (String[] dependency : dependencies) {
+	            result.put(downloadCachedArtifact(dependency[0], dependency[1], dependency[2], dependency[3]), dependency[0]);
+	        }
+	        return result;
+	    }
+
+	    ExecutorService executor = Executors.newFixedThreadPool(threads);
+	    try {
+	        List<Future<File>> futures = new ArrayList<Future<File>>();
+	        for (final String[] dependency : dependencies) {
+	            futures.add(executor.submit(new Callable<File>() {
+	                @Override
+	                public File call() throws PluginExecutionException {
+	                    return downloadCachedArtifact(dependency[0], dependency[1], dependency[2], dependency[3]);
+	                }
+	            }));
+	        }
+	        for (int i = 0; i < futures.size(); i++) {
+	            result.put(futures.get(i).get(), dependencies.get(i)[0]);
+	        }
+	    } catch (ExecutionException e) {
+	        if (e.getCause() instanceof PluginExecutionException) {
+	            throw (PluginExecutionException) e.getCause();
+	        }
+	        throw new PluginExecutionException(e.getCause());
+	    } catch (InterruptedException e) {
+	        Thread.currentThread().interrupt();
+	        throw new PluginExecutionException("Interrupted while downloading the features-bom dependencies", e);
+	    } finally {
+	        executor.shutdownNow();
+	    }
+	    return result;
 	}
 
 	/**
@@ -250,9 +364,9 @@ public abstract class PrepareFeatureUtil extends ServerFeatureUtil {
 	public File generateJson(String targetJsonFile, Map<File, String> esaFileMap) throws PluginExecutionException {
 		try {
 			Path targetDir = Files.createTempDirectory("generatedJson");
-			URL installJarURL = null;
+			InstallMapLoaderRegistry.Lease installMapLease = null;
 			try {
-				installJarURL = installJarFile.toURI().toURL();
+				installMapLease = InstallMapLoaderRegistry.acquire(installJarFile, installDirectory, this.getClass().getClassLoader());
 			} catch (MalformedURLException e) {
 				throw new PluginExecutionException("Could not resolve URL from file " + installJarFile, e);
 			}
@@ -260,9 +374,9 @@ public abstract class PrepareFeatureUtil extends ServerFeatureUtil {
 			File json = null;
 			List<File> esaFileList = new ArrayList<File>();
 			esaFileList.addAll(esaFileMap.keySet());
-			try (final URLClassLoader loader = new URLClassLoader(new URL[] { installJarURL },
-					getClass().getClassLoader())) {
-				mapBasedInstallKernel = createMapBasedInstallKernelInstance(loader, installDirectory);
+			// the class loader is reused by later uses of the same install map jar and runtime in this JVM
+			try (InstallMapLoaderRegistry.Lease lease = installMapLease) {
+				mapBasedInstallKernel = createMapBasedInstallKernelInstance(lease.getInstallMapClass(), installDirectory);
 				mapBasedInstallKernel.put("individual.esas", esaFileList);
 				mapBasedInstallKernel.put("target.json.dir", targetDir.toFile());
 				mapBasedInstallKernel.put("generate.json.group.id.map", esaFileMap);
@@ -282,13 +396,7 @@ public abstract class PrepareFeatureUtil extends ServerFeatureUtil {
 			}
 			File targetFile = new File(targetJsonFile);
 			targetFile.getParentFile().mkdirs();
-			try(FileInputStream instream = new FileInputStream(json); FileOutputStream outstream = new FileOutputStream(targetFile)){
-			    byte[] buffer = new byte[1024];
-				int length;
-				while ((length = instream.read(buffer)) > 0) {
-					outstream.write(buffer, 0, length);
-				}
-			}
+			FileUtil.copyFile(json, targetFile);
 			return targetFile;
 		} catch (IOException e) {
 			debug(e);
@@ -308,7 +416,7 @@ public abstract class PrepareFeatureUtil extends ServerFeatureUtil {
 
 	private File downloadOverrideJar(String groupId, String artifactId) {
 		try {
-			return downloadArtifact(groupId, artifactId, "jar", String.format("[%s)",
+			return downloadCachedArtifact(groupId, artifactId, "jar", String.format("[%s)",
 					openLibertyVersion + ", " + InstallFeatureUtil.getNextProductVersion(openLibertyVersion)));
 		} catch (PluginExecutionException e) {
 			debug("Could not find override bundle " + groupId + ":" + artifactId
@@ -317,16 +425,12 @@ public abstract class PrepareFeatureUtil extends ServerFeatureUtil {
 		}
 	}
 
-	private Map<String, Object> createMapBasedInstallKernelInstance(final ClassLoader loader, File installDirectory)
+	private Map<String, Object> createMapBasedInstallKernelInstance(final Class<Map<String, Object>> clazz, File installDirectory)
 			throws PrivilegedActionException, PluginExecutionException {
 		Map<String, Object> mapBasedInstallKernel = AccessController
 				.doPrivileged(new PrivilegedExceptionAction<Map<String, Object>>() {
-					@SuppressWarnings({ "unchecked" })
 					@Override
 					public Map<String, Object> run() throws Exception {
-
-						Class<Map<String, Object>> clazz;
-						clazz = (Class<Map<String, Object>>) loader.loadClass("com.ibm.ws.install.map.InstallMap");
 						return clazz.newInstance();
 					}
 				});
@@ -466,6 +570,33 @@ public abstract class PrepareFeatureUtil extends ServerFeatureUtil {
 	public abstract File downloadArtifact(String groupId, String artifactId, String type, String version)
 			throws PluginExecutionException;
 
+	/**
+	 * Download the artifact from the specified Maven coordinates through the
+	 * artifact cache, so that repeated lookups do not call downloadArtifact.
+	 *
+	 * @param groupId    The group ID
+	 * @param artifactId The artifact ID
+	 * @param type       The type e.g. esa
+	 * @param version    The version or version range
+	 * @return The file corresponding to the downloaded artifact
+	 * @throws PluginExecutionException If the artifact could not be downloaded
+	 */
+	private File downloadCachedArtifact(String groupId, String artifactId, String type, String version)
+			throws PluginExecutionException {
+		return artifactCache.downloadArtifact(groupId, artifactId, type, version, getArtifactRepositories(),
+				this::downloadArtifact);
+	}
+
+	/**
+	 * Get the cache in front of downloadArtifact, such as to set whether the build
+	 * is offline.
+	 *
+	 * @return the artifact cache
+	 */
+	protected ArtifactCache getArtifactCache() {
+		return artifactCache;
+	}
+
 	private DocumentBuilder getDocumentBuilder() throws PluginExecutionException {
 		DocumentBuilder docBuilder;
 
@@ -0,0 +1,202 @@
+/**
+ * (C) Copyright IBM Corporation 2026.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.openliberty.tools.common.plugins.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.Manifest;
+
+/**
+ * Reads the features installed in a Liberty runtime without running the
+ * productInfo command.
+ */
+public class ProductInfoUtil {
+
+    private static final String MANIFEST_EXT = ".mf";
+    private static final String SHORT_NAME_HEADER = "IBM-ShortName";
+    private static final String SYMBOLIC_NAME_HEADER = "Subsystem-SymbolicName";
+    private static final String CONTENT_HEADER = "Subsystem-Content";
+    private static final String FEATURE_TYPE = "osgi.subsystem.feature";
+    private static final String USER_PREFIX = "usr:";
+
+    /**
+     * The features installed in a runtime, by the manifests in lib/features.
+     */
+    private static class InstalledFeatures {
+        // lower case short name to lower case symbolic name
+        final Map<String, String> symbolicNames = new HashMap<String, String>();
+        // lower case symbolic name to its feature dependencies, each a list of acceptable symbolic names
+        final Map<String, List<List<String>>> dependencies = new HashMap<String, List<List<String>>>();
+    }
+
+    /**
+     * Checks whether the given features and the features they depend on are
+     * installed in the runtime. A feature whose manifest is present can still be
+     * missing the features it depends on, such as after an interrupted install,
+     * so the Subsystem-Content of each manifest is followed, accepting the
+     * versions listed in ibm.tolerates.
+     *
+     * @param installDirectory The directory of the installed runtime
+     * @param userDirectory    The user directory of the runtime, or null for the
+     *                         default usr directory of the installation
+     * @param features         The versioned short names of the features, with the
+     *                         usr: prefix for user features
+     * @return true if all of the features and their dependencies are installed
+     */
+    public static boolean areFeaturesInstalled(File installDirectory, File userDirectory, Collection<String> features) {
+        InstalledFeatures installed = readInstalledFeatures(installDirectory, userDirectory);
+        Set<String> checked = new HashSet<String>();
+        for (String feature : features) {
+            String symbolicName = installed.symbolicNames.get(feature.toLowerCase());
+            if (symbolicName == null || !dependenciesInstalled(installed, symbolicName, checked)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean dependenciesInstalled(InstalledFeatures installed, String symbolicName, Set<String> checked) {
+        if (!checked.add(symbolicName)) {
+            return true;
+        }
+        for (List<String> alternatives : installed.dependencies.get(symbolicName)) {
+            boolean found = false;
+            for (String dependency : alternatives) {
+                if (installed.dependencies.containsKey(dependency)
+                        && dependenciesInstalled(installed, dependency, checked)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static InstalledFeatures readInstalledFeatures(File installDirectory, File userDirectory) {
+        InstalledFeatures installed = new InstalledFeatures();
+        File userDir = userDirectory == null ? new File(installDirectory, "usr") : userDirectory;
+        addInstalledFeatures(new File(installDirectory, "lib/features"), "", installed);
+        addInstalledFeatures(new File(userDir, "extension/lib/features"), USER_PREFIX, installed);
+        return installed;
+    }
+
+    private static void addInstalledFeatures(File featuresDir, String prefix, InstalledFeatures installed) {
+        File[] manifests = featuresDir.listFiles((dir, name) -> name.endsWith(MANIFEST_EXT));
+        if (manifests == null) {
+            return;
+        }
+        for (File manifestFile : manifests) {
+            try (InputStream in = new FileInputStream(manifestFile)) {
+                Attributes attributes = new Manifest(in).getMainAttributes();
+                String symbolicName = getFirstValue(attributes.getValue(SYMBOLIC_NAME_HEADER));
+                if (symbolicName == null) {
+                    continue;
+                }
+                symbolicName = symbolicName.toLowerCase();
+                installed.dependencies.put(symbolicName, getFeatureDependencies(attributes.getValue(CONTENT_HEADER)));
+                String shortName = attributes.getValue(SHORT_NAME_HEADER);
+                if (shortName != null && !shortName.trim().isEmpty()) {
+                    installed.symbolicNames.put(prefix + shortName.trim().toLowerCase(), symbolicName);
+                }
+            } catch (IOException e) {
+                // a manifest that cannot be read does not count as an installed feature
+            }
+        }
+    }
+
+    private static String getFirstValue(String header) {
+        if (header == null) {
+            return null;
+        }
+        String value = split(header, ';').get(0).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static List<List<String>> getFeatureDependencies(String content) {
+        List<List<String>> dependencies = new ArrayList<List<String>>();
+        if (content == null) {
+            return dependencies;
+        }
+        for (String entry : split(content, ',')) {
+            List<String> parts = split(entry, ';');
+            String symbolicName = parts.get(0).trim().toLowerCase();
+            boolean feature = false;
+            List<String> alternatives = new ArrayList<String>();
+            alternatives.add(symbolicName);
+            for (String part : parts.subList(1, parts.size())) {
+                int separator = part.indexOf('=');
+                if (separator < 0) {
+                    continue;
+                }
+                String name = part.substring(0, separator).trim();
+                String value = unquote(part.substring(separator + 1).trim());
+                if (name.equals("type")) {
+                    feature = FEATURE_TYPE.equals(value);
+                } else if (name.equals("ibm.tolerates:")) {
+                    // the tolerated versions replace the version at the end of the symbolic name
+                    String base = symbolicName.substring(0, symbolicName.lastIndexOf('-') + 1);
+                    for (String version : value.split(",")) {
+                        alternatives.add(base + version.trim());
+                    }
+                }
+            }
+            if (feature && !symbolicName.isEmpty()) {
+                dependencies.add(alternatives);
+            }
+        }
+        return dependencies;
+    }
+
+    private static String unquote(String value) {
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+
+    // splits a manifest header, ignoring separators in quoted values
+    private static List<String> split(String value, char separator) {
+        List<String> parts = new ArrayList<String>();
+        boolean quoted = false;
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == separator && !quoted) {
+                parts.add(value.substring(start, i));
+                start = i + 1;
+            }
+        }
+        parts.add(value.substring(start));
+        return parts;
+    }
+
+}
@@ -1,5 +1,5 @@
 /**
- * (C) Copyright IBM Corporation 2019, 2025.
+ * (C) Copyright IBM Corporation 2019, 2026.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,7 +24,6 @@ import java.lang.reflect.InvocationTargetException;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
-import java.net.URLClassLoader;
 import java.security.AccessController;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
@@ -36,8 +35,10 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 
 import javax.xml.XMLConstants;
@@ -67,6 +68,7 @@ public abstract class ServerFeatureUtil extends AbstractContainerSupportUtil imp
     public static final String REPOSITORY_RESOLVER_ARTIFACT_ID = "repository-resolver";
     public static final String INSTALL_MAP_ARTIFACT_ID = "install-map";
     private static final int COPY_FILE_TIMEOUT_MILLIS = 5 * 60 * 1000;
+    private static final int DEFAULT_PARALLEL_DOWNLOADS = 1;
 
     public static final String WLP_INSTALL_DIR = "wlp.install.dir";
     public static final String WLP_USER_DIR = "wlp.user.dir";
@@ -84,9 +86,43 @@ public abstract class ServerFeatureUtil extends AbstractContainerSupportUtil imp
                                             // users, messages are logged as debug instead
   
     protected File installJarFile;
-    private URLClassLoader installMapLoader = null;
+    private InstallMapLoaderRegistry.Lease installMapLease = null;
+    private File installMapLeaseDirectory = null;
     private Class<Map<String, Object>> installMapClass = null;
     protected Map<String, Object> mapBasedInstallKernel= null;
+
+    // parsed server files by canonical file, reused by this utility while the file content is unchanged
+    private final Map<File, ServerFileContent> serverFileCache = new ConcurrentHashMap<File, ServerFileContent>();
+    private static final ThreadLocal<DocumentBuilder> documentBuilders = new ThreadLocal<DocumentBuilder>();
+
+    /**
+     * The featureManager and include elements of a server file, in document order,
+     * and the messages to log when the file is processed.
+     */
+    private static class ServerFileContent {
+        final String hash;
+        final boolean lowerCaseFeatures;
+        final List<Object> nodes = new ArrayList<Object>(); // FeaturesPlatforms or IncludeNode
+        final List<String> warnings = new ArrayList<String>();
+        final List<String> debugMessages = new ArrayList<String>();
+        List<Properties> variables; // only parsed if the file has include elements
+        XPathExpressionException variablesException;
+
+        ServerFileContent(String hash, boolean lowerCaseFeatures) {
+            this.hash = hash;
+            this.lowerCaseFeatures = lowerCaseFeatures;
+        }
+    }
+
+    private static class IncludeNode {
+        final String location;
+        final String onConflict;
+
+        IncludeNode(Element node) {
+            this.location = node.getAttribute("location");
+            this.onConflict = node.getAttribute("onConflict");
+        }
+    }
     
     public static class FeaturesPlatforms {
 
@@ -221,15 +257,23 @@ public abstract class ServerFeatureUtil extends AbstractContainerSupportUtil imp
             warn("The properties for directories are null and could lead to server include files not being processed for server features.");
         }
         Properties bootstrapProperties = getPropertiesFromFile(new File(serverDirectory, "bootstrap.properties"));
-        FeaturesPlatforms result = getConfigDropinsFeatures(null, serverDirectory, bootstrapProperties, "defaults", dropinsFilesToIgnore);
         if (serverXmlFile == null) {
             serverXmlFile = new File(serverDirectory, "server.xml");
         }
+        List<File> defaultsFiles = getConfigDropinsFiles(serverDirectory, "defaults", dropinsFilesToIgnore);
+        List<File> overridesFiles = getConfigDropinsFiles(serverDirectory, "overrides", dropinsFilesToIgnore);
+        List<File> serverFiles = new ArrayList<File>();
+        serverFiles.add(serverXmlFile);
+        serverFiles.addAll(defaultsFiles);
+        serverFiles.addAll(overridesFiles);
+        prefetchServerFiles(serverFiles);
+
+        FeaturesPlatforms result = getConfigDropinsFeatures(null, serverDirectory, bootstrapProperties, defaultsFiles);
 
         // CLK999 Need to also handle server.env and variables in server.xml with default values in addition to bootstrap.properties.
         result = getServerXmlFeatures(result, serverDirectory, serverXmlFile, bootstrapProperties, null);
         // add the overrides at the end since they should not be replaced by any previous content
-        return getConfigDropinsFeatures(result, serverDirectory, bootstrapProperties, "overrides", dropinsFilesToIgnore);
+        return getConfigDropinsFeatures(result, serverDirectory, bootstrapProperties, overridesFiles);
     }
 
     /**
@@ -280,17 +324,37 @@ public abstract class ServerFeatureUtil extends AbstractContainerSupportUtil imp
      * @param origResult           The features that have been parsed so far.
      * @param serverDirectory      The server directory
      * @param bootstrapProperties  Bootstrap proeprties
-     * @param folderName           The folder under configDropins: either "defaults"
-     *                             or "overrides"
-     * @param dropinsFilesToIgnore A set of file names under the given folderName
-     *                             that should be ignored
+     * @param configDropinsXmls    The XML files of the directory, in the order
+     *                             returned by getConfigDropinsFiles
      * @return The FeaturesPlatforms containing both features and platforms to install, or empty set if the cumulatively
      *         parsed xml files only have featureManager sections but no features to
      *         install, or null if there are no valid xml files or they have no
      *         featureManager section
      */
-    private FeaturesPlatforms getConfigDropinsFeatures(FeaturesPlatforms origResult, File serverDirectory, Properties bootstrapProperties, String folderName, final Set<String> dropinsFilesToIgnore) {
+    private FeaturesPlatforms getConfigDropinsFeatures(FeaturesPlatforms origResult, File serverDirectory, Properties bootstrapProperties, List<File> configDropinsXmls) {
     	FeaturesPlatforms result = origResult;
+        for (File xml : configDropinsXmls) {
+        	FeaturesPlatforms fp = getServerXmlFeatures(result, serverDirectory, xml, bootstrapProperties,null);
+            if (fp!=null && (!fp.getFeatures().isEmpty() || !fp.getPlatforms().isEmpty())) {
+                result = fp;
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Gets the XML files in the configDropins's defaults or overrides directory, in
+     * the alphabetical order in which the server applies them.
+     * 
+     * @param serverDirectory      The server directory
+     * @param folderName           The folder under configDropins: either "defaults"
+     *                             or "overrides"
+     * @param dropinsFilesToIgnore A set of file names under the given folderName
+     *                             that should be ignored
+     * @return The sorted list of files, or an empty list if the directory cannot be
+     *         accessed or has no XML files
+     */
+    private List<File> getConfigDropinsFiles(File serverDirectory, String folderName, final Set<String> dropinsFilesToIgnore) {
         File configDropinsFolder;
         try {
             configDropinsFolder = new File(new File(serverDirectory, "configDropins"), folderName).getCanonicalFile();
@@ -298,7 +362,7 @@ public abstract class ServerFeatureUtil extends AbstractContainerSupportUtil imp
             // skip this directory if its path cannot be queried
             warn("The " + serverDirectory + "/configDropins/" + folderName + " directory cannot be accessed. Skipping its server features.");
             debug("Exception received: "+e.getMessage(), e);
-            return result;
+            return Collections.emptyList();
         }
         File[] configDropinsXmls = configDropinsFolder.listFiles(new FilenameFilter() {
             @Override
@@ -307,7 +371,7 @@ public abstract class ServerFeatureUtil extends AbstractContainerSupportUtil imp
             }
         });
         if (configDropinsXmls == null || configDropinsXmls.length == 0) {
-            return result;
+            return Collections.emptyList();
         }
         // sort the files in alphabetical order so that overrides will happen in the proper order
         Comparator<File> comparator = new Comparator<File>() {
@@ -317,16 +381,115 @@ public abstract class ServerFeatureUtil extends AbstractContainerSupportUtil imp
             }
         };
         Collections.sort(Arrays.asList(configDropinsXmls), comparator);
+        return Arrays.asList(configDropinsXmls);
+    }
 
-        for (File xml : configDropinsXmls) {
-        	FeaturesPlatforms fp = getServerXmlFeatures(result, serverDirectory, xml, bootstrapProperties,null);
-            if (fp!=null && (!fp.getFeatures().isEmpty() || !fp.getPlatforms().isEmpty())) {
-                result = fp;
+    /**
+     * Parses the given server files concurrently so that they are cached when the
+     * features are merged in order. Files that cannot be parsed are skipped here and
+     * reported when they are merged.
+     * 
+     * @param serverFiles The server files
+     */
+    private void prefetchServerFiles(List<File> serverFiles) {
+        if (serverFiles.size() < 2) {
+            return;
+        }
+        final boolean lowerCase = lowerCaseFeatures;
+        serverFiles.parallelStream().forEach(file -> {
+            try {
+                File canonicalFile = file.getCanonicalFile();
+                if (canonicalFile.isFile() && canonicalFile.length() > 0) {
+                    getServerFileContent(canonicalFile, lowerCase);
+                }
+            } catch (IOException | ParserConfigurationException | SAXException e) {
+                // reported when the file is merged
+            }
+        });
+    }
+
+    /**
+     * Gets the parsed content of a server file, parsing it if it is not cached or
+     * its content changed since it was cached.
+     * 
+     * @param canonicalServerFile The canonical server file
+     * @param lowerCase           Whether feature names are converted to lower case
+     * @return The parsed content
+     */
+    private ServerFileContent getServerFileContent(File canonicalServerFile, boolean lowerCase)
+            throws IOException, ParserConfigurationException, SAXException {
+        String hash = FileUtil.sha256(canonicalServerFile);
+        ServerFileContent content = serverFileCache.get(canonicalServerFile);
+        if (content != null && content.hash.equals(hash) && content.lowerCaseFeatures == lowerCase) {
+            return content;
+        }
+        content = new ServerFileContent(hash, lowerCase);
+        DocumentBuilder db = getDocumentBuilder();
+        final List<String> debugMessages = content.debugMessages;
+        db.setErrorHandler(new ErrorHandler() {
+            @Override
+            public void warning(SAXParseException e) throws SAXException {
+                debugMessages.add("Exception received: "+e.getMessage());
+            }
+        
+            @Override
+            public void fatalError(SAXParseException e) throws SAXException {
+                throw e;
+            }
+        
+            @Override
+            public void error(SAXParseException e) throws SAXException {
+                throw e;
+            }
+        });
+        Document doc = db.parse(canonicalServerFile);
+        Element root = doc.getDocumentElement();
+        NodeList nodes = root.getChildNodes();
+
+        for (int i = 0; i < nodes.getLength(); i++) {
+            if (nodes.item(i) instanceof Element) {
+                Element child = (Element) nodes.item(i);
+                if ("featureManager".equals(child.getNodeName())) {
+                    content.nodes.add(parseFeatureManagerNode(child, lowerCase, content));
+                } else if ("include".equals(child.getNodeName())){
+                    content.nodes.add(new IncludeNode(child));
+                }
             }
         }
-        return result;
+        for (Object node : content.nodes) {
+            if (node instanceof IncludeNode) {
+                try {
+                    content.variables = VariableUtility.parseVariables(doc, true, true, true);
+                } catch (XPathExpressionException e) {
+                    content.variablesException = e;
+                }
+                break;
+            }
+        }
+        serverFileCache.put(canonicalServerFile, content);
+        return content;
     }
-    
+
+    private static DocumentBuilder getDocumentBuilder() throws ParserConfigurationException {
+        DocumentBuilder db = documentBuilders.get();
+        if (db == null) {
+            DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+            dbf.setFeature("http://apache.org/xml/features/nonvalidating/load-dtd-grammar", false); 
+            dbf.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+            dbf.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            dbf.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+            dbf.setFeature("http://xml.org/sax/features/external-general-entities", false);
+            dbf.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            dbf.setXIncludeAware(false);
+            dbf.setExpandEntityReferences(false);
+            db = dbf.newDocumentBuilder();
+            documentBuilders.set(db);
+        } else {
+            db.reset();
+        }
+        return db;
+    }
+
     /**
      * Adds features from the given server file into the origResult or a new set
      * if origResult is null.
@@ -367,55 +530,23 @@ public abstract class ServerFeatureUtil extends AbstractContainerSupportUtil imp
             debug("The server file " + canonicalServerFile + " is empty.");
         } else {
             try {
-                DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-                dbf.setFeature("http://apache.org/xml/features/nonvalidating/load-dtd-grammar", false); 
-                dbf.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-                dbf.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
-                dbf.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
-                dbf.setFeature("http://xml.org/sax/features/external-general-entities", false);
-                dbf.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
-                dbf.setXIncludeAware(false);
-                dbf.setExpandEntityReferences(false);
-                DocumentBuilder db = dbf.newDocumentBuilder();
-                db.setErrorHandler(new ErrorHandler() {
-                    @Override
-                    public void warning(SAXParseException e) throws SAXException {
-                        debug("Exception received: "+e.getMessage(), e);
-                    }
-                
-                    @Override
-                    public void fatalError(SAXParseException e) throws SAXException {
-                        throw e;
-                    }
-                
-                    @Override
-                    public void error(SAXParseException e) throws SAXException {
-                        throw e;
-                    }
-                });
-                Document doc = db.parse(canonicalServerFile);
-                Element root = doc.getDocumentElement();
-                NodeList nodes = root.getChildNodes();
-
-                for (int i = 0; i < nodes.getLength(); i++) {
-                    if (nodes.item(i) instanceof Element) {
-                        Element child = (Element) nodes.item(i);
-                        if ("featureManager".equals(child.getNodeName())) {
-                            if (result == null) {
-                                result = new FeaturesPlatforms();
-                            }
-                            FeaturesPlatforms fp = parseFeatureManagerNode(child);
-                            Set<String> featuresToInstall = new HashSet<String>();
-                            Set<String> platformsToInstall = new HashSet<String>();
-                            if (fp != null) {
-                            	featuresToInstall = fp.getFeatures();
-                            	platformsToInstall = fp.getPlatforms();
-                            }
-                            result.getFeatures().addAll(featuresToInstall);
-                            result.getPlatforms().addAll(platformsToInstall);
-                        } else if ("include".equals(child.getNodeName())){
-                            result = parseIncludeNode(result, serverDirectory, canonicalServerFile, bootstrapProperties, child, updatedParsedXmls, doc);
+                ServerFileContent content = getServerFileContent(canonicalServerFile, lowerCaseFeatures);
+                for (String message : content.debugMessages) {
+                    debug(message);
+                }
+                for (String message : content.warnings) {
+                    warn(message);
+                }
+                for (Object node : content.nodes) {
+                    if (node instanceof FeaturesPlatforms) {
+                        if (result == null) {
+                            result = new FeaturesPlatforms();
                         }
+                        FeaturesPlatforms fp = (FeaturesPlatforms) node;
+                        result.getFeatures().addAll(fp.getFeatures());
+                        result.getPlatforms().addAll(fp.getPlatforms());
+                    } else {
+                        result = parseIncludeNode(result, serverDirectory, canonicalServerFile, bootstrapProperties, (IncludeNode) node, updatedParsedXmls, content);
                     }
                 }
             } catch (IOException | ParserConfigurationException | SAXException e) {
@@ -436,7 +567,7 @@ public abstract class ServerFeatureUtil extends AbstractContainerSupportUtil imp
      *            The featureManager node
      * @return FeaturesPlatforms holding both trimmed lowercase feature names and platform names
      */
-    private FeaturesPlatforms parseFeatureManagerNode(Element node) {
+    private static FeaturesPlatforms parseFeatureManagerNode(Element node, boolean lowerCaseFeatures, ServerFileContent serverFile) {
         Set<String> features = new HashSet<String>();
         Set<String> platforms = new HashSet<String>();
         NodeList featureElements = node.getElementsByTagName("feature");
@@ -448,7 +579,7 @@ public abstract class ServerFeatureUtil extends AbstractContainerSupportUtil imp
                 	if (content.contains(":")) {
                 		String[] contentsplit = content.split(":");
                 		if (contentsplit.length > 2) {
-                			debug("The format of feature " + content + " in the server.xml is not valid and its installation will be skipped.");
+                			serverFile.debugMessages.add("The format of feature " + content + " in the server.xml is not valid and its installation will be skipped.");
                 		} else {
                 			features.add(contentsplit[0] + ":" + contentsplit[1].trim().toLowerCase());
                 		}
@@ -460,7 +591,7 @@ public abstract class ServerFeatureUtil extends AbstractContainerSupportUtil imp
                         }
                         // Check for empty feature element, skip it and log warning.
                         if (content.isEmpty()) {
-                            warn("An empty feature was specified in a server configuration file. Ensure that the features are valid.");
+                            serverFile.warnings.add("An empty feature was specified in a server configuration file. Ensure that the features are valid.");
                         } else {
                         	features.add(content);
                         }
@@ -481,7 +612,7 @@ public abstract class ServerFeatureUtil extends AbstractContainerSupportUtil imp
                     }
                     // Check for empty feature element, skip it and log warning.
                     if (content.isEmpty()) {
-                        warn("An empty platform was specified in a server configuration file. Ensure that the platforms are valid.");
+                        serverFile.warnings.add("An empty platform was specified in a server configuration file. Ensure that the platforms are valid.");
                     } else {
                     	platforms.add(content);
                     }
@@ -506,23 +637,24 @@ public abstract class ServerFeatureUtil extends AbstractContainerSupportUtil imp
      * they have no featureManager section
      * @throws IOException
      */
-    private FeaturesPlatforms parseIncludeNode(FeaturesPlatforms origResult, File serverDirectory, File serverFile, Properties bootstrapProperties, Element node,
-                                               List<File> updatedParsedXmls, Document doc) {
+    private FeaturesPlatforms parseIncludeNode(FeaturesPlatforms origResult, File serverDirectory, File serverFile, Properties bootstrapProperties, IncludeNode node,
+                                               List<File> updatedParsedXmls, ServerFileContent serverFileContent) {
     	FeaturesPlatforms result = origResult;
         // Need to handle more variable substitution for include location.
         // currently we are only checking for server.xml, bootstrap.properties and server.env
-        String nodeValue = node.getAttribute("location");
+        String nodeValue = node.location;
         Properties props = new Properties();
         Properties serverEnvProps = getPropertiesFromFile(new File(serverDirectory, "server.env"));
         props.putAll(serverEnvProps);
         props.putAll(bootstrapProperties);
         Properties defaultProps = new Properties();
 
-        try {
-            List<Properties> resultMap = VariableUtility.parseVariables(doc, true, true, true);
+        if (serverFileContent.variables != null) {
+            List<Properties> resultMap = serverFileContent.variables;
             props.putAll(resultMap.get(0));
             defaultProps.putAll(resultMap.get(1));
-        } catch (XPathExpressionException e) {
+        } else if (serverFileContent.variablesException != null) {
+            XPathExpressionException e = serverFileContent.variablesException;
             warn("The server file " + serverFile + " cannot be parsed. Skipping the included features variable resolution for this file");
             debug("Exception received: " + e.getMessage(), e);
         }
@@ -564,10 +696,11 @@ public abstract class ServerFeatureUtil extends AbstractContainerSupportUtil imp
         }
 
         ArrayList<File> includeFiles = parseIncludeFileOrDirectory(includeFileName, includeFile);
+        prefetchServerFiles(includeFiles);
 
         for (File file : includeFiles) {
             if (!updatedParsedXmls.contains(file)) {
-                String onConflict = node.getAttribute("onConflict");
+                String onConflict = node.onConflict;
                 FeaturesPlatforms fp = getServerXmlFeatures(null, serverDirectory, file, bootstrapProperties, updatedParsedXmls);
                 if (fp != null && !fp.getFeatures().isEmpty()) {
                     info("Features were included for file "+ file.toString());
@@ -695,39 +828,68 @@ public abstract class ServerFeatureUtil extends AbstractContainerSupportUtil imp
     }
     
     /**
-     * @return ClassLoader of com.ibm.ws.install.map.jar
+     * Gets a description of the repositories that downloadArtifact resolves
+     * artifacts from, such as their URLs. The artifact cache only reuses the
+     * artifact resolved for a version range with the same repositories. By
+     * default, this is the local Maven repository, which is given by the
+     * maven.repo.local system property or is .m2/repository in the user home.
+     * Override this to also identify the remote repositories.
+     *
+     * @return the repositories, or null if they are not known, in which case
+     *         version ranges are resolved on every call
+     */
+    protected String getArtifactRepositories() {
+        String localRepository = System.getProperty("maven.repo.local");
+        if (localRepository == null) {
+            localRepository = new File(System.getProperty("user.home"), ".m2" + File.separator + "repository").getPath();
+        }
+        return "local:" + new File(localRepository).getAbsolutePath();
+    }
+
+    /**
+     * Gets the maximum number of artifacts to download at the same time, such as
+     * features-bom dependencies or prefetched features. The default is 1, since
+     * the Maven and Gradle resolvers behind downloadArtifact are not thread-safe.
+     * Override this to download concurrently once downloadArtifact can be called
+     * from multiple threads.
+     * 
+     * @return the maximum number of concurrent downloads
+     */
+    protected int getMaxParallelDownloads() {
+        return DEFAULT_PARALLEL_DOWNLOADS;
+    }
+
+    /**
+     * @param installDirectory the install directory of the runtime
+     * @return lease on the ClassLoader of com.ibm.ws.install.map.jar, reused by later uses of the runtime
      * @throws MalformedURLException
      * @throws PluginExecutionException
      */
-    private ClassLoader getInstallMapClassLoader() throws MalformedURLException, PluginExecutionException {
+    private InstallMapLoaderRegistry.Lease getInstallMapLease(File installDirectory) throws MalformedURLException, PluginExecutionException {
         if (installJarFile == null) {
             throw new PluginExecutionException("Install map jar not found.");
         }
         
-        if (installMapLoader == null) {
-            ClassLoader cl = this.getClass().getClassLoader();
-            installMapLoader = new URLClassLoader(new URL[] { installJarFile.toURI().toURL() }, cl);
+        if (installMapLease != null && !Objects.equals(installMapLeaseDirectory, installDirectory)) {
+            releaseInstallMap();
+        }
+        if (installMapLease == null) {
+            installMapLease = InstallMapLoaderRegistry.acquire(installJarFile, installDirectory, this.getClass().getClassLoader());
+            installMapLeaseDirectory = installDirectory;
         }
-        return installMapLoader;
+        return installMapLease;
     }
 
     /**
+     * @param installDirectory the install directory of the runtime
      * @return com.ibm.ws.install.map.InstallMap.class
      * @throws MalformedURLException
      * @throws PrivilegedActionException
      * @throws PluginExecutionException
      */
-    private Class<Map<String, Object>> getInstallMapClass() throws MalformedURLException, PrivilegedActionException, PluginExecutionException {
-        if (installMapClass == null) {
-            final ClassLoader cl = getInstallMapClassLoader();
-            installMapClass = AccessController.doPrivileged(new PrivilegedExceptionAction <Class<Map<String, Object>>>() {
-                @SuppressWarnings({ "unchecked" })
-                @Override
-                public Class<Map<String, Object>> run() throws Exception {
-                    installMapClass = (Class<Map<String, Object>>) cl.loadClass("com.ibm.ws.install.map.InstallMap");
-                    return installMapClass;
-                }
-            });
+    private Class<Map<String, Object>> getInstallMapClass(File installDirectory) throws MalformedURLException, PrivilegedActionException, PluginExecutionException {
+        if (installMapClass == null || !Objects.equals(installMapLeaseDirectory, installDirectory)) {
+            installMapClass = getInstallMapLease(installDirectory).getInstallMapClass();
         }
         
         if (installMapClass == null){
@@ -737,6 +899,22 @@ public abstract class ServerFeatureUtil extends AbstractContainerSupportUtil imp
         return installMapClass;
     }
 
+    /**
+     * Releases the shared class loader of the install map jar. The next use of the
+     * install map creates a new install map instance. Callers of
+     * createMapBasedInstallKernelInstance must call this in a finally block once
+     * they no longer use the install map.
+     */
+    public void releaseInstallMap() {
+        mapBasedInstallKernel = null;
+        installMapClass = null;
+        installMapLeaseDirectory = null;
+        if (installMapLease != null) {
+            installMapLease.close();
+            installMapLease = null;
+        }
+    }
+
     /**
      * @return creates a new instance of com.ibm.ws.install.map.InstallMap.class
      * @throws MalformedURLException
@@ -744,10 +922,10 @@ public abstract class ServerFeatureUtil extends AbstractContainerSupportUtil imp
      * @throws SecurityException
      * @throws PrivilegedActionException
      */
-    private Map<String, Object> getInstallMapObject()
+    private Map<String, Object> getInstallMapObject(File installDirectory)
 	    throws MalformedURLException, PluginExecutionException, SecurityException, PrivilegedActionException {
-	if (mapBasedInstallKernel == null) {
-	    Class<Map<String, Object>> clazz = getInstallMapClass();
+	if (mapBasedInstallKernel == null || !Objects.equals(installMapLeaseDirectory, installDirectory)) {
+	    Class<Map<String, Object>> clazz = getInstallMapClass(installDirectory);
 	    try {
 		mapBasedInstallKernel = (Map<String, Object>) clazz.getDeclaredConstructor().newInstance();
 	    } catch (InstantiationException | IllegalAccessException | IllegalArgumentException
@@ -765,6 +943,8 @@ public abstract class ServerFeatureUtil extends AbstractContainerSupportUtil imp
     
     /**
      * This creates a Install map and initializes basic information such as installDir, usrDir, logging level, etc.   
+     * The install map holds a lease on the shared install map class loader, so callers must call
+     * releaseInstallMap in a finally block once they no longer use it.
      * @param jars to override
      * @param installDirectory
      * @return Map<String, Object> of Install map
@@ -774,7 +954,7 @@ public abstract class ServerFeatureUtil extends AbstractContainerSupportUtil imp
      */
     protected Map<String, Object> createMapBasedInstallKernelInstance(String bundle, File installDirectory)
             throws PrivilegedActionException, PluginExecutionException, MalformedURLException {
-	    mapBasedInstallKernel = getInstallMapObject();
+	    mapBasedInstallKernel = getInstallMapObject(installDirectory);
 
         // Init
         if (bundle != null) {
@@ -1,5 +1,5 @@
 /**
- * (C) Copyright IBM Corporation 2023, 2025
+ * (C) Copyright IBM Corporation 2023, 2026.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,19 +21,20 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import io.openliberty.tools.common.CommonLoggerI;
+import io.openliberty.tools.common.plugins.config.VariableStore;
 import org.w3c.dom.Document;
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
-import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
 
-import static io.openliberty.tools.common.plugins.config.ServerConfigDocument.XPATH_SERVER_VARIABLE;
+import static io.openliberty.tools.common.plugins.config.ServerConfigDocument.XPATH_SERVER_VARIABLE_EXPRESSION;
 
 public class VariableUtility {
     private static final String VARIABLE_NAME_PATTERN = "\\$\\{(.*?)\\}";
@@ -48,6 +49,20 @@ public class VariableUtility {
      */
     public static String resolveVariables(CommonLoggerI log, String nodeValue, Collection<String> variableChain,
                                             Properties props, Properties defaultProps, Map<String, File> libDirPropFiles) {
+        return resolveVariables(log, nodeValue, variableChain, lookup(props), lookup(defaultProps), libDirPropFiles);
+    }
+
+    /**
+     * Same as {@link #resolveVariables(CommonLoggerI, String, Collection, Properties, Properties, Map)},
+     * but only reads the lazy variables of the stores that are referenced.
+     */
+    public static String resolveVariables(CommonLoggerI log, String nodeValue, Collection<String> variableChain,
+                                            VariableStore props, VariableStore defaultProps, Map<String, File> libDirPropFiles) {
+        return resolveVariables(log, nodeValue, variableChain, lookup(props), lookup(defaultProps), libDirPropFiles);
+    }
+
+    private static String resolveVariables(CommonLoggerI log, String nodeValue, Collection<String> variableChain,
+                                            Function<String, String> props, Function<String, String> defaultProps, Map<String, File> libDirPropFiles) {
 
         // For Windows, avoid escaping the backslashes in the resolvedValue by changing to forward slashes
         String resolved = nodeValue.replace("\\","/");
@@ -103,6 +118,14 @@ public class VariableUtility {
     // TODO: Integer value properties can be evaluated if 'simple' arithemetic
     // TODO: A list of ports can be defined using keyword 'list', e.g. list(httpPort) -> 89,9889 versus literal '89,9889'
     public static String getPropertyValue(String propertyName, Properties prop, Properties defaultProps, Map<String, File> libertyDirPropFiles) {
+        return getPropertyValue(propertyName, lookup(prop), lookup(defaultProps), libertyDirPropFiles);
+    }
+
+    public static String getPropertyValue(String propertyName, VariableStore prop, VariableStore defaultProps, Map<String, File> libertyDirPropFiles) {
+        return getPropertyValue(propertyName, lookup(prop), lookup(defaultProps), libertyDirPropFiles);
+    }
+
+    private static String getPropertyValue(String propertyName, Function<String, String> prop, Function<String, String> defaultProps, Map<String, File> libertyDirPropFiles) {
         String value = null;
         if (libertyDirPropFiles.containsKey(propertyName)) {
             return stripQuotes(libertyDirPropFiles.get(propertyName).toString());
@@ -148,14 +171,21 @@ public class VariableUtility {
         return value;
     }
 
-    private static String lookupProperty(Properties prop, Properties defaultProps, String propertyName) {
-        if (prop.containsKey(propertyName)) {
-            return stripQuotes(prop.getProperty(propertyName));
-        }
-        if (defaultProps.containsKey(propertyName)) {
-            return stripQuotes(defaultProps.getProperty(propertyName));
+    private static String lookupProperty(Function<String, String> prop, Function<String, String> defaultProps, String propertyName) {
+        String value = prop.apply(propertyName);
+        if (value != null) {
+            return stripQuotes(value);
         }
-        return null;
+        return stripQuotes(defaultProps.apply(propertyName));
+    }
+
+    // looks up the value of a variable that is defined, or returns null
+    private static Function<String, String> lookup(Properties props) {
+        return name -> props.containsKey(name) ? props.getProperty(name) : null;
+    }
+
+    private static Function<String, String> lookup(VariableStore props) {
+        return props::getProperty;
     }
 
     /**
@@ -169,7 +199,7 @@ public class VariableUtility {
      */
     public static List<Properties> parseVariables(Document doc, boolean defaultValues, boolean values, boolean both) throws XPathExpressionException {
         // parse input document
-        NodeList nodeList = (NodeList) XPATH_SERVER_VARIABLE.evaluate(doc, XPathConstants.NODESET);
+        NodeList nodeList = XPathCache.evaluateNodeSet(XPATH_SERVER_VARIABLE_EXPRESSION, doc);
         Properties props = new Properties();
         Properties defaultProps = new Properties();
 
@@ -0,0 +1,94 @@
+/**
+ * (C) Copyright IBM Corporation 2026.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openliberty.tools.common.plugins.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.namespace.QName;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * Evaluates XPath expressions from any thread.
+ *
+ * XPath and XPathExpression objects are not thread safe, so each thread compiles
+ * an expression once and reuses it for later evaluations on that thread. Readers
+ * of the server configuration can then parse documents concurrently without
+ * sharing compiled expressions or compiling them on every call.
+ */
+public class XPathCache {
+
+    private static final ThreadLocal<Map<String, XPathExpression>> expressions = new ThreadLocal<Map<String, XPathExpression>>() {
+        @Override
+        protected Map<String, XPathExpression> initialValue() {
+            return new HashMap<String, XPathExpression>();
+        }
+    };
+
+    private static final ThreadLocal<XPath> xPaths = new ThreadLocal<XPath>() {
+        @Override
+        protected XPath initialValue() {
+            return XPathFactory.newInstance().newXPath();
+        }
+    };
+
+    private XPathCache() {
+    }
+
+    /**
+     * Gets the compiled expression for the current thread. The returned expression
+     * must not be shared with other threads.
+     *
+     * @param expression the XPath expression
+     * @return the compiled expression
+     * @throws XPathExpressionException if the expression cannot be compiled
+     */
+    public static XPathExpression compile(String expression) throws XPathExpressionException {
+        Map<String, XPathExpression> compiled = expressions.get();
+        XPathExpression xPathExpression = compiled.get(expression);
+        if (xPathExpression == null) {
+            xPathExpression = xPaths.get().compile(expression);
+            compiled.put(expression, xPathExpression);
+        }
+        return xPathExpression;
+    }
+
+    /**
+     * @param expression the XPath expression
+     * @param item       the node or document to evaluate the expression on
+     * @param returnType one of the XPathConstants types
+     * @return the result of the expression
+     * @throws XPathExpressionException if the expression cannot be compiled or evaluated
+     */
+    public static Object evaluate(String expression, Object item, QName returnType) throws XPathExpressionException {
+        return compile(expression).evaluate(item, returnType);
+    }
+
+    public static NodeList evaluateNodeSet(String expression, Object item) throws XPathExpressionException {
+        return (NodeList) evaluate(expression, item, XPathConstants.NODESET);
+    }
+
+    public static Node evaluateNode(String expression, Object item) throws XPathExpressionException {
+        return (Node) evaluate(expression, item, XPathConstants.NODE);
+    }
+}
@@ -1,5 +1,5 @@
 /**
- * (C) Copyright IBM Corporation 2017, 2020.
+ * (C) Copyright IBM Corporation 2017, 2026.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,19 +15,28 @@
  */
 package io.openliberty.tools.common.arquillian.util;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Properties;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.xml.sax.SAXParseException;
 
 import io.openliberty.tools.common.arquillian.util.ArquillianConfigurationException;
 import io.openliberty.tools.common.arquillian.util.HttpPortUtil;
 
 public class HttpPortUtilTest {
+
+	@Rule
+	public TemporaryFolder temp = new TemporaryFolder();
 	
 	private static final String SERVER_XML_BEGIN = 
 			"<!-- Copyright (c) 2015 IBM Corp. Licensed under the Apache License, Version " +
@@ -162,4 +171,65 @@ public class HttpPortUtilTest {
 		HttpPortUtil.getHttpPortForServerXML(SERVER_XML_BEGIN, null, null);
 	}
 
+	private File write(File dir, String name, String content) throws Exception {
+		File file = new File(dir, name);
+		file.getParentFile().mkdirs();
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	@Test
+	public void testHttpPortSetFromInclude() throws Exception {
+		File serverDir = temp.newFolder("defaultServer");
+		File serverXML = write(serverDir, "server.xml", SERVER_XML_BEGIN
+				+ "<include location=\"${server.config.dir}/${includeDir}/ports.xml\"/>" + SERVER_XML_END);
+		write(serverDir, "includes/ports.xml", "<server>" + INTEGER_PORTS + "</server>");
+		File bootstrapProperties = write(serverDir, "bootstrap.properties", "includeDir=includes");
+		assertEquals(9081, HttpPortUtil.getHttpPort(serverXML, bootstrapProperties, null).intValue());
+	}
+
+	@Test
+	public void testServerXmlHttpEndpointOverridesInclude() throws Exception {
+		File serverDir = temp.newFolder("defaultServer");
+		write(serverDir, "ports.xml", "<server><httpEndpoint id=\"otherHttpEndpoint\" httpPort=\"9090\"/></server>");
+		File serverXML = write(serverDir, "server.xml", SERVER_XML_BEGIN + "<include location=\"ports.xml\"/>"
+				+ INTEGER_PORTS + SERVER_XML_END);
+		assertEquals(9081, HttpPortUtil.getHttpPort(serverXML, null, null).intValue());
+	}
+
+	@Test
+	public void testHttpPortSetFromVariablesDirectory() throws Exception {
+		File serverDir = temp.newFolder("defaultServer");
+		File serverXML = write(serverDir, "server.xml", SERVER_XML_BEGIN + BOOTSTRAP_PROPERTIES_PORTS + SERVER_XML_END);
+		write(serverDir, "variables/default.http.port", "9085\n");
+		assertEquals(9085, HttpPortUtil.getHttpPort(serverXML, null, null).intValue());
+
+		// the variables directory overrides bootstrap.properties
+		File bootstrapProperties = write(serverDir, "bootstrap.properties", "default.http.port=9082");
+		assertEquals(9085, HttpPortUtil.getHttpPort(serverXML, bootstrapProperties, null).intValue());
+		assertTrue(new File(serverDir, "variables/default.http.port").delete());
+		assertEquals(9082, HttpPortUtil.getHttpPort(serverXML, bootstrapProperties, null).intValue());
+
+		File configVariableXML = write(serverDir, "liberty-plugin-variable-config.xml", CONFIG_VARIABLE_XML);
+		assertEquals(9084, HttpPortUtil.getHttpPort(serverXML, bootstrapProperties, configVariableXML).intValue());
+	}
+
+	@Test
+	public void testMalformedAfterHttpEndpoint() throws Exception {
+		File serverDir = temp.newFolder("defaultServer");
+		File serverXML = write(serverDir, "server.xml", "<?xml version=\"1.0\" encoding=\"UTF-8\"?><server description=\"caf\u00e9\">"
+				+ INTEGER_PORTS + "<unclosed/></server>");
+		assertEquals(9081, HttpPortUtil.getHttpPort(serverXML, null, null).intValue());
+
+		// the content after the httpEndpoint is read too, so a malformed server.xml fails
+		write(serverDir, "server.xml", "<?xml version=\"1.0\" encoding=\"UTF-8\"?><server description=\"caf\u00e9\">"
+				+ INTEGER_PORTS + "<unclosed>");
+		try {
+			HttpPortUtil.getHttpPort(serverXML, null, null);
+			fail("Expected a SAXParseException");
+		} catch (SAXParseException e) {
+			// expected
+		}
+	}
+
 }
@@ -0,0 +1,83 @@
+/**
+ * (C) Copyright IBM Corporation 2026.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openliberty.tools.common.config;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.rules.TemporaryFolder;
+
+import io.openliberty.tools.common.TestLogger;
+import io.openliberty.tools.common.plugins.config.ServerConfigDocument;
+import io.openliberty.tools.common.plugins.util.ServerFeatureUtil;
+
+/**
+ * A server directory with the Liberty directories of a ServerConfigDocument, and a
+ * layer cache shared by the documents that a test creates.
+ */
+public abstract class BaseServerConfigTest {
+
+    private static final String REUSING = "Reusing the unchanged ";
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    protected File serverDir;
+    protected Map<String, File> libertyDirPropMap;
+    protected boolean referencedVariablesOnly = false;
+    protected ServerConfigDocument.LayerCache layerCache;
+
+    /**
+     * Records the layers of the server configuration that are reused.
+     */
+    protected static class ReuseLogger extends TestLogger {
+        final List<String> reusedLayers = new ArrayList<String>();
+
+        @Override
+        public void debug(String msg) {
+            if (msg.startsWith(REUSING)) {
+                reusedLayers.add(msg.substring(REUSING.length(), msg.indexOf(' ', REUSING.length())));
+            }
+        }
+    }
+
+    @Before
+    public void setUpServerDirectory() throws Exception {
+        layerCache = new ServerConfigDocument.LayerCache();
+        serverDir = temp.newFolder("defaultServer");
+        libertyDirPropMap = new HashMap<String, File>();
+        libertyDirPropMap.put(ServerFeatureUtil.SERVER_CONFIG_DIR, serverDir);
+        libertyDirPropMap.put(ServerFeatureUtil.WLP_INSTALL_DIR, temp.newFolder("wlp"));
+        libertyDirPropMap.put(ServerFeatureUtil.WLP_USER_DIR, temp.newFolder("usr"));
+    }
+
+    protected void write(String fileName, String content) throws Exception {
+        File file = new File(serverDir, fileName);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    protected ServerConfigDocument createDocument(TestLogger log) throws Exception {
+        return new ServerConfigDocument(log, null, libertyDirPropMap, referencedVariablesOnly, layerCache);
+    }
+}
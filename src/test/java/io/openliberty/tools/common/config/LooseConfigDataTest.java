@@ -0,0 +1,132 @@
+/**
+ * (C) Copyright IBM Corporation 2026.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openliberty.tools.common.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.w3c.dom.Element;
+
+import io.openliberty.tools.common.plugins.config.LooseConfigChanges;
+import io.openliberty.tools.common.plugins.config.LooseConfigData;
+import io.openliberty.tools.common.plugins.config.ServerConfigXmlDocument;
+
+public class LooseConfigDataTest {
+
+    private static final String NL = System.getProperty("line.separator");
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testWriteIndented() throws Exception {
+        File classes = temp.newFolder("classes");
+        LooseConfigData config = new LooseConfigData();
+        Element archive = config.addArchive("/WEB-INF/lib/lib.jar");
+        config.addDir(archive, classes, "/");
+        config.addArchive("/WEB-INF/lib/empty.jar");
+
+        File xml = new File(temp.getRoot(), "apps/app.war.xml");
+        config.toXmlFile(xml);
+        String expected = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + NL
+                + "<archive>" + NL
+                + "    <archive targetInArchive=\"/WEB-INF/lib/lib.jar\">" + NL
+                + "        <dir sourceOnDisk=\"" + classes.getCanonicalPath() + "\" targetInArchive=\"/\"/>" + NL
+                + "    </archive>" + NL
+                + "    <archive targetInArchive=\"/WEB-INF/lib/empty.jar\"/>" + NL
+                + "</archive>" + NL;
+        assertEquals(expected, new String(Files.readAllBytes(xml.toPath()), StandardCharsets.UTF_8));
+        assertEquals(1, xml.getParentFile().list().length);
+    }
+
+    @Test
+    public void testUnchangedDocumentNotRewritten() throws Exception {
+        LooseConfigData config = new LooseConfigData();
+        config.addArchive("/WEB-INF/lib/lib.jar");
+        File xml = new File(temp.getRoot(), "app.war.xml");
+        assertTrue(config.writeXMLDocumentIfChanged(xml));
+        assertTrue(xml.setLastModified(1000000000000L));
+
+        LooseConfigData same = new LooseConfigData();
+        same.addArchive("/WEB-INF/lib/lib.jar");
+        assertFalse(same.writeXMLDocumentIfChanged(xml));
+        assertEquals(1000000000000L, xml.lastModified());
+
+        same.addArchive("/WEB-INF/lib/other.jar");
+        assertTrue(same.writeXMLDocumentIfChanged(xml));
+        assertTrue(new String(Files.readAllBytes(xml.toPath()), StandardCharsets.UTF_8).contains("other.jar"));
+        assertEquals(1, temp.getRoot().list().length);
+    }
+
+    @Test
+    public void testIndentationKept() throws Exception {
+        File serverXml = temp.newFile("server.xml");
+        Files.write(serverXml.toPath(), ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<server>\n  <!-- c&d -->\n"
+                + "  <featureManager>\n    <feature>a</feature>\n  </featureManager>\n</server>\n").getBytes(StandardCharsets.UTF_8));
+        ServerConfigXmlDocument doc = ServerConfigXmlDocument.newInstance(serverXml);
+        doc.createVariableWithValue("name", "a&b", false);
+        doc.writeXMLDocument(serverXml);
+
+        String expected = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>" + NL + "<server>\n  <!-- c&d -->\n"
+                + "  <featureManager>\n    <feature>a</feature>\n  </featureManager>\n"
+                + "<variable name=\"name\" value=\"a&amp;b\"/></server>";
+        assertEquals(expected, new String(Files.readAllBytes(serverXml.toPath()), StandardCharsets.UTF_8));
+    }
+
+    private LooseConfigData createConfig(File lib, File copyDirectory) throws Exception {
+        LooseConfigData config = new LooseConfigData();
+        Element archive = config.addArchive("/WEB-INF/lib/lib.jar");
+        config.addFile(archive, lib, "/META-INF/lib.properties", copyDirectory);
+        return config;
+    }
+
+    @Test
+    public void testCopiedFilesReused() throws Exception {
+        File copyDirectory = temp.newFolder("copies");
+        File lib = temp.newFile("lib.properties");
+        Files.write(lib.toPath(), "a=1".getBytes(StandardCharsets.UTF_8));
+        File xml = new File(temp.getRoot(), "app.war.xml");
+
+        LooseConfigChanges changes = createConfig(lib, copyDirectory).updateXmlFile(xml);
+        assertTrue(changes.isWritten());
+        assertEquals(2, changes.getAdded().size());
+        assertEquals(1, copyDirectory.list().length);
+
+        changes = createConfig(lib, copyDirectory).updateXmlFile(xml);
+        assertFalse(changes.isWritten());
+        assertTrue(changes.getAdded().isEmpty());
+        assertTrue(changes.getRemoved().isEmpty());
+        assertEquals(1, copyDirectory.list().length);
+
+        Files.write(lib.toPath(), "a=2".getBytes(StandardCharsets.UTF_8));
+        changes = createConfig(lib, copyDirectory).updateXmlFile(xml);
+        assertTrue(changes.isWritten());
+        LooseConfigChanges.Entry added = changes.getAdded().iterator().next();
+        assertEquals("file", added.getType());
+        assertEquals("/WEB-INF/lib/lib.jar!/META-INF/lib.properties", added.getTarget());
+        assertEquals("a=2", new String(Files.readAllBytes(new File(added.getSourceOnDisk()).toPath()), StandardCharsets.UTF_8));
+        assertEquals(1, changes.getRemoved().size());
+        assertEquals(2, copyDirectory.list().length);
+    }
+}
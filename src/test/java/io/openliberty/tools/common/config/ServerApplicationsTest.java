@@ -0,0 +1,93 @@
+/**
+ * (C) Copyright IBM Corporation 2026.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openliberty.tools.common.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import io.openliberty.tools.common.TestLogger;
+import io.openliberty.tools.common.plugins.config.ServerApplication;
+import io.openliberty.tools.common.plugins.config.ServerConfigDocument;
+import io.openliberty.tools.common.plugins.util.PluginExecutionException;
+
+public class ServerApplicationsTest extends BaseServerConfigTest {
+
+    @Test
+    public void testApplicationsInConfigurationOrder() throws Exception {
+        write("bootstrap.properties", "appName=first\nunused=${missing}");
+        write("server.xml", "<server>"
+                + "<webApplication location=\"${appName}.war\" name=\"${appName}\"/>"
+                + "<include location=\"apps.xml\"/>"
+                + "<application location=\"${missing}.ear\"/>"
+                + "<enterpriseApplication location=\"${appName}.war\" name=\"\"/>"
+                + "</server>");
+        write("apps.xml", "<server><springBootApplication location=\"boot.jar\" name=\"boot\"/></server>");
+        write("configDropins/overrides/a.xml", "<server><application location=\"override.war\"/></server>");
+
+        ServerConfigDocument doc = createDocument(new TestLogger());
+        List<ServerApplication> applications = doc.getApplications();
+        assertEquals(5, applications.size());
+
+        assertEquals("webApplication", applications.get(0).getType());
+        assertEquals("first.war", applications.get(0).getLocation());
+        assertEquals("first", applications.get(0).getName());
+
+        assertEquals("enterpriseApplication", applications.get(2).getType());
+        assertEquals("first.war", applications.get(2).getLocation());
+        assertNull(applications.get(2).getName());
+
+        ServerApplication springBoot = applications.get(3);
+        assertEquals("springBootApplication", springBoot.getType());
+        assertEquals("boot", springBoot.getName());
+        assertTrue(springBoot.getSourceDocument().endsWith("apps.xml"));
+        assertEquals("boot.jar", doc.getSpringBootAppNodeLocation().get());
+
+        // unresolved locations are kept as configured
+        assertEquals("${missing}.ear", applications.get(1).getLocation());
+        assertEquals("override.war", applications.get(4).getLocation());
+
+        assertEquals(4, doc.getLocations().size());
+        assertTrue(doc.getNames().contains("first"));
+        assertTrue(doc.getNamelessLocations().contains("${missing}.ear"));
+        assertEquals("first", doc.findNameForLocation("first.war"));
+
+        try {
+            applications.clear();
+            fail("The applications should not be modifiable");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testMultipleSpringBootApplications() throws Exception {
+        write("server.xml", "<server><include location=\"apps.xml\"/>"
+                + "<springBootApplication location=\"first.jar\"/></server>");
+        write("apps.xml", "<server><springBootApplication location=\"second.jar\"/></server>");
+        try {
+            createDocument(new TestLogger());
+            fail("Expected multiple springBootApplication elements to fail");
+        } catch (PluginExecutionException e) {
+            assertTrue(e.getMessage().contains("Found multiple springBootApplication elements"));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * (C) Copyright IBM Corporation 2026.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openliberty.tools.common.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.openliberty.tools.common.plugins.config.ServerConfigDocument;
+
+public class ServerConfigDocumentLayersTest extends BaseServerConfigTest {
+
+    @Before
+    public void setUp() throws Exception {
+        write("server.xml", "<server><application location=\"${appName}.war\"/></server>");
+        write("bootstrap.properties", "appName=first");
+    }
+
+    @Test
+    public void testUnchangedLayersReused() throws Exception {
+        ReuseLogger log = new ReuseLogger();
+        ServerConfigDocument doc = createDocument(log);
+        assertEquals(Collections.singleton("first.war"), doc.getLocations());
+        assertTrue(log.reusedLayers.isEmpty());
+
+        log = new ReuseLogger();
+        doc = createDocument(log);
+        assertEquals(Collections.singleton("first.war"), doc.getLocations());
+        assertEquals("first", doc.getProperties().getProperty("appName"));
+        assertEquals(8, log.reusedLayers.size());
+    }
+
+    @Test
+    public void testEvaluatedFromScratchWithoutCache() throws Exception {
+        createDocument(new ReuseLogger());
+
+        ReuseLogger log = new ReuseLogger();
+        ServerConfigDocument doc = new ServerConfigDocument(log, null, libertyDirPropMap);
+        assertEquals(Collections.singleton("first.war"), doc.getLocations());
+        assertTrue(log.reusedLayers.isEmpty());
+    }
+
+    @Test
+    public void testChangedFileReevaluatesDependentLayers() throws Exception {
+        createDocument(new ReuseLogger());
+
+        write("bootstrap.properties", "appName=second");
+        ReuseLogger log = new ReuseLogger();
+        ServerConfigDocument doc = createDocument(log);
+        assertEquals(Collections.singleton("second.war"), doc.getLocations());
+        // only the applications look up appName, so the layers between are reused too
+        assertEquals(Arrays.asList("SERVER_XML_DEFAULTS", "SERVER_ENV", "SYSTEM_PROPERTIES", "VARIABLES_DIRECTORY",
+                "SERVER_XML_VARIABLES", "PREDEFINED_VARIABLES"), log.reusedLayers);
+
+        write("server.xml", "<server><webApplication location=\"${appName}-web.war\"/></server>");
+        log = new ReuseLogger();
+        doc = createDocument(log);
+        assertEquals(Collections.singleton("second-web.war"), doc.getLocations());
+        // the server.xml variables are unchanged, so the predefined variables are reused too
+        assertEquals(Arrays.asList("SERVER_ENV", "BOOTSTRAP_PROPERTIES", "SYSTEM_PROPERTIES", "VARIABLES_DIRECTORY",
+                "PREDEFINED_VARIABLES"), log.reusedLayers);
+    }
+
+    @Test
+    public void testSameSizeEditReevaluatesLayers() throws Exception {
+        // an edit within the modification time granularity keeps the size and the modification time
+        File bootstrap = new File(serverDir, "bootstrap.properties");
+        long lastModified = 1000000000000L;
+        assertTrue(bootstrap.setLastModified(lastModified));
+        createDocument(new ReuseLogger());
+
+        write("bootstrap.properties", "appName=fifth");
+        assertTrue(bootstrap.setLastModified(lastModified));
+        ServerConfigDocument doc = createDocument(new ReuseLogger());
+        assertEquals(Collections.singleton("fifth.war"), doc.getLocations());
+    }
+
+    @Test
+    public void testNewFileReevaluatesDependentLayers() throws Exception {
+        createDocument(new ReuseLogger());
+
+        // files that did not exist are inputs too
+        write("variables/appName", "third");
+        ReuseLogger log = new ReuseLogger();
+        ServerConfigDocument doc = createDocument(log);
+        assertEquals(Collections.singleton("third.war"), doc.getLocations());
+        assertEquals(Arrays.asList("SERVER_XML_DEFAULTS", "SERVER_ENV", "BOOTSTRAP_PROPERTIES", "SYSTEM_PROPERTIES",
+                "SERVER_XML_VARIABLES", "PREDEFINED_VARIABLES"), log.reusedLayers);
+    }
+
+    @Test
+    public void testReferencedVariablesOnlyCachedSeparately() throws Exception {
+        write("variables/secret", "value");
+        createDocument(new ReuseLogger());
+
+        // the layers of a document that reads every variable are not reused by one that does not
+        referencedVariablesOnly = true;
+        ReuseLogger log = new ReuseLogger();
+        ServerConfigDocument doc = createDocument(log);
+        assertTrue(log.reusedLayers.isEmpty());
+        assertNull(doc.getProperties().getProperty("secret"));
+    }
+
+    @Test
+    public void testChangeReachesLayersAfterReusedLayers() throws Exception {
+        referencedVariablesOnly = true;
+        write("server.xml", "<server><application location=\"${appDir}/app.war\"/></server>");
+        write("bootstrap.properties", "unused=true");
+        write("server.env", "appDir=apps");
+        write("variables/secret", "secretApps");
+        ServerConfigDocument doc = createDocument(new ReuseLogger());
+        assertEquals(Collections.singleton("apps/app.war"), doc.getLocations());
+        assertNull(doc.getProperties().getProperty("secret"));
+
+        // server.env now references a variable that is only read from the variables directory
+        // when referenced. The layers in between are reused, but the variables directory must
+        // be read again.
+        write("server.env", "appDir=${secret}");
+        ReuseLogger log = new ReuseLogger();
+        doc = createDocument(log);
+        assertTrue(log.reusedLayers.contains("BOOTSTRAP_PROPERTIES"));
+        assertFalse(log.reusedLayers.contains("VARIABLES_DIRECTORY"));
+        assertEquals("secretApps", doc.getProperties().getProperty("secret"));
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * (C) Copyright IBM Corporation 2026.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openliberty.tools.common.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.openliberty.tools.common.TestLogger;
+import io.openliberty.tools.common.plugins.config.ServerConfigDocument;
+
+public class ServerConfigSnapshotTest extends BaseServerConfigTest {
+
+    private static final String SYSTEM_PROPERTY = "liberty.snapshot.test.secret";
+
+    private File buildDir;
+
+    @Before
+    public void setUp() throws Exception {
+        buildDir = temp.newFolder("build");
+        write("server.xml", "<server><application location=\"${appName}.war\" name=\"app\"/>"
+                + "<httpEndpoint id=\"defaultHttpEndpoint\" httpPort=\"${http.port}\"/></server>");
+        write("bootstrap.properties", "appName=first\nhttp.port=9081");
+        write("variables/secret", "password");
+        layerCache = new ServerConfigDocument.LayerCache(buildDir);
+    }
+
+    @After
+    public void tearDown() {
+        System.clearProperty(SYSTEM_PROPERTY);
+    }
+
+    @Test
+    public void testSnapshotReused() throws Exception {
+        ServerConfigDocument doc = createDocument(new TestLogger());
+        assertEquals(1, buildDir.list().length);
+
+        // a later build starts without the layers in memory
+        layerCache = new ServerConfigDocument.LayerCache(buildDir);
+        ReuseLogger log = new ReuseLogger();
+        ServerConfigDocument snapshotDoc = createDocument(log);
+        // the system properties are not saved, so they are evaluated again
+        assertEquals(7, log.reusedLayers.size());
+        assertFalse(log.reusedLayers.contains("SYSTEM_PROPERTIES"));
+        assertEquals(Collections.singleton("first.war"), snapshotDoc.getLocations());
+        assertEquals("app", snapshotDoc.findNameForLocation("first.war"));
+        assertEquals(doc.getApplications(), snapshotDoc.getApplications());
+        assertEquals(doc.getHttpEndpoints(), snapshotDoc.getHttpEndpoints());
+        assertEquals("password", snapshotDoc.getProperties().getProperty("secret"));
+    }
+
+    @Test
+    public void testNoSnapshotWithoutDirectory() throws Exception {
+        layerCache = new ServerConfigDocument.LayerCache();
+        createDocument(new TestLogger());
+        new ServerConfigDocument(new TestLogger(), null, libertyDirPropMap);
+        assertEquals(0, buildDir.list().length);
+    }
+
+    @Test
+    public void testChangedFileAfterSnapshot() throws Exception {
+        createDocument(new TestLogger());
+
+        layerCache = new ServerConfigDocument.LayerCache(buildDir);
+        write("bootstrap.properties", "appName=second\nhttp.port=9082");
+        ReuseLogger log = new ReuseLogger();
+        ServerConfigDocument doc = createDocument(log);
+        assertEquals(Collections.singleton("second.war"), doc.getLocations());
+        assertEquals(Integer.valueOf(9082), doc.getHttpEndpoint("defaultHttpEndpoint").getHttpPort());
+        assertTrue(log.reusedLayers.size() > 0 && log.reusedLayers.size() < 7);
+    }
+
+    @Test
+    public void testInvalidSnapshotIgnored() throws Exception {
+        createDocument(new TestLogger());
+        File snapshot = buildDir.listFiles()[0];
+        Files.write(snapshot.toPath(), "not a snapshot".getBytes(StandardCharsets.UTF_8));
+
+        layerCache = new ServerConfigDocument.LayerCache(buildDir);
+        ReuseLogger log = new ReuseLogger();
+        ServerConfigDocument doc = createDocument(log);
+        assertTrue(log.reusedLayers.isEmpty());
+        assertEquals(Collections.singleton("first.war"), doc.getLocations());
+        assertTrue(snapshot.length() > 100);
+    }
+
+    @Test
+    public void testEnvironmentNotSaved() throws Exception {
+        System.setProperty(SYSTEM_PROPERTY, "systemSecret");
+        write("server.xml", "<server><application location=\"${" + SYSTEM_PROPERTY + "}.war\"/></server>");
+        ServerConfigDocument doc = createDocument(new TestLogger());
+        assertEquals(Collections.singleton("systemSecret.war"), doc.getLocations());
+        File snapshot = buildDir.listFiles()[0];
+        long lastModified = snapshot.lastModified();
+        // neither the system properties nor the values read from them are saved
+        String content = new String(Files.readAllBytes(snapshot.toPath()), StandardCharsets.ISO_8859_1);
+        assertFalse(content.contains("systemSecret"));
+        assertFalse(content.contains(System.getProperty("java.home")));
+
+        layerCache = new ServerConfigDocument.LayerCache(buildDir);
+        doc = createDocument(new TestLogger());
+        assertEquals("systemSecret", doc.getProperties().getProperty(SYSTEM_PROPERTY));
+        // the system properties are unchanged, so the snapshot is not written again
+        assertEquals(lastModified, snapshot.lastModified());
+
+        layerCache = new ServerConfigDocument.LayerCache(buildDir);
+        System.setProperty(SYSTEM_PROPERTY, "otherSecret");
+        doc = createDocument(new TestLogger());
+        assertEquals(Collections.singleton("otherSecret.war"), doc.getLocations());
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * (C) Copyright IBM Corporation 2026.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openliberty.tools.common.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import io.openliberty.tools.common.TestLogger;
+import io.openliberty.tools.common.arquillian.util.HttpPortUtil;
+import io.openliberty.tools.common.plugins.config.ServerConfigDocument;
+import io.openliberty.tools.common.plugins.config.ServerHttpEndpoint;
+
+public class ServerHttpEndpointsTest extends BaseServerConfigTest {
+
+    @Test
+    public void testEndpointsMergedAcrossFiles() throws Exception {
+        write("server.xml", "<server>"
+                + "<httpEndpoint id=\"adminEndpoint\" httpPort=\"${admin.port}\" httpsPort=\"-1\"/>"
+                + "<include location=\"endpoints.xml\"/>"
+                + "<variable name=\"admin.port\" value=\"9090\"/>"
+                + "</server>");
+        write("endpoints.xml", "<server><httpEndpoint id=\"defaultHttpEndpoint\" host=\"${host.name}\" httpPort=\"${default.http.port}\"/></server>");
+        write("bootstrap.properties", "default.http.port=9081\nhost.name=*");
+        write("configDropins/defaults/ports.xml", "<server><httpEndpoint id=\"defaultHttpEndpoint\" httpPort=\"1\" httpsPort=\"9445\"/></server>");
+        write("configDropins/overrides/ports.xml", "<server><httpEndpoint id=\"adminEndpoint\" httpPort=\"${missing.port}\"/></server>");
+
+        ServerConfigDocument doc = createDocument(new TestLogger());
+        List<ServerHttpEndpoint> endpoints = doc.getHttpEndpoints();
+        assertEquals(2, endpoints.size());
+
+        ServerHttpEndpoint defaultEndpoint = endpoints.get(0);
+        assertEquals(ServerHttpEndpoint.DEFAULT_HTTP_ENDPOINT_ID, defaultEndpoint.getId());
+        assertEquals("*", defaultEndpoint.getHost());
+        assertEquals(Integer.valueOf(9081), defaultEndpoint.getHttpPort());
+        assertEquals(Integer.valueOf(9445), defaultEndpoint.getHttpsPort());
+        assertTrue(defaultEndpoint.getSourceDocument().endsWith("endpoints.xml"));
+
+        ServerHttpEndpoint adminEndpoint = doc.getHttpEndpoint("adminEndpoint");
+        assertEquals(ServerHttpEndpoint.DEFAULT_HOST, adminEndpoint.getHost());
+        assertNull(adminEndpoint.getHttpPort());
+        assertEquals(Integer.valueOf(-1), adminEndpoint.getHttpsPort());
+
+        assertEquals(9081, HttpPortUtil.getHttpPort(doc).intValue());
+    }
+
+    @Test
+    public void testEndpointsReusedWhileUnchanged() throws Exception {
+        write("server.xml", "<server><httpEndpoint httpPort=\"9082\"/></server>");
+
+        ServerConfigDocument doc = createDocument(new TestLogger());
+        ServerHttpEndpoint endpoint = doc.getHttpEndpoints().get(0);
+        assertNull(endpoint.getId());
+        assertEquals(Integer.valueOf(ServerHttpEndpoint.DEFAULT_HTTPS_PORT), endpoint.getHttpsPort());
+        assertEquals(9082, HttpPortUtil.getHttpPort(doc).intValue());
+
+        ServerConfigDocument reused = createDocument(new TestLogger());
+        assertSame(doc.getHttpEndpoints(), reused.getHttpEndpoints());
+    }
+
+    @Test
+    public void testNoEndpoints() throws Exception {
+        write("server.xml", "<server/>");
+        ServerConfigDocument doc = createDocument(new TestLogger());
+        assertTrue(doc.getHttpEndpoints().isEmpty());
+        assertEquals(HttpPortUtil.DEFAULT_PORT, HttpPortUtil.getHttpPort(doc).intValue());
+    }
+}
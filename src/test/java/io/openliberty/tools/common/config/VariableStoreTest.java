@@ -0,0 +1,185 @@
+/**
+ * (C) Copyright IBM Corporation 2026.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openliberty.tools.common.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.openliberty.tools.common.TestLogger;
+import io.openliberty.tools.common.plugins.config.ServerConfigDocument;
+import io.openliberty.tools.common.plugins.config.VariableStore;
+import io.openliberty.tools.common.plugins.util.ServerFeatureUtil;
+
+public class VariableStoreTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private File createFile(String name, String content) throws Exception {
+        File file = new File(temp.getRoot(), name);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    public void testLazyValues() throws Exception {
+        VariableStore store = new VariableStore();
+        store.put("port", "9080");
+        store.putLazy("port", createFile("port", "9443"));
+        store.putLazy("secret", createFile("secret", "password"));
+        store.putLazy("missing", new File(temp.getRoot(), "missing"));
+        assertEquals(3, store.getUnloadedCount());
+        assertTrue(store.containsKey("secret"));
+        assertEquals(2, store.getUnloadedCount());
+
+        assertEquals("9443", store.getProperty("port"));
+        assertEquals(1, store.getUnloadedCount());
+
+        store.put("secret", "other");
+        assertEquals("other", store.getProperty("secret"));
+
+        // a later value replaces a lazy value without reading it
+        store.putLazy("token", createFile("token", "abc"));
+        store.put("token", "def");
+        assertEquals(1, store.getUnloadedCount());
+        assertEquals("def", store.getProperty("token"));
+
+        // iterating reads all values
+        assertEquals(3, store.getValues().size());
+        assertEquals(0, store.getUnloadedCount());
+        assertNull(store.getProperty("missing"));
+    }
+
+    @Test
+    public void testUnreadableFile() throws Exception {
+        final StringBuilder warnings = new StringBuilder();
+        VariableStore store = new VariableStore();
+        store.setLogger(new TestLogger() {
+            @Override
+            public void warn(String msg) {
+                warnings.append(msg);
+            }
+        });
+        store.putLazy("missing", new File(temp.getRoot(), "missing"));
+        // a variable whose file cannot be read is not defined
+        assertFalse(store.containsKey("missing"));
+        assertNull(store.getProperty("missing"));
+        assertTrue(warnings.toString(), warnings.toString().contains("missing"));
+    }
+
+    @Test
+    public void testRemoveDoesNotReadFile() throws Exception {
+        VariableStore store = new VariableStore();
+        File secret = createFile("secret", "password");
+        store.putLazy("secret", secret);
+        assertTrue(secret.delete());
+        // the file is not read, so no warning is logged for it
+        store.setLogger(new TestLogger() {
+            @Override
+            public void warn(String msg) {
+                throw new AssertionError(msg);
+            }
+        });
+        store.remove("secret");
+        assertEquals(0, store.getUnloadedCount());
+        assertFalse(store.containsKey("secret"));
+    }
+
+    @Test
+    public void testFileReadAsUtf8() throws Exception {
+        VariableStore store = new VariableStore();
+        store.putLazy("greeting", createFile("greeting", "gr\u00fc\u00dfe"));
+        assertEquals("gr\u00fc\u00dfe", store.getProperty("greeting"));
+    }
+
+    @Test
+    public void testCopyKeepsLazyValues() throws Exception {
+        VariableStore store = new VariableStore();
+        store.put("port", "9080");
+        store.putLazy("secret", createFile("secret", "password"));
+
+        VariableStore copy = new VariableStore();
+        copy.putAll(store);
+        assertEquals(1, copy.getUnloadedCount());
+        assertEquals(1, store.getUnloadedCount());
+        assertEquals("password", copy.getProperty("secret"));
+        assertEquals(1, store.getUnloadedCount());
+
+        Properties props = store.toProperties();
+        assertEquals("password", props.getProperty("secret"));
+    }
+
+    @Test
+    public void testVariablesDirectoryReadOnReference() throws Exception {
+        File serverDir = temp.newFolder("defaultServer");
+        createFile("defaultServer/server.xml", "<server><application location=\"${appName}.war\"/></server>");
+        createFile("defaultServer/variables/appName", "app");
+        for (int i = 0; i < 10; i++) {
+            createFile("defaultServer/variables/secrets/secret" + i, "password" + i);
+        }
+        Map<String, File> libertyDirPropMap = new HashMap<String, File>();
+        libertyDirPropMap.put(ServerFeatureUtil.SERVER_CONFIG_DIR, serverDir);
+        libertyDirPropMap.put(ServerFeatureUtil.WLP_INSTALL_DIR, temp.newFolder("wlp"));
+        libertyDirPropMap.put(ServerFeatureUtil.WLP_USER_DIR, temp.newFolder("usr"));
+
+        ServerConfigDocument doc = new ServerConfigDocument(new TestLogger(), null, libertyDirPropMap);
+        assertTrue(doc.getLocations().contains("app.war"));
+        VariableStore props = doc.getVariables();
+        assertEquals(10, props.getUnloadedCount());
+        assertEquals("password3", props.getProperty("secrets" + File.separator + "secret3"));
+    }
+
+    @Test
+    public void testReferencedVariablesOnly() throws Exception {
+        File serverDir = temp.newFolder("defaultServer");
+        createFile("defaultServer/server.xml", "<server><include location=\"${includeName}.xml\"/>"
+                + "<application location=\"${appName}.war\"/></server>");
+        createFile("defaultServer/apps.xml", "<server><webApplication location=\"${webAppName}.war\"/></server>");
+        createFile("defaultServer/variables/includeName", "apps");
+        createFile("defaultServer/variables/appName", "app");
+        createFile("defaultServer/variables/webAppName", "${WEB_PREFIX}-web");
+        createFile("defaultServer/variables/WEB_PREFIX", "prefix");
+        createFile("defaultServer/variables/more.properties", "propertyName=value");
+        for (int i = 0; i < 10; i++) {
+            createFile("defaultServer/variables/secrets/secret" + i, "password" + i);
+        }
+        Map<String, File> libertyDirPropMap = new HashMap<String, File>();
+        libertyDirPropMap.put(ServerFeatureUtil.SERVER_CONFIG_DIR, serverDir);
+        libertyDirPropMap.put(ServerFeatureUtil.WLP_INSTALL_DIR, temp.newFolder("wlp"));
+        libertyDirPropMap.put(ServerFeatureUtil.WLP_USER_DIR, temp.newFolder("usr"));
+
+        ServerConfigDocument doc = new ServerConfigDocument(new TestLogger(), null, libertyDirPropMap, true);
+        assertTrue(doc.getLocations().contains("app.war"));
+        assertTrue(doc.getLocations().contains("prefix-web.war"));
+        Properties props = doc.getProperties();
+        assertEquals("value", props.getProperty("propertyName"));
+        assertFalse(props.containsKey("secrets" + File.separator + "secret3"));
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ * (C) Copyright IBM Corporation 2026.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openliberty.tools.common.plugins.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ArtifactCacheTest {
+
+    private static final String RANGE = "[22.0.0.1, 22.0.0.2)";
+    private static final String REPOSITORIES = "https://repo.maven.apache.org/maven2";
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private File cacheFile;
+    private ArtifactCache cache;
+    private File artifact;
+    private int downloads;
+    private boolean found;
+
+    private final ArtifactCache.ArtifactDownloader downloader = new ArtifactCache.ArtifactDownloader() {
+        @Override
+        public File downloadArtifact(String groupId, String artifactId, String type, String version)
+                throws PluginExecutionException {
+            downloads++;
+            if (!found) {
+                throw new PluginExecutionException("Not found: " + artifactId);
+            }
+            return artifact;
+        }
+    };
+
+    @Before
+    public void setUp() throws Exception {
+        cacheFile = new File(temp.getRoot(), "cache/artifact-cache.properties");
+        cache = new ArtifactCache(cacheFile);
+        artifact = temp.newFile("artifact.jar");
+        downloads = 0;
+        found = true;
+    }
+
+    private File download(String version) throws PluginExecutionException {
+        return download(version, REPOSITORIES);
+    }
+
+    private File download(String version, String repositories) throws PluginExecutionException {
+        return cache.downloadArtifact("io.openliberty", "test", "jar", version,
+                repositories, downloader);
+    }
+
+    @Test
+    public void testFixedVersion() throws Exception {
+        assertEquals(artifact, download("22.0.0.1"));
+        assertEquals(artifact, download("22.0.0.1"));
+        assertEquals(1, downloads);
+
+        // the artifact is downloaded again if the cached file was deleted
+        artifact.delete();
+        artifact = temp.newFile("artifact2.jar");
+        assertEquals(artifact, download("22.0.0.1"));
+        assertEquals(2, downloads);
+    }
+
+    @Test
+    public void testRangeTtl() throws Exception {
+        assertEquals(artifact, download(RANGE));
+        assertEquals(artifact, download(RANGE));
+        assertEquals(1, downloads);
+
+        cache.setRangeTtl(-1);
+        assertEquals(artifact, download(RANGE));
+        assertEquals(2, downloads);
+    }
+
+    @Test
+    public void testRangeNotFound() throws Exception {
+        found = false;
+        for (int i = 0; i < 2; i++) {
+            try {
+                download(RANGE);
+                fail("Expected a PluginExecutionException");
+            } catch (PluginExecutionException e) {
+                // expected
+            }
+        }
+        // a failed lookup may be a transient repository failure, so it is not remembered
+        assertEquals(2, downloads);
+
+        found = true;
+        assertEquals(artifact, download(RANGE));
+        assertEquals(3, downloads);
+    }
+
+    @Test
+    public void testSnapshotNotCached() throws Exception {
+        assertEquals(artifact, download("1.0-SNAPSHOT"));
+        assertEquals(artifact, download("1.0-SNAPSHOT"));
+        assertEquals(2, downloads);
+    }
+
+    @Test
+    public void testRangeRepositories() throws Exception {
+        assertEquals(artifact, download(RANGE));
+        assertEquals(artifact, download(RANGE, "https://example.com/maven2"));
+        assertEquals(2, downloads);
+        assertEquals(artifact, download(RANGE));
+        assertEquals(2, downloads);
+
+        // without the repositories, a range is resolved on every call
+        assertEquals(artifact, download(RANGE, null));
+        assertEquals(artifact, download(RANGE, null));
+        assertEquals(4, downloads);
+    }
+
+    @Test
+    public void testPersistedAndOffline() throws Exception {
+        assertEquals(artifact, download(RANGE));
+        assertEquals(1, downloads);
+
+        // the results are written once per batch
+        assertFalse(cacheFile.exists());
+        cache.store();
+
+        // a new build reads the cache file
+        cache = new ArtifactCache(cacheFile);
+        cache.setRangeTtl(-1);
+        cache.setOffline(true);
+        assertEquals(artifact, download(RANGE));
+        assertEquals(1, downloads);
+
+        cache.setOffline(false);
+        assertEquals(artifact, download(RANGE));
+        assertEquals(2, downloads);
+    }
+
+    @Test
+    public void testOfflineRangeNotCached() throws Exception {
+        cache.setOffline(true);
+        assertEquals(artifact, download(RANGE));
+        cache.setOffline(false);
+        // the range was only resolved against the local repository
+        assertEquals(artifact, download(RANGE));
+        assertEquals(2, downloads);
+    }
+
+    @Test
+    public void testStoreKeepsOtherResults() throws Exception {
+        ArtifactCache other = new ArtifactCache(cacheFile);
+        other.downloadArtifact("io.openliberty", "other", "jar", "22.0.0.1", REPOSITORIES, downloader);
+        assertEquals(artifact, download("22.0.0.1"));
+        other.store();
+        cache.store();
+
+        cache = new ArtifactCache(cacheFile);
+        assertEquals(artifact, download("22.0.0.1"));
+        cache.downloadArtifact("io.openliberty", "other", "jar", "22.0.0.1", REPOSITORIES, downloader);
+        assertEquals(2, downloads);
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ * (C) Copyright IBM Corporation 2026.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openliberty.tools.common.plugins.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.openliberty.tools.common.plugins.util.ServerFeatureUtil.FeaturesPlatforms;
+
+public class DevUtilFeatureChangesTest extends BaseDevUtilTest {
+
+    private class FeatureChangesUtil extends DevTestUtil {
+        Set<String> configuredFeatures = new HashSet<String>();
+        Set<String> existingFeatures = new HashSet<String>();
+
+        FeatureChangesUtil(File serverDirectory) throws Exception {
+            super(serverDirectory, temp.newFolder());
+        }
+
+        @Override
+        public Set<String> getExistingFeatures() {
+            return existingFeatures;
+        }
+
+        @Override
+        public ServerFeatureUtil getServerFeatureUtilObj() {
+            return new ServerFeatureUtil() {
+                @Override
+                public FeaturesPlatforms getServerFeatures(File serverDirectory, File serverXmlFile,
+                        Map<String, File> libertyDirPropFiles, Set<String> dropinsFilesToIgnore) {
+                    return new FeaturesPlatforms(configuredFeatures, new HashSet<String>());
+                }
+
+                @Override
+                public void debug(String msg) {
+                }
+
+                @Override
+                public void debug(String msg, Throwable e) {
+                }
+
+                @Override
+                public void debug(Throwable e) {
+                }
+
+                @Override
+                public void warn(String msg) {
+                }
+
+                @Override
+                public void info(String msg) {
+                }
+
+                @Override
+                public void error(String msg) {
+                }
+
+                @Override
+                public void error(String msg, Throwable e) {
+                }
+
+                @Override
+                public boolean isDebugEnabled() {
+                    return false;
+                }
+            };
+        }
+    }
+
+    private File installDir;
+    private File serverDir;
+
+    @Before
+    public void setUp() throws Exception {
+        installDir = temp.newFolder("wlp");
+        new File(installDir, "lib/features").mkdirs();
+        serverDir = new File(installDir, "usr/servers/defaultServer");
+        serverDir.mkdirs();
+        writeFeature(new File(installDir, "lib/features"), "com.ibm.websphere.appserver.servlet-6.0", "servlet-6.0",
+                "com.ibm.websphere.appserver.servlet.internal-6.0; type=\"osgi.subsystem.feature\", com.ibm.ws.webcontainer; version=\"[1,1.0.100)\"");
+        writeFeature(new File(installDir, "lib/features"), "com.ibm.websphere.appserver.servlet.internal-6.0", null, null);
+    }
+
+    private void writeFeature(File featuresDir, String symbolicName, String shortName, String content) throws Exception {
+        StringBuilder manifest = new StringBuilder("Manifest-Version: 1.0\n");
+        manifest.append("Subsystem-SymbolicName: ").append(symbolicName).append("; visibility:=public\n");
+        if (shortName != null) {
+            manifest.append("IBM-ShortName: ").append(shortName).append('\n');
+        }
+        if (content != null) {
+            manifest.append("Subsystem-Content: ").append(content).append('\n');
+        }
+        featuresDir.mkdirs();
+        Files.write(new File(featuresDir, symbolicName + ".mf").toPath(), manifest.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private FeatureChangesUtil getUtil(String[] existing, String... configured) throws Exception {
+        FeatureChangesUtil util = new FeatureChangesUtil(serverDir);
+        util.existingFeatures.addAll(Arrays.asList(existing));
+        util.configuredFeatures.addAll(Arrays.asList(configured));
+        return util;
+    }
+
+    @Test
+    public void testRemovalOnly() throws Exception {
+        // no runtime is needed to tell that features were only removed
+        serverDir = temp.newFolder("servers", "otherServer");
+        assertFalse(getUtil(new String[] { "servlet-6.0", "jsonp-2.1" }, "Servlet-6.0").featureChangesRequireInstall());
+    }
+
+    @Test
+    public void testVersionedFeatureInstalled() throws Exception {
+        FeatureChangesUtil util = getUtil(new String[] { "jsonp-2.1" }, "jsonp-2.1", "servlet-6.0");
+        assertEquals(installDir, util.getInstallDirectory());
+        assertFalse(util.featureChangesRequireInstall());
+
+        util.configuredFeatures.add("mpHealth-4.0");
+        assertTrue(util.featureChangesRequireInstall());
+    }
+
+    @Test
+    public void testVersionlessFeature() throws Exception {
+        assertTrue(getUtil(new String[] {}, "servlet").featureChangesRequireInstall());
+    }
+
+    @Test
+    public void testManifestWithoutDependencies() throws Exception {
+        // the manifest of the added feature is present but the feature it depends on is not
+        assertTrue(new File(installDir, "lib/features/com.ibm.websphere.appserver.servlet.internal-6.0.mf").delete());
+        assertTrue(getUtil(new String[] {}, "servlet-6.0").featureChangesRequireInstall());
+
+        // a tolerated version of the dependency is enough
+        writeFeature(new File(installDir, "lib/features"), "com.ibm.websphere.appserver.servlet-6.0", "servlet-6.0",
+                "com.ibm.websphere.appserver.servlet.internal-6.1; type=\"osgi.subsystem.feature\"; ibm.tolerates:=\"6.0,5.0\"");
+        writeFeature(new File(installDir, "lib/features"), "com.ibm.websphere.appserver.servlet.internal-5.0", null, null);
+        assertFalse(getUtil(new String[] {}, "servlet-6.0").featureChangesRequireInstall());
+    }
+
+    @Test
+    public void testNonDefaultUserDirectory() throws Exception {
+        File userDir = temp.newFolder("myusr");
+        serverDir = new File(userDir, "servers/defaultServer");
+        serverDir.mkdirs();
+        writeFeature(new File(userDir, "extension/lib/features"), "my.feature-1.0", "myFeature-1.0", null);
+
+        // the installation cannot be found from a user directory outside of it
+        FeatureChangesUtil util = getUtil(new String[] {}, "servlet-6.0", "usr:myFeature-1.0");
+        assertNull(util.getInstallDirectory());
+        assertTrue(util.featureChangesRequireInstall());
+
+        util.setInstallDirectory(installDir);
+        assertEquals(installDir, util.getInstallDirectory());
+        assertFalse(util.featureChangesRequireInstall());
+    }
+}
@@ -0,0 +1,229 @@
+/**
+ * (C) Copyright IBM Corporation 2026.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openliberty.tools.common.plugins.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.openliberty.tools.common.plugins.util.ServerFeatureUtil.FeaturesPlatforms;
+
+public class DevUtilSpeculativeGenerateFeaturesTest extends BaseDevUtilTest {
+
+    private class SpeculativeGenerateUtil extends DevTestUtil {
+        final List<Collection<String>> generateCalls = Collections.synchronizedList(new ArrayList<Collection<String>>());
+        final CountDownLatch generateStarted = new CountDownLatch(1);
+        volatile CountDownLatch releaseGenerate = new CountDownLatch(0);
+        volatile boolean generateResult = true;
+        int testThreads = 0;
+
+        SpeculativeGenerateUtil() throws IOException {
+            super(null, null, null, null, null, null, true, false);
+            setFeatureGeneration(true);
+            setSpeculativeFeatureGeneration(true);
+            modifiedClasses = new HashSet<File>();
+            failedToGenerateClasses = new HashSet<File>();
+            failedCompilationJavaSources = new HashSet<File>();
+        }
+
+        @Override
+        public boolean libertyGenerateFeatures(Collection<String> classes, boolean optimize, boolean generateToSrc,
+                boolean useTmpDirOut, boolean useTmpDirIn) {
+            generateCalls.add(new HashSet<String>(classes));
+            generateStarted.countDown();
+            try {
+                releaseGenerate.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return generateResult;
+        }
+
+        @Override
+        ExecutorService getSpeculativeGenerateExecutor() {
+            return generateExecutor;
+        }
+
+        @Override
+        public ServerFeatureUtil getServerFeatureUtilObj() {
+            // the generated features file is not written by these tests
+            return new ServerFeatureUtil() {
+                @Override
+                public FeaturesPlatforms getServerXmlFeatures(FeaturesPlatforms origResult, File serverDirectory,
+                        File serverFile, Properties bootstrapProperties, List<File> parsedXmls) {
+                    return new FeaturesPlatforms();
+                }
+
+                @Override
+                public void debug(String msg) {
+                }
+
+                @Override
+                public void debug(String msg, Throwable e) {
+                }
+
+                @Override
+                public void debug(Throwable e) {
+                }
+
+                @Override
+                public void warn(String msg) {
+                }
+
+                @Override
+                public void info(String msg) {
+                }
+
+                @Override
+                public void error(String msg) {
+                }
+
+                @Override
+                public void error(String msg, Throwable e) {
+                }
+
+                @Override
+                public boolean isDebugEnabled() {
+                    return false;
+                }
+            };
+        }
+
+        @Override
+        public void runTestThread(boolean waitForApplicationUpdate, ThreadPoolExecutor executor,
+                int messageOccurrences, boolean skipUnitTests, boolean manualInvocation, File... currentBuildFiles) {
+            testThreads++;
+        }
+    }
+
+    private ExecutorService generateExecutor;
+    private ThreadPoolExecutor testExecutor;
+    private File classA;
+    private File classB;
+
+    @Before
+    public void setUp() throws Exception {
+        generateExecutor = Executors.newSingleThreadExecutor();
+        testExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(1, true));
+        classA = temp.newFile("A.class");
+        classB = temp.newFile("B.class");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        generateExecutor.shutdownNow();
+        testExecutor.shutdownNow();
+    }
+
+    private void waitForGenerate(SpeculativeGenerateUtil util) throws Exception {
+        for (int i = 0; i < 300 && !util.finishSpeculativeGenerateFeatures(testExecutor); i++) {
+            Thread.sleep(100);
+        }
+    }
+
+    @Test
+    public void testCancelBeforeStart() throws Exception {
+        SpeculativeGenerateUtil util = new SpeculativeGenerateUtil();
+        // keep the background thread busy so that the speculative run stays queued
+        CountDownLatch busy = new CountDownLatch(1);
+        generateExecutor.submit(() -> {
+            busy.await();
+            return null;
+        });
+
+        util.modifiedClasses.add(classA);
+        util.startSpeculativeGenerateFeatures();
+        assertTrue(util.modifiedClasses.isEmpty());
+        assertFalse(util.finishSpeculativeGenerateFeatures(testExecutor));
+
+        util.cancelSpeculativeGenerateFeatures();
+        busy.countDown();
+
+        // the classes of the cancelled run are generated with the next change
+        assertEquals(Collections.singleton(classA), new HashSet<File>(util.modifiedClasses));
+        assertTrue(util.finishSpeculativeGenerateFeatures(testExecutor));
+        generateExecutor.shutdown();
+        generateExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        assertTrue(util.generateCalls.isEmpty());
+        assertEquals(0, util.testThreads);
+    }
+
+    @Test
+    public void testStaleRunFinishesAfterNewChange() throws Exception {
+        SpeculativeGenerateUtil util = new SpeculativeGenerateUtil();
+        util.releaseGenerate = new CountDownLatch(1);
+
+        util.modifiedClasses.add(classA);
+        util.startSpeculativeGenerateFeatures();
+        assertTrue(util.generateStarted.await(30, TimeUnit.SECONDS));
+
+        // a new change arrives while the run is in progress, so it cannot be cancelled
+        util.modifiedClasses.add(classB);
+        util.cancelSpeculativeGenerateFeatures();
+        assertFalse(util.finishSpeculativeGenerateFeatures(testExecutor));
+
+        util.releaseGenerate.countDown();
+        waitForGenerate(util);
+
+        assertEquals(1, util.generateCalls.size());
+        assertEquals(Collections.singleton(classA.getCanonicalPath()), util.generateCalls.get(0));
+        // the new change is still pending, and tests wait until features are generated for it
+        assertEquals(Collections.singleton(classB), new HashSet<File>(util.modifiedClasses));
+        assertEquals(0, util.testThreads);
+    }
+
+    @Test
+    public void testFailedToGenerateClasses() throws Exception {
+        SpeculativeGenerateUtil util = new SpeculativeGenerateUtil();
+        util.generateResult = false;
+        util.modifiedClasses.add(classA);
+        util.startSpeculativeGenerateFeatures();
+        waitForGenerate(util);
+        assertEquals(Collections.singleton(classA), new HashSet<File>(util.failedToGenerateClasses));
+        assertEquals(0, util.testThreads);
+
+        // the classes that failed are generated again with the next change
+        util.generateResult = true;
+        util.modifiedClasses.add(classB);
+        util.startSpeculativeGenerateFeatures();
+        waitForGenerate(util);
+        assertEquals(2, util.generateCalls.size());
+        assertEquals(new HashSet<String>(Arrays.asList(classA.getCanonicalPath(), classB.getCanonicalPath())),
+                util.generateCalls.get(1));
+        assertTrue(util.failedToGenerateClasses.isEmpty());
+        assertEquals(1, util.testThreads);
+    }
+}
@@ -0,0 +1,139 @@
+/**
+ * (C) Copyright IBM Corporation 2026.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openliberty.tools.common.plugins.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class EsaStoreTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private File storeDir;
+
+    @Before
+    public void setUp() throws Exception {
+        storeDir = temp.newFolder("store");
+    }
+
+    private File createEsa(File dir, String jarContent) throws Exception {
+        dir.mkdirs();
+        File esa = new File(dir, "feature.esa");
+        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(esa))) {
+            zos.putNextEntry(new ZipEntry("OSGI-INF/SUBSYSTEM.MF"));
+            zos.write("Subsystem-SymbolicName: test.feature-1.0\n".getBytes(StandardCharsets.UTF_8));
+            zos.closeEntry();
+            zos.putNextEntry(new ZipEntry("test.bundle_1.0.jar"));
+            zos.write(jarContent.getBytes(StandardCharsets.UTF_8));
+            zos.closeEntry();
+        }
+        return esa;
+    }
+
+    @Test
+    public void testSameContentStoredOnce() throws Exception {
+        EsaStore store = new EsaStore(storeDir, true);
+        File esa1 = createEsa(new File(temp.getRoot(), "project1"), "bundle");
+        byte[] content = Files.readAllBytes(esa1.toPath());
+        File esa2 = new File(temp.getRoot(), "project2/feature.esa");
+        esa2.getParentFile().mkdirs();
+        Files.write(esa2.toPath(), content);
+
+        File stored1 = store.add(esa1);
+        File stored2 = store.add(esa2);
+        assertEquals(stored1, stored2);
+        assertEquals(FileUtil.sha256(esa1) + ".esa", stored1.getName());
+        assertArrayEquals(content, Files.readAllBytes(stored1.toPath()));
+        // the sources are replaced by links to the stored content
+        assertTrue(Files.isSameFile(esa1.toPath(), esa2.toPath()));
+        assertArrayEquals(content, Files.readAllBytes(esa2.toPath()));
+
+        File other = createEsa(new File(temp.getRoot(), "project3"), "other bundle");
+        assertNotEquals(stored1, store.add(other));
+    }
+
+    @Test
+    public void testExtractedAndCopied() throws Exception {
+        EsaStore store = new EsaStore(storeDir, false);
+        File esa = createEsa(new File(temp.getRoot(), "project1"), "bundle");
+        File extracted = store.getExtracted(esa);
+        assertEquals(extracted, store.getExtracted(esa));
+
+        File jar = new File(extracted, "test.bundle_1.0.jar");
+        File runtime1Jar = new File(temp.getRoot(), "wlp1/usr/extension/lib/test.bundle_1.0.jar");
+        File runtime2Jar = new File(temp.getRoot(), "wlp2/usr/extension/lib/test.bundle_1.0.jar");
+        EsaStore.copy(jar, runtime1Jar);
+        EsaStore.copy(jar, runtime2Jar);
+        assertEquals("bundle", new String(Files.readAllBytes(runtime1Jar.toPath()), StandardCharsets.UTF_8));
+        assertFalse(Files.isSameFile(runtime1Jar.toPath(), runtime2Jar.toPath()));
+
+        // a runtime file written in place does not change the store
+        FileUtil.copyFile(esa, runtime1Jar);
+        assertEquals("bundle", new String(Files.readAllBytes(jar.toPath()), StandardCharsets.UTF_8));
+        // the source is not replaced without replaceSources
+        assertFalse(Files.isSameFile(esa.toPath(), store.add(esa).toPath()));
+    }
+
+    @Test
+    public void testFindByCoordinates() throws Exception {
+        EsaStore store = new EsaStore(storeDir, false);
+        File esa = createEsa(new File(temp.getRoot(), "project1"), "bundle");
+        assertNull(store.find("io.openliberty.features:test:1.0"));
+
+        File stored = store.add(esa, "io.openliberty.features:test:1.0");
+        assertEquals(stored, store.find("io.openliberty.features:test:1.0"));
+        assertNull(store.find("io.openliberty.features:test:2.0"));
+
+        // snapshots and invalid coordinates are stored but not recorded
+        File snapshot = createEsa(new File(temp.getRoot(), "project2"), "snapshot");
+        store.add(snapshot, "io.openliberty.features:test:1.1-SNAPSHOT");
+        assertNull(store.find("io.openliberty.features:test:1.1-SNAPSHOT"));
+        store.add(snapshot, "..:test:1.1");
+        assertNull(store.find("..:test:1.1"));
+    }
+
+    @Test
+    public void testFindChangedContent() throws Exception {
+        EsaStore store = new EsaStore(storeDir, false);
+        File esa = createEsa(new File(temp.getRoot(), "project1"), "bundle");
+        File stored = store.add(esa, "io.openliberty.features:test:1.0");
+
+        // content changed in the store is not returned, and is replaced when the ESA is added again
+        Files.write(stored.toPath(), "changed".getBytes(StandardCharsets.UTF_8));
+        stored.setLastModified(stored.lastModified() + 2000);
+        assertNull(store.find("io.openliberty.features:test:1.0"));
+        assertEquals(stored, store.add(esa, "io.openliberty.features:test:1.0"));
+        assertEquals(stored, store.find("io.openliberty.features:test:1.0"));
+        assertArrayEquals(Files.readAllBytes(esa.toPath()), Files.readAllBytes(stored.toPath()));
+    }
+}
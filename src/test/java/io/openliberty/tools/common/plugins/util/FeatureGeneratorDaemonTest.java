@@ -0,0 +1,184 @@
+/**
+ * (C) Copyright IBM Corporation 2026.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openliberty.tools.common.plugins.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.openliberty.tools.common.plugins.util.FeatureGeneratorUtil.RecommendationSetException;
+
+public class FeatureGeneratorDaemonTest {
+
+    private static final String SCANNER_SOURCE = "package com.ibm.websphere.binary.cmdline;\n"
+            + "import java.util.*;\n"
+            + "import com.ibm.websphere.binary.cmdline.exceptions.FeatureConflictException;\n"
+            + "public class BinaryScanner {\n"
+            + "  public static Set<String> generateFeatureList(Set<String> binaryInputs, String ee, String mp,\n"
+            + "      Set<String> currentFeatures, Map featureListFileMap, String logLocation, String logLevel, Locale locale) {\n"
+            + "    System.out.println(\"scanning \" + binaryInputs);\n"
+            + "    if (Boolean.getBoolean(\"featuregen.hang\")) {\n"
+            + "      try { Thread.sleep(60000); } catch (InterruptedException e) { }\n"
+            + "    }\n"
+            + "    if (currentFeatures.contains(\"conflict-1.0\")) {\n"
+            + "      throw new FeatureConflictException(currentFeatures);\n"
+            + "    }\n"
+            + "    return new HashSet<String>(Arrays.asList(\"servlet-6.0\", ee));\n"
+            + "  }\n"
+            + "}\n";
+
+    private static final String EXCEPTION_SOURCE = "package com.ibm.websphere.binary.cmdline.exceptions;\n"
+            + "import java.util.*;\n"
+            + "public class FeatureConflictException extends RuntimeException {\n"
+            + "  private final Set<String> features;\n"
+            + "  public FeatureConflictException(Set<String> features) { super(\"conflict\"); this.features = features; }\n"
+            + "  public Set<String> getFeatures() { return features; }\n"
+            + "}\n";
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private File featureGenJar;
+    private File classesDir;
+
+    @Before
+    public void setUp() throws Exception {
+        FeatureGeneratorSession.clear();
+        featureGenJar = createFeatureGenJar();
+        classesDir = temp.newFolder("classes");
+        Files.write(new File(classesDir, "A.class").toPath(), "A".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @After
+    public void tearDown() {
+        FeatureGeneratorDaemon.stopAll();
+        FeatureGeneratorSession.clear();
+    }
+
+    private File createFeatureGenJar() throws Exception {
+        File srcDir = temp.newFolder("src");
+        File scanner = new File(srcDir, "BinaryScanner.java");
+        File exception = new File(srcDir, "FeatureConflictException.java");
+        Files.write(scanner.toPath(), SCANNER_SOURCE.getBytes(StandardCharsets.UTF_8));
+        Files.write(exception.toPath(), EXCEPTION_SOURCE.getBytes(StandardCharsets.UTF_8));
+        File outDir = temp.newFolder("out");
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertNotNull("A JDK is required to run this test", compiler);
+        assertEquals(0, compiler.run(null, null, null, "-nowarn", "-d", outDir.getAbsolutePath(),
+                scanner.getAbsolutePath(), exception.getAbsolutePath()));
+
+        File jar = new File(temp.getRoot(), "feature-gen.jar");
+        try (JarOutputStream jos = new JarOutputStream(new FileOutputStream(jar))) {
+            for (String name : new String[] { "com/ibm/websphere/binary/cmdline/BinaryScanner.class",
+                    "com/ibm/websphere/binary/cmdline/exceptions/FeatureConflictException.class" }) {
+                jos.putNextEntry(new ZipEntry(name));
+                jos.write(Files.readAllBytes(new File(outDir, name).toPath()));
+                jos.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+    private FeatureGeneratorUtil getForkedFeatureGeneratorUtil() {
+        return getForkedFeatureGeneratorUtil("-Xmx64m");
+    }
+
+    private FeatureGeneratorUtil getForkedFeatureGeneratorUtil(String... jvmArgs) {
+        FeatureGeneratorUtil util = new FeatureGeneratorUtil(featureGenJar) {
+            @Override
+            public void debug(String message) {}
+            @Override
+            public void debug(String message, Throwable e) {}
+            @Override
+            public void error(String message) {}
+            @Override
+            public void warn(String message) {}
+            @Override
+            public void info(String message) {}
+            @Override
+            public boolean isDebugEnabled() {
+                return false;
+            }
+        };
+        util.setForkedGenerator(true);
+        util.setForkedGeneratorJvmArgs(Arrays.asList(jvmArgs));
+        return util;
+    }
+
+    @Test
+    public void testForkedGenerator() throws Exception {
+        Set<String> features = getForkedFeatureGeneratorUtil().runFeatureGenerator(new HashSet<String>(), null,
+                Collections.singleton(classesDir.getAbsolutePath()), null, "ee10", null, new HashMap<String, File>(), true);
+        Set<String> expected = new HashSet<String>();
+        expected.add("servlet-6.0");
+        expected.add("ee10");
+        assertEquals(expected, features);
+    }
+
+    @Test
+    public void testForkedGeneratorTimeout() throws Exception {
+        // the forked JVM hangs, so the call fails after the timeout instead of scanning in the current JVM
+        FeatureGeneratorUtil util = getForkedFeatureGeneratorUtil("-Xmx64m", "-Dfeaturegen.hang=true");
+        util.setForkedGeneratorTimeout(2);
+        long start = System.currentTimeMillis();
+        try {
+            util.runFeatureGenerator(new HashSet<String>(), null,
+                    Collections.singleton(classesDir.getAbsolutePath()), null, "ee10", null, new HashMap<String, File>(), true);
+            fail("Expected a ResponseTimeoutException");
+        } catch (FeatureGeneratorDaemon.ResponseTimeoutException e) {
+            assertTrue(e.getMessage().contains("did not respond within 2 seconds"));
+        }
+        assertTrue(System.currentTimeMillis() - start < 30000);
+    }
+
+    @Test
+    public void testForkedGeneratorException() throws Exception {
+        Set<String> currentFeatures = Collections.singleton("conflict-1.0");
+        try {
+            getForkedFeatureGeneratorUtil().runFeatureGenerator(currentFeatures, null,
+                    Collections.singleton(classesDir.getAbsolutePath()), null, "ee10", null, new HashMap<String, File>(), true);
+            fail("Expected a RecommendationSetException");
+        } catch (RecommendationSetException e) {
+            assertEquals(currentFeatures, e.getConflicts());
+            assertFalse(e.isExistingFeaturesConflict());
+            // the re-run scans all classes without the current features
+            assertEquals(2, e.getSuggestions().size());
+        }
+    }
+}
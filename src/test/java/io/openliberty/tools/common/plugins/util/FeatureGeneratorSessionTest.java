@@ -0,0 +1,118 @@
+/**
+ * (C) Copyright IBM Corporation 2026.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openliberty.tools.common.plugins.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FeatureGeneratorSessionTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private File featureGenJar;
+    private File classesDir;
+    private Set<String> binaryInputs;
+    private Map<String, File> featureListFileMap;
+
+    @Before
+    public void setUp() throws Exception {
+        FeatureGeneratorSession.clear();
+        featureGenJar = temp.newFile("feature-gen.jar");
+        classesDir = temp.newFolder("classes");
+        new File(classesDir, "com/example").mkdirs();
+        write(new File(classesDir, "com/example/A.class"), "A");
+        write(new File(classesDir, "com/example/B.class"), "B");
+        binaryInputs = Collections.singleton(classesDir.getAbsolutePath());
+        featureListFileMap = new HashMap<String, File>();
+        featureListFileMap.put(FeatureGeneratorUtil.OL_FEATURELIST_KEY, temp.newFile("featurelist.xml"));
+    }
+
+    private void write(File file, String content) throws Exception {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String getFingerprint(Set<String> currentFeatures) {
+        return FeatureGeneratorSession.getFingerprint(featureGenJar, binaryInputs, "ee10", "mp6.1", currentFeatures,
+                featureListFileMap);
+    }
+
+    @Test
+    public void testFingerprint() throws Exception {
+        String fingerprint = getFingerprint(new HashSet<String>());
+        assertNotNull(fingerprint);
+        assertEquals(fingerprint, getFingerprint(new HashSet<String>()));
+        assertNotEquals(fingerprint, getFingerprint(Collections.singleton("servlet-6.0")));
+
+        // a changed class is detected even if its size is the same
+        File classA = new File(classesDir, "com/example/A.class");
+        write(classA, "C");
+        classA.setLastModified(classA.lastModified() + 2000);
+        String changed = getFingerprint(new HashSet<String>());
+        assertNotEquals(fingerprint, changed);
+
+        // a new class is detected
+        write(new File(classesDir, "com/example/D.class"), "D");
+        assertNotEquals(changed, getFingerprint(new HashSet<String>()));
+    }
+
+    @Test
+    public void testFingerprintFeatureListContent() throws Exception {
+        String fingerprint = getFingerprint(new HashSet<String>());
+
+        // a feature list regenerated at the same path with the same size is detected
+        File featureList = featureListFileMap.get(FeatureGeneratorUtil.OL_FEATURELIST_KEY);
+        write(featureList, "<featureInfo name=\"a\"/>");
+        featureList.setLastModified(1000000000000L);
+        String first = getFingerprint(new HashSet<String>());
+        assertNotEquals(fingerprint, first);
+        write(featureList, "<featureInfo name=\"b\"/>");
+        featureList.setLastModified(1000000002000L);
+        assertNotEquals(first, getFingerprint(new HashSet<String>()));
+    }
+
+    @Test
+    public void testGeneratedFeatures() throws Exception {
+        String fingerprint = getFingerprint(new HashSet<String>());
+        assertNull(FeatureGeneratorSession.getGeneratedFeatures(fingerprint));
+        Set<String> features = new HashSet<String>();
+        features.add("servlet-6.0");
+        FeatureGeneratorSession.putGeneratedFeatures(fingerprint, features);
+
+        Set<String> cached = FeatureGeneratorSession.getGeneratedFeatures(fingerprint);
+        assertEquals(features, cached);
+        // callers may modify the returned set
+        cached.add("cdi-4.0");
+        assertEquals(features, FeatureGeneratorSession.getGeneratedFeatures(fingerprint));
+        assertNull(FeatureGeneratorSession.getGeneratedFeatures(null));
+    }
+}
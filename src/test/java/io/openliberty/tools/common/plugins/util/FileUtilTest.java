@@ -0,0 +1,85 @@
+/**
+ * (C) Copyright IBM Corporation 2026.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openliberty.tools.common.plugins.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileUtilTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testSha256() throws Exception {
+        File file = temp.newFile("hash.txt");
+        Files.write(file.toPath(), "abc".getBytes(StandardCharsets.UTF_8));
+        String expected = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+        assertEquals(expected, FileUtil.sha256(file));
+        assertEquals(expected, FileUtil.sha256("abc"));
+    }
+
+    @Test
+    public void testCopyFile() throws Exception {
+        byte[] content = new byte[3 * 1024 * 1024 + 17];
+        new Random(1).nextBytes(content);
+        File source = temp.newFile("source.bin");
+        Files.write(source.toPath(), content);
+        File target = temp.newFile("target.bin");
+        Files.write(target.toPath(), "previous content that is replaced".getBytes(StandardCharsets.UTF_8));
+
+        FileUtil.copyFile(source, target);
+        assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+    }
+
+    @Test
+    public void testZipEntries() throws Exception {
+        File zipFile = new File(temp.getRoot(), "feature.esa");
+        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(zipFile))) {
+            zos.putNextEntry(new ZipEntry("bundle.jar"));
+            zos.write("bundle".getBytes(StandardCharsets.UTF_8));
+            zos.closeEntry();
+            zos.putNextEntry(new ZipEntry("OSGI-INF/subsystem.mf"));
+            zos.write("Subsystem-SymbolicName: test\n".getBytes(StandardCharsets.UTF_8));
+            zos.closeEntry();
+        }
+
+        try (ZipFile zip = new ZipFile(zipFile)) {
+            ZipEntry manifest = FileUtil.getZipEntryIgnoreCase(zip, "OSGI-INF/SUBSYSTEM.MF");
+            assertNotNull(manifest);
+            assertNull(FileUtil.getZipEntryIgnoreCase(zip, "OSGI-INF/missing.mf"));
+
+            File target = new File(temp.getRoot(), "test.mf");
+            FileUtil.copyZipEntry(zip, manifest, target);
+            assertEquals("Subsystem-SymbolicName: test\n", new String(Files.readAllBytes(target.toPath()), StandardCharsets.UTF_8));
+        }
+    }
+}
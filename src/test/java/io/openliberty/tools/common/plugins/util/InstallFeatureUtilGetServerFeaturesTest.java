@@ -1,5 +1,5 @@
 /**
- * (C) Copyright IBM Corporation 2018, 2021.
+ * (C) Copyright IBM Corporation 2018, 2026.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -796,4 +796,39 @@ public class InstallFeatureUtilGetServerFeaturesTest extends BaseInstallFeatureU
 
         verifyServerFeatures(expected);
     }
+
+    /**
+     * Tests many configDropins overrides that are merged, and that a changed file
+     * is parsed again even if its size is unchanged
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testManyOverridesMerged() throws Exception {
+        copy("server.xml");
+        File overrides = new File(serverDirectory, "configDropins/overrides");
+        overrides.mkdirs();
+        for (int i = 0; i < 60; i++) {
+            String name = String.format("dropin%02d", i);
+            String xml = "<server><include location=\"empty.xml\" onConflict=\"replace\"/><featureManager><feature>" + name
+                    + "-1.0</feature></featureManager></server>";
+            Files.write(new File(overrides, name + ".xml").toPath(), xml.getBytes(StandardCharsets.UTF_8));
+        }
+        Files.write(new File(overrides, "empty.xml").toPath(), "<server/>".getBytes(StandardCharsets.UTF_8));
+
+        Set<String> expected = new HashSet<String>();
+        expected.add("orig");
+        for (int i = 0; i < 60; i++) {
+            expected.add(String.format("dropin%02d-1.0", i));
+        }
+        verifyServerFeatures(expected);
+        verifyServerFeatures(expected);
+
+        Files.write(new File(overrides, "dropin59.xml").toPath(),
+                "<server><include location=\"empty.xml\" onConflict=\"replace\"/><featureManager><feature>changed8-1.0</feature></featureManager></server>"
+                        .getBytes(StandardCharsets.UTF_8));
+        expected.remove("dropin59-1.0");
+        expected.add("changed8-1.0");
+        verifyServerFeatures(expected);
+    }
 }
@@ -0,0 +1,63 @@
+/**
+ * (C) Copyright IBM Corporation 2026.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openliberty.tools.common.plugins.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class InstallFeatureUtilPrefetchTest {
+
+    private static final String FEATURES_JSON = "[\n"
+            + "{\"name\":\"Servlet\",\"size\":10,\"wlpInformation\":{\"shortName\":\"servlet-6.0\",\n"
+            + "  \"provideFeature\":[\"io.openliberty.servlet-6.0\"],\n"
+            + "  \"requireFeature\":[\"io.openliberty.servlet.internal-6.0\"],\n"
+            + "  \"requireFeatureWithTolerates\":[{\"feature\":\"io.openliberty.noShip-1.0\",\"tolerates\":[\"2.0\"]}],\n"
+            + "  \"mavenCoordinates\":\"io.openliberty.features:servlet-6.0:24.0.0.1\"}},\n"
+            + "{\"wlpInformation\":{\"provideFeature\":[\"io.openliberty.servlet.internal-6.0\"],\n"
+            + "  \"requireFeature\":[\"io.openliberty.servlet-6.0\"],\n"
+            + "  \"mavenCoordinates\":\"io.openliberty.features:io.openliberty.servlet.internal-6.0:24.0.0.1\"}},\n"
+            + "{\"wlpInformation\":{\"provideFeature\":[\"io.openliberty.noShip-1.0\"],\"visible\":true,\n"
+            + "  \"mavenCoordinates\":\"io.openliberty.features:io.openliberty.noShip-1.0:24.0.0.1\"}},\n"
+            + "{\"wlpInformation\":{\"shortName\":\"jsonp-2.1\",\"provideFeature\":[\"io.openliberty.jsonp-2.1\"],\n"
+            + "  \"mavenCoordinates\":\"io.openliberty.features:jsonp-2.1:24.0.0.1\"}}\n"
+            + "]\n";
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testRequiredFeatureCoordinates() throws Exception {
+        File json = temp.newFile("features.json");
+        Files.write(json.toPath(), FEATURES_JSON.getBytes(StandardCharsets.UTF_8));
+
+        Set<String> expected = new HashSet<String>(Arrays.asList("io.openliberty.features:servlet-6.0:24.0.0.1",
+                "io.openliberty.features:io.openliberty.servlet.internal-6.0:24.0.0.1",
+                "io.openliberty.features:io.openliberty.noShip-1.0:24.0.0.1"));
+        assertEquals(expected, InstallFeatureUtil.getRequiredFeatureCoordinates(json, Arrays.asList("Servlet-6.0", "unknown-1.0")));
+        assertEquals(Collections.emptySet(), InstallFeatureUtil.getRequiredFeatureCoordinates(json, Collections.singleton("unknown-1.0")));
+    }
+}
@@ -3,26 +3,35 @@ package io.openliberty.tools.common.plugins.util;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.nio.file.Files;
 import java.nio.file.attribute.PosixFilePermission;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import org.junit.Assume;
 import org.junit.Test;
 
 import io.openliberty.tools.common.plugins.util.InstallFeatureUtil.ProductProperties;
+import io.openliberty.tools.common.plugins.util.ServerFeatureUtil.FeaturesPlatforms;
 
 public class InstallFeatureUtilTest extends BaseInstallFeatureUtilTest {
     
@@ -104,6 +113,157 @@ public class InstallFeatureUtilTest extends BaseInstallFeatureUtilTest {
         util.installFeatures(true, featuresToInstall, new ArrayList<String>());
     }
     
+    @Test
+    public void testInstallServerFeaturesCombined() throws Exception {
+        final List<List<String>> installCalls = new ArrayList<List<String>>();
+        InstallFeatureUtil util = getRecordingInstallFeatureUtil(installCalls, false);
+
+        Map<String, FeaturesPlatforms> serverFeatures = new LinkedHashMap<String, FeaturesPlatforms>();
+        serverFeatures.put("server1", new FeaturesPlatforms(new HashSet<String>(Arrays.asList("servlet-6.0", "jsonp-2.1")), new HashSet<String>()));
+        serverFeatures.put("server2", new FeaturesPlatforms(new HashSet<String>(Arrays.asList("SERVLET-6.0", "mpHealth-4.0")), new HashSet<String>()));
+        util.installServerFeatures(true, serverFeatures);
+
+        assertEquals("The features of all servers should be installed in a single pass", 1, installCalls.size());
+        assertEquals(3, installCalls.get(0).size());
+        assertTrue(InstallFeatureUtil.containsIgnoreCase(installCalls.get(0), Arrays.asList("servlet-6.0", "jsonp-2.1", "mpHealth-4.0")));
+    }
+
+    @Test
+    public void testInstallServerFeaturesConflict() throws Exception {
+        final List<List<String>> installCalls = new ArrayList<List<String>>();
+        InstallFeatureUtil util = getRecordingInstallFeatureUtil(installCalls, true);
+
+        Map<String, FeaturesPlatforms> serverFeatures = new LinkedHashMap<String, FeaturesPlatforms>();
+        serverFeatures.put("server1", new FeaturesPlatforms(new HashSet<String>(Arrays.asList("servlet-6.0")), new HashSet<String>()));
+        serverFeatures.put("server2", new FeaturesPlatforms(new HashSet<String>(Arrays.asList("servlet-4.0")), new HashSet<String>()));
+        serverFeatures.put("server3", new FeaturesPlatforms(new HashSet<String>(Arrays.asList("Servlet-4.0")), new HashSet<String>()));
+        util.installServerFeatures(true, serverFeatures);
+
+        // the combined attempt, then one install per distinct server feature set
+        assertEquals(3, installCalls.size());
+        assertEquals(2, installCalls.get(0).size());
+        assertEquals(Arrays.asList("servlet-6.0"), installCalls.get(1));
+        assertEquals(Arrays.asList("servlet-4.0"), installCalls.get(2));
+    }
+
+    private InstallFeatureUtil getRecordingInstallFeatureUtil(final List<List<String>> installCalls, final boolean conflictOnCombined) throws Exception {
+        List<ProductProperties> propertiesList = InstallFeatureUtil.loadProperties(installDir);
+        String openLibertyVersion = InstallFeatureUtil.getOpenLibertyVersion(propertiesList);
+        return new InstallFeatureTestUtil(installDir, buildDir, null, null, new HashSet<String>(), propertiesList, openLibertyVersion, new ArrayList<String>(), verify, new ArrayList<Map<String, String>>()) {
+            @Override
+            public void installFeatures(boolean isAcceptLicense, List<String> featuresList, List<String> platformsList) throws PluginExecutionException {
+                installCalls.add(featuresList);
+                if (conflictOnCombined && installCalls.size() == 1) {
+                    throw new PluginExecutionException(InstallFeatureUtil.CONFLICT_MESSAGE + featuresList + ": CWWKF0033E: conflict");
+                }
+            }
+        };
+    }
+
+    /**
+     * Previously verified artifacts should not be passed to the install kernel again.
+     * The install kernel is not initialized here, so any verification attempt would fail.
+     */
+    @Test
+    public void testVerifyFeaturesPreviouslyVerified() throws Exception {
+        File olProps = new File(installDir, "lib/versions/openliberty.properties");
+        String props = new String(Files.readAllBytes(olProps.toPath()), "UTF-8").replace("18.0.0.2", "25.0.0.1");
+        Files.write(olProps.toPath(), props.getBytes("UTF-8"));
+        InstallFeatureUtil util = getNewInstallFeatureUtil();
+
+        File esa = new File(buildDir, "feature-1.0.esa");
+        File signature = new File(buildDir, "feature-1.0.esa.asc");
+        Files.write(esa.toPath(), "esa content".getBytes("UTF-8"));
+        Files.write(signature.toPath(), "signature content".getBytes("UTF-8"));
+
+        String key = FileUtil.sha256(esa) + ":" + FileUtil.sha256(signature) + ":" + util.getPublicKeysFingerprint();
+        Properties verified = new Properties();
+        verified.setProperty(key, "verified");
+        try (FileOutputStream output = new FileOutputStream(new File(buildDir, "liberty-verified-features.properties"))) {
+            verified.store(output, null);
+        }
+
+        util.verifyFeatures(new HashSet<File>(Arrays.asList(esa)), null);
+
+        // a changed signature must be verified again
+        Files.write(signature.toPath(), "other signature".getBytes("UTF-8"));
+        try {
+            util.verifyFeatures(new HashSet<File>(Arrays.asList(esa)), null);
+            fail("Expected the changed artifact to be verified by the install kernel");
+        } catch (NullPointerException e) {
+            // expected since the install kernel was not initialized
+        }
+    }
+
+    /**
+     * A user key should be identified by its content when it is a local file, and by
+     * its key id otherwise.
+     */
+    @Test
+    public void testPublicKeysFingerprint() throws Exception {
+        List<ProductProperties> propertiesList = InstallFeatureUtil.loadProperties(installDir);
+        String openLibertyVersion = InstallFeatureUtil.getOpenLibertyVersion(propertiesList);
+        File keyFile = new File(buildDir, "key.asc");
+        Files.write(keyFile.toPath(), "first key".getBytes("UTF-8"));
+        Map<String, String> key = new HashMap<String, String>();
+        key.put("keyurl", keyFile.toURI().toString());
+        List<Map<String, String>> keyMap = new ArrayList<Map<String, String>>();
+        keyMap.add(key);
+
+        InstallFeatureUtil util = new InstallFeatureTestUtil(installDir, buildDir, null, null, new HashSet<String>(), propertiesList, openLibertyVersion, new ArrayList<String>(), "all", keyMap);
+        String fingerprint = util.getPublicKeysFingerprint();
+        assertNotNull(fingerprint);
+
+        // a rotated key at the same URL must not match the previous verifications
+        Files.write(keyFile.toPath(), "second key".getBytes("UTF-8"));
+        assertFalse(fingerprint.equals(util.getPublicKeysFingerprint()));
+
+        // a remote key can only be identified by its key id
+        key.put("keyurl", "https://example.com/key.asc");
+        assertNull(util.getPublicKeysFingerprint());
+        key.put("keyid", "0x05534365803788CE");
+        assertNotNull(util.getPublicKeysFingerprint());
+    }
+
+    /**
+     * A remote user key should be downloaded once into the build directory and passed
+     * to the install kernel as a local file.
+     */
+    @Test
+    public void testCachedPublicKeys() throws Exception {
+        List<ProductProperties> propertiesList = InstallFeatureUtil.loadProperties(installDir);
+        String openLibertyVersion = InstallFeatureUtil.getOpenLibertyVersion(propertiesList);
+        File keyJar = new File(buildDir, "keys.jar");
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(keyJar))) {
+            zip.putNextEntry(new ZipEntry("key.asc"));
+            zip.write("remote key".getBytes("UTF-8"));
+            zip.closeEntry();
+        }
+        String remoteUrl = "jar:" + keyJar.toURI() + "!/key.asc";
+        Map<String, String> key = new HashMap<String, String>();
+        key.put("keyurl", remoteUrl);
+        key.put("keyid", "0x05534365803788CE");
+        List<Map<String, String>> keyMap = new ArrayList<Map<String, String>>();
+        keyMap.add(key);
+
+        InstallFeatureUtil util = new InstallFeatureTestUtil(installDir, buildDir, null, null, new HashSet<String>(), propertiesList, openLibertyVersion, new ArrayList<String>(), "all", keyMap);
+        Collection<Map<String, String>> cached = util.getCachedPublicKeys();
+        assertEquals(1, cached.size());
+        File cachedKey = new File(cached.iterator().next().get("keyurl"));
+        assertTrue(cachedKey.isFile());
+        assertEquals("remote key", new String(Files.readAllBytes(cachedKey.toPath()), "UTF-8"));
+        assertEquals(remoteUrl, key.get("keyurl"));
+
+        // the copy is reused without downloading the key again
+        assertTrue(keyJar.delete());
+        Collection<Map<String, String>> reused = util.getCachedPublicKeys();
+        assertEquals(cachedKey.getAbsolutePath(), reused.iterator().next().get("keyurl"));
+
+        // a key without a key id cannot be checked, so it is left to the install kernel
+        key.remove("keyid");
+        assertEquals(remoteUrl, util.getCachedPublicKeys().iterator().next().get("keyurl"));
+    }
+
     @Test
     public void testCombineToSet() throws Exception {
         InstallFeatureUtil util = getNewInstallFeatureUtil();
@@ -0,0 +1,145 @@
+/**
+ * (C) Copyright IBM Corporation 2026.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openliberty.tools.common.plugins.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class InstallMapLoaderRegistryTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private File installDir;
+    private final ClassLoader parent = getClass().getClassLoader();
+
+    @Before
+    public void setUp() throws Exception {
+        InstallMapLoaderRegistry.closeAll();
+        installDir = temp.newFolder("wlp");
+    }
+
+    @After
+    public void tearDown() {
+        InstallMapLoaderRegistry.closeAll();
+    }
+
+    private File createJar(String name, String entry) throws Exception {
+        File jar = new File(temp.getRoot(), name);
+        try (JarOutputStream jos = new JarOutputStream(new FileOutputStream(jar))) {
+            jos.putNextEntry(new ZipEntry(entry));
+            jos.closeEntry();
+        }
+        return jar;
+    }
+
+    @Test
+    public void testReusedClassLoader() throws Exception {
+        File jar = createJar("install-map.jar", "a.txt");
+        ClassLoader loader;
+        try (InstallMapLoaderRegistry.Lease lease = InstallMapLoaderRegistry.acquire(jar, installDir, parent)) {
+            loader = lease.getClassLoader();
+            assertSame(parent, loader.getParent());
+        }
+
+        // the class loader is kept for reuse after the lease is closed
+        try (InstallMapLoaderRegistry.Lease lease = InstallMapLoaderRegistry.acquire(jar, installDir, parent)) {
+            assertSame(loader, lease.getClassLoader());
+        }
+        assertEquals(1, InstallMapLoaderRegistry.getLoaderCount());
+    }
+
+    @Test
+    public void testConcurrentLeasesNotShared() throws Exception {
+        File jar = createJar("install-map.jar", "a.txt");
+        try (InstallMapLoaderRegistry.Lease lease1 = InstallMapLoaderRegistry.acquire(jar, installDir, parent);
+                InstallMapLoaderRegistry.Lease lease2 = InstallMapLoaderRegistry.acquire(jar, installDir, parent)) {
+            // projects working on the same runtime at the same time must not share the static state of the install kernel
+            assertNotSame(lease1.getClassLoader(), lease2.getClassLoader());
+            assertEquals(2, InstallMapLoaderRegistry.getLoaderCount());
+        }
+    }
+
+    @Test
+    public void testClassLoaderPerParent() throws Exception {
+        File jar = createJar("install-map.jar", "a.txt");
+        ClassLoader loader;
+        try (InstallMapLoaderRegistry.Lease lease = InstallMapLoaderRegistry.acquire(jar, installDir, parent)) {
+            loader = lease.getClassLoader();
+        }
+        ClassLoader otherParent = new URLClassLoader(new URL[0], parent);
+        try (InstallMapLoaderRegistry.Lease lease = InstallMapLoaderRegistry.acquire(jar, installDir, otherParent)) {
+            assertNotSame(loader, lease.getClassLoader());
+            assertSame(otherParent, lease.getClassLoader().getParent());
+        }
+    }
+
+    @Test
+    public void testClassLoaderPerRuntime() throws Exception {
+        File jar = createJar("install-map.jar", "a.txt");
+        File otherInstallDir = temp.newFolder("other-wlp");
+        try (InstallMapLoaderRegistry.Lease lease1 = InstallMapLoaderRegistry.acquire(jar, installDir, parent);
+                InstallMapLoaderRegistry.Lease lease2 = InstallMapLoaderRegistry.acquire(jar, otherInstallDir, parent)) {
+            // the install kernel keeps static state about its runtime, so runtimes must not share it
+            assertNotSame(lease1.getClassLoader(), lease2.getClassLoader());
+            assertEquals(2, InstallMapLoaderRegistry.getLoaderCount());
+        }
+    }
+
+    @Test
+    public void testChangedJar() throws Exception {
+        File jar = createJar("install-map.jar", "a.txt");
+        InstallMapLoaderRegistry.Lease lease1 = InstallMapLoaderRegistry.acquire(jar, installDir, parent);
+
+        createJar("install-map.jar", "a-longer-entry-name.txt");
+        jar.setLastModified(jar.lastModified() + 2000);
+        try (InstallMapLoaderRegistry.Lease lease2 = InstallMapLoaderRegistry.acquire(jar, installDir, parent)) {
+            assertNotSame(lease1.getClassLoader(), lease2.getClassLoader());
+            assertEquals(1, InstallMapLoaderRegistry.getLoaderCount());
+        }
+        lease1.close();
+        try {
+            lease1.getClassLoader();
+            fail("Expected an IllegalStateException for a closed lease");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testUnusedLoadersClosed() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            File jar = createJar("install-map-" + i + ".jar", "a.txt");
+            InstallMapLoaderRegistry.acquire(jar, installDir, parent).close();
+        }
+        assertEquals(2, InstallMapLoaderRegistry.getLoaderCount());
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ * (C) Copyright IBM Corporation 2026.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openliberty.tools.common.plugins.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class InstallReportTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testPhases() throws Exception {
+        File esa = temp.newFile("feature.esa");
+        Files.write(esa.toPath(), new byte[100]);
+
+        InstallReport report = new InstallReport();
+        report.startPhase(InstallReport.PHASE_RESOLVE);
+        report.startPhase(InstallReport.PHASE_DOWNLOAD_ESAS);
+        report.recordArtifact(esa, false);
+        report.recordArtifact(esa, true);
+        Thread.sleep(20);
+        report.endPhase();
+        // artifacts outside of a phase are not recorded
+        report.recordArtifact(esa, false);
+
+        List<InstallReport.Phase> phases = report.getPhases();
+        assertEquals(2, phases.size());
+        InstallReport.Phase download = phases.get(1);
+        assertEquals(InstallReport.PHASE_DOWNLOAD_ESAS, download.getName());
+        assertEquals(100, download.getBytesDownloaded());
+        assertEquals(1, download.getCacheHits());
+        assertEquals(1, download.getCacheMisses());
+        assertEquals(download, report.getSlowestPhase());
+    }
+
+    @Test
+    public void testJson() throws Exception {
+        InstallReport report = new InstallReport();
+        report.setDryRun(true);
+        report.setFeatures(Arrays.asList("servlet-6.0"));
+        report.setResolvedFeatures(Arrays.asList("io.openliberty.features:servlet-6.0:24.0.0.1"));
+        report.startPhase(InstallReport.PHASE_RESOLVE);
+        report.endPhase();
+
+        File reportFile = new File(temp.getRoot(), "reports/install-report.json");
+        report.writeJson(reportFile);
+        String json = new String(Files.readAllBytes(reportFile.toPath()), StandardCharsets.UTF_8);
+        assertTrue(json, json.contains("\"dryRun\" : true"));
+        assertTrue(json, json.contains("\"io.openliberty.features:servlet-6.0:24.0.0.1\""));
+        assertTrue(json, json.contains("\"name\" : \"resolve\""));
+        assertTrue(json, json.contains("\"slowestPhase\" : \"resolve\""));
+    }
+}
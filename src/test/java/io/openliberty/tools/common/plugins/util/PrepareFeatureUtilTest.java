@@ -0,0 +1,254 @@
+/**
+ * (C) Copyright IBM Corporation 2026.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openliberty.tools.common.plugins.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PrepareFeatureUtilTest {
+
+    private static final String GROUP_ID = "test.user.features";
+    private static final String VERSION = "1.0";
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private File repo;
+
+    private class PrepareFeatureTestUtil extends PrepareFeatureUtil {
+        final Set<String> downloadThreads = ConcurrentHashMap.newKeySet();
+        final Map<File, String> generatedEsas = new HashMap<File, String>();
+        int generatedJsons = 0;
+        Integer parallelDownloads = null;
+        CountDownLatch downloadsStarted = null;
+        String warning = null;
+
+        PrepareFeatureTestUtil() throws PluginScenarioException, PluginExecutionException {
+            super(new File("src/test/resources/installdir"), "25.0.0.1");
+        }
+
+        @Override
+        public File downloadArtifact(String groupId, String artifactId, String type, String version)
+                throws PluginExecutionException {
+            File artifact = getArtifactFile(groupId, artifactId, type, version);
+            if (!artifact.isFile()) {
+                throw new PluginExecutionException("Artifact not found: " + artifact);
+            }
+            if ("esa".equals(type)) {
+                downloadThreads.add(Thread.currentThread().getName());
+                if (downloadsStarted != null) {
+                    // every download must be running at the same time for the latch to open
+                    downloadsStarted.countDown();
+                    try {
+                        if (!downloadsStarted.await(10, TimeUnit.SECONDS)) {
+                            throw new PluginExecutionException("The downloads did not run concurrently");
+                        }
+                    } catch (InterruptedException e) {
+                        throw new PluginExecutionException(e);
+                    }
+                }
+            }
+            return artifact;
+        }
+
+        @Override
+        protected int getMaxParallelDownloads() {
+            return parallelDownloads == null ? super.getMaxParallelDownloads() : parallelDownloads;
+        }
+
+        @Override
+        public File generateJson(String targetJsonFile, Map<File, String> esaFileMap) throws PluginExecutionException {
+            generatedJsons++;
+            generatedEsas.clear();
+            generatedEsas.putAll(esaFileMap);
+            File json = new File(targetJsonFile);
+            json.getParentFile().mkdirs();
+            try {
+                Files.write(json.toPath(), "[]".getBytes(StandardCharsets.UTF_8));
+            } catch (Exception e) {
+                throw new PluginExecutionException(e);
+            }
+            return json;
+        }
+
+        @Override
+        public void debug(String msg) {
+        }
+
+        @Override
+        public void debug(String msg, Throwable e) {
+        }
+
+        @Override
+        public void debug(Throwable e) {
+        }
+
+        @Override
+        public void warn(String msg) {
+            if (warning == null) {
+                warning = msg;
+            }
+        }
+
+        @Override
+        public void info(String msg) {
+        }
+
+        @Override
+        public void error(String msg) {
+        }
+
+        @Override
+        public void error(String msg, Throwable e) {
+        }
+
+        @Override
+        public boolean isDebugEnabled() {
+            return false;
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        repo = temp.newFolder("repo");
+    }
+
+    private File getArtifactFile(String groupId, String artifactId, String type, String version) {
+        return new File(repo, groupId.replace('.', '/') + "/" + artifactId + "/" + version + "/" + artifactId + "-"
+                + version + "." + type);
+    }
+
+    private File writeArtifact(String groupId, String artifactId, String type, String content) throws Exception {
+        File artifact = getArtifactFile(groupId, artifactId, type, VERSION);
+        artifact.getParentFile().mkdirs();
+        Files.write(artifact.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return artifact;
+    }
+
+    private String dependency(String artifactId, String extra) {
+        return "<dependency><groupId>" + GROUP_ID + "</groupId><artifactId>" + artifactId + "</artifactId>"
+                + "<version>" + VERSION + "</version><type>esa</type>" + extra + "</dependency>";
+    }
+
+    private void writeBom(String... dependencies) throws Exception {
+        writeArtifact(GROUP_ID, "features-bom", "pom", "<project><dependencyManagement><dependencies>"
+                + String.join("", dependencies) + "</dependencies></dependencyManagement></project>");
+    }
+
+    private String getBomCoordinates() {
+        return GROUP_ID + ":features-bom:" + VERSION;
+    }
+
+    @Test
+    public void testBomDependencyCoordinates() throws Exception {
+        File first = writeArtifact(GROUP_ID, "first", "esa", "first");
+        File second = writeArtifact(GROUP_ID, "second", "esa", "second");
+        // the groupId and artifactId of an exclusion must not replace the dependency's own
+        writeBom(dependency("first", "<exclusions><exclusion><groupId>other</groupId>"
+                + "<artifactId>excluded</artifactId></exclusion></exclusions>"), dependency("second", ""));
+
+        PrepareFeatureTestUtil util = new PrepareFeatureTestUtil();
+        util.prepareFeatures(Arrays.asList(getBomCoordinates()));
+        assertEquals(1, util.generatedJsons);
+        assertEquals(2, util.generatedEsas.size());
+        assertEquals(GROUP_ID, util.generatedEsas.get(first));
+        assertEquals(GROUP_ID, util.generatedEsas.get(second));
+    }
+
+    @Test
+    public void testBomDependencyMissingTag() throws Exception {
+        writeArtifact(GROUP_ID, "first", "esa", "first");
+        writeBom("<dependency><groupId>" + GROUP_ID + "</groupId><artifactId>first</artifactId><type>esa</type>"
+                + "<exclusions><exclusion><version>" + VERSION + "</version></exclusion></exclusions></dependency>");
+
+        PrepareFeatureTestUtil util = new PrepareFeatureTestUtil();
+        util.prepareFeatures(Arrays.asList(getBomCoordinates()));
+        assertEquals(0, util.generatedJsons);
+        assertNotNull(util.warning);
+        assertTrue(util.warning, util.warning.contains("[version]"));
+    }
+
+    @Test
+    public void testSequentialDownloadsByDefault() throws Exception {
+        writeArtifact(GROUP_ID, "first", "esa", "first");
+        writeArtifact(GROUP_ID, "second", "esa", "second");
+        writeBom(dependency("first", ""), dependency("second", ""));
+
+        PrepareFeatureTestUtil util = new PrepareFeatureTestUtil();
+        util.prepareFeatures(Arrays.asList(getBomCoordinates()));
+        assertEquals(new HashSet<String>(Arrays.asList(Thread.currentThread().getName())), util.downloadThreads);
+    }
+
+    @Test
+    public void testParallelDownloads() throws Exception {
+        writeArtifact(GROUP_ID, "first", "esa", "first");
+        writeArtifact(GROUP_ID, "second", "esa", "second");
+        writeArtifact(GROUP_ID, "third", "esa", "third");
+        writeBom(dependency("first", ""), dependency("second", ""), dependency("third", ""));
+
+        PrepareFeatureTestUtil util = new PrepareFeatureTestUtil();
+        util.parallelDownloads = 3;
+        util.downloadsStarted = new CountDownLatch(3);
+        util.prepareFeatures(Arrays.asList(getBomCoordinates()));
+        assertEquals(util.warning, 1, util.generatedJsons);
+        assertEquals(3, util.downloadThreads.size());
+        assertEquals(3, util.generatedEsas.size());
+    }
+
+    @Test
+    public void testUnchangedEsasSkipJsonGeneration() throws Exception {
+        File first = writeArtifact(GROUP_ID, "first", "esa", "first");
+        writeBom(dependency("first", ""));
+        File json = getArtifactFile(GROUP_ID, "features", "json", VERSION);
+        File fingerprint = new File(json.getPath() + ".fingerprint");
+
+        PrepareFeatureTestUtil util = new PrepareFeatureTestUtil();
+        util.prepareFeatures(Arrays.asList(getBomCoordinates()));
+        assertEquals(1, util.generatedJsons);
+        assertTrue(json.isFile());
+        assertTrue(fingerprint.isFile());
+
+        util.prepareFeatures(Arrays.asList(getBomCoordinates()));
+        assertEquals(1, util.generatedJsons);
+
+        Files.write(first.toPath(), "changed".getBytes(StandardCharsets.UTF_8));
+        util.prepareFeatures(Arrays.asList(getBomCoordinates()));
+        assertEquals(2, util.generatedJsons);
+
+        // a deleted JSON is generated again even though the ESAs did not change
+        assertTrue(json.delete());
+        util.prepareFeatures(Arrays.asList(getBomCoordinates()));
+        assertEquals(3, util.generatedJsons);
+    }
+}
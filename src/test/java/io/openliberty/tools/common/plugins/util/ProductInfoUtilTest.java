@@ -0,0 +1,62 @@
+/**
+ * (C) Copyright IBM Corporation 2026.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openliberty.tools.common.plugins.util;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ProductInfoUtilTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private File installDir;
+
+    @Before
+    public void setUp() throws Exception {
+        installDir = temp.newFolder();
+        FileUtils.copyDirectory(new File("src/test/resources/installdir"), installDir);
+    }
+
+    private void installFeature(String name, String bundleContent) throws Exception {
+        File bundle = new File(installDir, "lib/" + name + ".jar");
+        File manifest = new File(installDir, "lib/features/" + name + ".mf");
+        manifest.getParentFile().mkdirs();
+        Files.write(bundle.toPath(), bundleContent.getBytes(StandardCharsets.UTF_8));
+        Files.write(manifest.toPath(), ("Subsystem-SymbolicName: " + name + "\nIBM-ShortName: " + name + "\n")
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testInstalledFeatures() throws Exception {
+        assertFalse(ProductInfoUtil.areFeaturesInstalled(installDir, null, Arrays.asList("test.feature-1.0")));
+        installFeature("Test.Feature-1.0", "bundle");
+        assertTrue(ProductInfoUtil.areFeaturesInstalled(installDir, null, Arrays.asList("Test.Feature-1.0")));
+        assertFalse(ProductInfoUtil.areFeaturesInstalled(installDir, null, Arrays.asList("other.feature-1.0")));
+    }
+
+}
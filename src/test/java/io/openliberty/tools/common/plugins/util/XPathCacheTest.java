@@ -0,0 +1,89 @@
+/**
+ * (C) Copyright IBM Corporation 2026.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openliberty.tools.common.plugins.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPathExpression;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+public class XPathCacheTest {
+
+    private static Document parse(String xml) throws Exception {
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testCompiledOncePerThread() throws Exception {
+        final XPathExpression expression = XPathCache.compile("/server/variable");
+        assertSame(expression, XPathCache.compile("/server/variable"));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            XPathExpression other = executor.submit(new Callable<XPathExpression>() {
+                @Override
+                public XPathExpression call() throws Exception {
+                    return XPathCache.compile("/server/variable");
+                }
+            }).get();
+            assertNotSame(expression, other);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testConcurrentEvaluation() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+            for (int i = 0; i < 40; i++) {
+                final int count = i % 5;
+                results.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        StringBuilder xml = new StringBuilder("<server>");
+                        for (int j = 0; j < count; j++) {
+                            xml.append("<variable name=\"v").append(j).append("\" value=\"").append(j).append("\"/>");
+                        }
+                        Document doc = parse(xml.append("</server>").toString());
+                        return VariableUtility.parseVariables(doc, false, false, true).get(0).size();
+                    }
+                }));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(i % 5, results.get(i).get().intValue());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}